@@ -7,6 +7,7 @@ import com.example.loanapi.model.LoanRequest;
 import com.example.loanapi.model.User;
 import com.example.loanapi.model.UserRole;
 import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.security.LoanRequestContext;
 import com.example.loanapi.security.UserContext;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
@@ -18,10 +19,15 @@ import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AOP Aspect for role-based authorization
  * Intercepts methods annotated with @RequiresRole and @RequiresOwnership
+ * What each method requires (its roles, the position of its ID argument) is read by
+ * reflection the first time it is called and cached, so checks only compare values.
+ * A loan request loaded for an ownership check is handed on through LoanRequestContext.
  */
 @Aspect
 @Component
@@ -29,6 +35,8 @@ import java.util.Arrays;
 public class AuthorizationAspect {
 
     private final LoanRequestRepository loanRequestRepository;
+    private final ConcurrentHashMap<Method, EnumSet<UserRole>> requiredRoles = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, Integer> idArgumentIndexes = new ConcurrentHashMap<>();
 
     @Autowired
     public AuthorizationAspect(LoanRequestRepository loanRequestRepository) {
@@ -37,49 +45,37 @@ public class AuthorizationAspect {
 
     @Before("@annotation(com.example.loanapi.annotation.RequiresRole)")
     public void checkRole(JoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        RequiresRole requiresRole = method.getAnnotation(RequiresRole.class);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        EnumSet<UserRole> roles = requiredRoles.get(method);
+        if (roles == null) {
+            roles = requiredRoles.computeIfAbsent(method, AuthorizationAspect::rolesOf);
+        }
 
         User currentUser = UserContext.getCurrentUser();
-        UserRole[] requiredRoles = requiresRole.value();
-
-        boolean hasRequiredRole = Arrays.stream(requiredRoles)
-                .anyMatch(role -> role == currentUser.getRole());
-
-        if (!hasRequiredRole) {
+        if (!roles.contains(currentUser.getRole())) {
             throw new UnauthorizedException(
                 String.format("User with role %s is not authorized. Required roles: %s",
-                    currentUser.getRole(), Arrays.toString(requiredRoles)));
+                    currentUser.getRole(), roles));
         }
     }
 
     @Before("@annotation(com.example.loanapi.annotation.RequiresOwnership)")
     public void checkOwnership(JoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
-
-        // Extract the ID parameter (should be the first Long parameter)
-        Long loanRequestId = null;
-        Class<?>[] paramTypes = method.getParameterTypes();
-        for (int i = 0; i < paramTypes.length; i++) {
-            if (paramTypes[i] == Long.class || paramTypes[i] == long.class) {
-                loanRequestId = (Long) args[i];
-                break;
-            }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Integer index = idArgumentIndexes.get(method);
+        if (index == null) {
+            index = idArgumentIndexes.computeIfAbsent(method, AuthorizationAspect::idArgumentIndexOf);
         }
 
+        Long loanRequestId = index < 0 ? null : (Long) joinPoint.getArgs()[index];
         if (loanRequestId == null) {
             throw new IllegalStateException("Could not find ID parameter in method " + method.getName());
         }
 
-        // Make final for use in lambda
-        final Long finalLoanRequestId = loanRequestId;
-
-        // Get the loan request
-        LoanRequest loanRequest = loanRequestRepository.findById(finalLoanRequestId)
-                .orElseThrow(() -> new com.example.loanapi.exception.LoanRequestNotFoundException(finalLoanRequestId));
+        // Get the loan request; the sequence number is taken first, as the service would
+        long readAt = loanRequestRepository.getChangeSequence();
+        LoanRequest loanRequest = loanRequestRepository.findById(loanRequestId)
+                .orElseThrow(() -> new com.example.loanapi.exception.LoanRequestNotFoundException(loanRequestId));
 
         // Get current user info
         User currentUser = UserContext.getCurrentUser();
@@ -87,20 +83,45 @@ public class AuthorizationAspect {
 
         // GESTORE can always access
         if (currentRole == UserRole.GESTORE) {
+            LoanRequestContext.setAuthorized(loanRequest, readAt);
             return;
         }
 
         // CLIENTE can only access their own requests
         if (currentRole == UserRole.CLIENTE) {
-            Long currentUserId = UserContext.getCurrentUserId();
+            Long currentUserId = currentUser.getId();
             if (loanRequest.getUserId() == null || !loanRequest.getUserId().equals(currentUserId)) {
                 throw new ForbiddenException(
-                    String.format("User %d is not authorized to access loan request %d", currentUserId, finalLoanRequestId));
+                    String.format("User %d is not authorized to access loan request %d", currentUserId, loanRequestId));
             }
+            LoanRequestContext.setAuthorized(loanRequest, readAt);
             return;
         }
 
         // Other roles are not allowed
         throw new ForbiddenException("User role " + currentRole + " is not authorized to access loan requests");
     }
+
+    /**
+     * Roles allowed by a method's @RequiresRole
+     */
+    private static EnumSet<UserRole> rolesOf(Method method) {
+        RequiresRole requiresRole = method.getAnnotation(RequiresRole.class);
+        EnumSet<UserRole> roles = EnumSet.noneOf(UserRole.class);
+        roles.addAll(Arrays.asList(requiresRole.value()));
+        return roles;
+    }
+
+    /**
+     * Position of the loan request ID: the first Long parameter, or -1 if there is none
+     */
+    private static int idArgumentIndexOf(Method method) {
+        Class<?>[] paramTypes = method.getParameterTypes();
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (paramTypes[i] == Long.class || paramTypes[i] == long.class) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
@@ -31,6 +31,7 @@ public class SwaggerConfig {
                                         .scheme("bearer")
                                         .bearerFormat("JWT")
                                         .description("Inserisci il token nel formato: Bearer <token>\n\n" +
-                                                "Esempio: Bearer e73646661fb64a809b81bd80853c27d8")));
+                                                "Esempio: Bearer e73646661fb64a809b81bd80853c27d8\n\n" +
+                                                "Oppure un token firmato ottenuto con POST /api/auth/token")));
     }
 }
@@ -0,0 +1,87 @@
+package com.example.loanapi.controller;
+
+import com.example.loanapi.annotation.RequiresRole;
+import com.example.loanapi.dto.TokenResponseDTO;
+import com.example.loanapi.exception.ForbiddenException;
+import com.example.loanapi.exception.InvalidRequestException;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.security.SignedTokens;
+import com.example.loanapi.security.UserContext;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for issuing and revoking signed tokens
+ */
+@RestController
+@RequestMapping("/api/auth")
+@Tag(name = "Authentication", description = "API for signed bearer tokens")
+@SecurityRequirement(name = "bearer-jwt")
+public class AuthController {
+
+    private final SignedTokens signedTokens;
+
+    @Autowired
+    public AuthController(SignedTokens signedTokens) {
+        this.signedTokens = signedTokens;
+    }
+
+    /**
+     * Issue a signed token for the current user, in exchange for the opaque token
+     * A signed token cannot be exchanged for another, or a stolen one could be renewed forever.
+     * 
+     * @return the token and how long it is valid
+     */
+    @PostMapping("/token")
+    @Operation(
+        summary = "Issue signed token",
+        description = "Issue a signed token for the authenticated user. It carries the user ID and role and is " +
+                "verified without a user lookup, so prefer it to the opaque token for frequent calls. " +
+                "Send the opaque token as Bearer: a signed token cannot be renewed."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Token issued successfully"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - missing or invalid token"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - sent a signed token instead of the opaque one")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public ResponseEntity<TokenResponseDTO> issueToken() {
+        String current = UserContext.getCurrentToken();
+        if (current != null && SignedTokens.isSigned(current)) {
+            throw new ForbiddenException("Signed tokens cannot be renewed; exchange the opaque token instead");
+        }
+        String token = signedTokens.issue(UserContext.getCurrentUser());
+        return ResponseEntity.ok(new TokenResponseDTO(token, "Bearer", signedTokens.getTtlSeconds()));
+    }
+
+    /**
+     * Revoke the signed token the request was made with
+     * 
+     * @return no content
+     */
+    @DeleteMapping("/token")
+    @Operation(
+        summary = "Revoke signed token",
+        description = "Revoke the signed token sent as Bearer, e.g. on logout. It is rejected from then on."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Token revoked"),
+        @ApiResponse(responseCode = "400", description = "Bad request - not a signed token"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - missing or invalid token")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public ResponseEntity<Void> revokeToken() {
+        String token = UserContext.getCurrentToken();
+        if (token == null || !SignedTokens.isSigned(token)) {
+            throw new InvalidRequestException("Only signed tokens can be revoked");
+        }
+        signedTokens.revoke(token);
+        return ResponseEntity.noContent().build();
+    }
+}
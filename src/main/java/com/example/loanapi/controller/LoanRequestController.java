@@ -2,29 +2,54 @@ package com.example.loanapi.controller;
 
 import com.example.loanapi.annotation.RequiresOwnership;
 import com.example.loanapi.annotation.RequiresRole;
+import com.example.loanapi.dto.BatchCreateResponseDTO;
+import com.example.loanapi.dto.BatchUpdateResponseDTO;
 import com.example.loanapi.dto.CreateLoanRequestDTO;
+import com.example.loanapi.dto.DataFormat;
+import com.example.loanapi.dto.ImportReportDTO;
+import com.example.loanapi.dto.LoanRequestChangesDTO;
+import com.example.loanapi.dto.LoanRequestCountDTO;
 import com.example.loanapi.dto.LoanRequestFilter;
+import com.example.loanapi.dto.LoanRequestJson;
 import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.PageCacheStatsDTO;
 import com.example.loanapi.dto.PageRequest;
 import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.dto.StatusUpdateItemDTO;
 import com.example.loanapi.dto.UpdateLoanRequestDTO;
 import com.example.loanapi.dto.UpdateLoanRequestStatusDTO;
+import com.example.loanapi.exception.InvalidRequestException;
 import com.example.loanapi.exception.LoanRequestNotFoundException;
 import com.example.loanapi.model.UserRole;
+import com.example.loanapi.service.CacheableResult;
+import com.example.loanapi.service.LoanRequestExport;
 import com.example.loanapi.service.LoanRequestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * REST Controller for managing loan requests
  */
@@ -34,6 +59,8 @@ import javax.validation.Valid;
 @SecurityRequirement(name = "bearer-jwt")
 public class LoanRequestController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final LoanRequestService loanRequestService;
 
     @Autowired
@@ -47,57 +74,195 @@ public class LoanRequestController {
      * @param page page number (default: 0)
      * @param size page size (default: 10)
      * @param status filter by status (optional)
-     * @return paginated response with loan requests
+     * @param cursor keyset cursor from a previous response (optional, overrides page)
+     * @param includeTotals whether to compute totalElements/totalPages (default: true)
+     * @param ifNoneMatch ETag of a previously returned page (optional)
+     * @return paginated response with loan requests, or 304 if unchanged
      */
     @GetMapping
     @Operation(
         summary = "Get all loan requests",
-        description = "Retrieve paginated list of loan requests with optional status filter"
+        description = "Retrieve paginated list of loan requests with optional status filter. " +
+                "Pass the nextCursor of a response as cursor to fetch the following page at constant cost. " +
+                "Send the ETag of a previous response as If-None-Match to get 304 if the page has not changed since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved loan requests"),
+        @ApiResponse(responseCode = "304", description = "Not modified since the If-None-Match ETag"),
+        @ApiResponse(responseCode = "400", description = "Bad request - invalid cursor"),
         @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
     })
     @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
-    public ResponseEntity<PageResponse<LoanRequestResponseDTO>> getAllLoanRequests(
+    public ResponseEntity<PageResponse<LoanRequestJson>> getAllLoanRequests(
             @Parameter(description = "Page number (0-indexed)", example = "0")
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @Parameter(description = "Page size", example = "10")
             @RequestParam(required = false, defaultValue = "10") Integer size,
             @Parameter(description = "Filter by status (PENDIENTE, APROBADA, RECHAZADA, CANCELADA)", example = "PENDIENTE")
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Compute totalElements and totalPages", example = "true")
+            @RequestParam(required = false, defaultValue = "true") boolean includeTotals,
+            @Parameter(description = "ETag of a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        PageRequest pageRequest = new PageRequest(page, size);
+        PageRequest pageRequest = new PageRequest(page, size, cursor, includeTotals);
         LoanRequestFilter filter = new LoanRequestFilter(status);
         
-        PageResponse<LoanRequestResponseDTO> response = loanRequestService.getAllLoanRequests(pageRequest, filter);
-        return ResponseEntity.ok(response);
+        return conditional(loanRequestService.getCacheableLoanRequests(pageRequest, filter), ifNoneMatch);
+    }
+
+    /**
+     * Export all loan requests visible to the current user
+     * 
+     * @param format output format, ndjson (default) or csv
+     * @param status filter by status (optional)
+     * @return the export, streamed in chunks
+     */
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export loan requests",
+        description = "Stream every loan request visible to the current user as NDJSON or CSV, in listing order. " +
+                "CLIENTE exports own loan requests only. The response is written in chunks without paging."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Bad request - unknown format"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public ResponseEntity<StreamingResponseBody> exportLoanRequests(
+            @Parameter(description = "Output format (ndjson or csv)", example = "csv")
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            @Parameter(description = "Filter by status (PENDIENTE, APROBADA, RECHAZADA, CANCELADA)", example = "PENDIENTE")
+            @RequestParam(required = false) String status) {
+        DataFormat dataFormat = DataFormat.fromString(format);
+        LoanRequestExport export = loanRequestService.exportLoanRequests(new LoanRequestFilter(status), dataFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(dataFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"loans." + dataFormat.getFileExtension() + "\"")
+                .body(export::writeTo);
+    }
+
+    /**
+     * Stream changes to the loan requests visible to the current user
+     * 
+     * @return the Server-Sent Events stream
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Subscribe to loan request changes",
+        description = "Server-Sent Events stream of CREATED, UPDATED, STATUS_CHANGED and DELETED events, each with "
+                + "the loan request as JSON. CLIENTE receives events of own loan requests only. A client that falls "
+                + "too far behind gets a final 'dropped' event and is disconnected; it should reload and subscribe again."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public SseEmitter subscribeToEvents() {
+        return loanRequestService.subscribeToEvents();
+    }
+
+    /**
+     * Get the loan requests that changed after a change sequence number
+     * 
+     * @param since the nextSince of the previous response, 0 on first use
+     * @param limit maximum number of changes
+     * @return the changes, or a resync signal
+     */
+    @GetMapping("/changes")
+    @Operation(
+        summary = "Get loan request changes since a sequence number",
+        description = "Delta sync: returns each loan request changed after 'since' once, in its current state, or "
+                + "marked deleted. Continue with the returned nextSince, right away while hasMore is true. If resync "
+                + "is true, 'since' is no longer covered by the change log: reload GET /api/loans and continue from "
+                + "nextSince. CLIENTE sees own loan requests only."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public ResponseEntity<LoanRequestChangesDTO> getChanges(
+            @Parameter(description = "nextSince of the previous response (0 on first use)", example = "0")
+            @RequestParam long since,
+            @Parameter(description = "Maximum number of changes (1-1000)", example = "500")
+            @RequestParam(required = false, defaultValue = "500") int limit) {
+        return ResponseEntity.ok(loanRequestService.getChangesSince(since, limit));
+    }
+
+    /**
+     * Count loan requests in total and per status
+     * 
+     * @return the counts visible to the current user
+     */
+    @GetMapping("/count")
+    @Operation(
+        summary = "Count loan requests",
+        description = "Total and per-status counts, served from live counters. " +
+                "CLIENTE counts own loan requests only."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully counted loan requests"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+    public ResponseEntity<LoanRequestCountDTO> countLoanRequests() {
+        return ResponseEntity.ok(loanRequestService.countLoanRequests());
+    }
+
+    /**
+     * Get the counters of the list page cache
+     * 
+     * @return hits, misses, evictions, expirations and invalidations
+     */
+    @GetMapping("/cache/stats")
+    @Operation(
+        summary = "Get list page cache statistics",
+        description = "Counters of the cache of GET /api/loans pages since startup. Only GESTORE role can read them."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole(UserRole.GESTORE)
+    public ResponseEntity<PageCacheStatsDTO> getPageCacheStats() {
+        return ResponseEntity.ok(loanRequestService.getPageCacheStats());
     }
 
     /**
      * Get a loan request by ID
      * 
      * @param id the loan request ID
-     * @return the loan request
+     * @param ifNoneMatch ETag of a previously returned version (optional)
+     * @return the loan request, or 304 if unchanged
      */
     @GetMapping("/{id}")
     @Operation(
         summary = "Get loan request by ID",
-        description = "Retrieve a specific loan request by its ID"
+        description = "Retrieve a specific loan request by its ID. The ETag is the version; send it as " +
+                "If-None-Match to get 304 if unchanged. Rechazada and Cancelada loan requests may be cached."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved loan request"),
+        @ApiResponse(responseCode = "304", description = "Not modified since the If-None-Match ETag"),
         @ApiResponse(responseCode = "404", description = "Loan request not found"),
         @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions or not owner")
     })
     @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
     @RequiresOwnership
-    public ResponseEntity<LoanRequestResponseDTO> getLoanRequestById(
+    public ResponseEntity<LoanRequestJson> getLoanRequestById(
             @Parameter(description = "Loan request ID", example = "1", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag of a previous response (e.g. \"3\")")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            LoanRequestResponseDTO loanRequest = loanRequestService.getLoanRequestById(id);
-            return ResponseEntity.ok(loanRequest);
+            return conditional(loanRequestService.getCacheableLoanRequestById(id), ifNoneMatch);
         } catch (LoanRequestNotFoundException e) {
             return ResponseEntity.notFound().build();
         }
@@ -126,6 +291,77 @@ public class LoanRequestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Create several loan requests in one call
+     * 
+     * @param body the loan requests to create, as a JSON array
+     * @return the outcome of every item
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Create loan requests in bulk",
+        description = "Create many loan requests in one call (JSON array, or one JSON object per line with "
+                + "Content-Type application/x-ndjson). Every item is validated like POST /api/loans; valid items "
+                + "are created together, invalid ones are reported per item. Only CLIENTE role can create loan requests.",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                array = @ArraySchema(schema = @Schema(implementation = CreateLoanRequestDTO.class))))
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "All items created"),
+        @ApiResponse(responseCode = "200", description = "Batch processed, some items invalid (see results)"),
+        @ApiResponse(responseCode = "400", description = "Bad request - malformed body or too many items"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole(UserRole.CLIENTE)
+    public ResponseEntity<BatchCreateResponseDTO> createLoanRequests(InputStream body) throws IOException {
+        return batchResponse(loanRequestService.createLoanRequests(body, false));
+    }
+
+    /**
+     * Create several loan requests in one call, from newline-delimited JSON
+     * 
+     * @param body one loan request JSON object per line
+     * @return the outcome of every item
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @Operation(hidden = true)
+    @RequiresRole(UserRole.CLIENTE)
+    public ResponseEntity<BatchCreateResponseDTO> createLoanRequestsFromNdjson(InputStream body) throws IOException {
+        return batchResponse(loanRequestService.createLoanRequests(body, true));
+    }
+
+    /**
+     * Import loan requests with their original owner, status and creation date
+     * 
+     * @param contentType the body format (application/x-ndjson or text/csv)
+     * @param body the rows, read as a stream
+     * @return the import report
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(
+        summary = "Import loan requests",
+        description = "Bulk load loan requests from NDJSON (one object per line) or CSV with a header row, "
+                + "e.g. the output of GET /api/loans/export. Every row needs userId, status and createdAt besides "
+                + "the POST /api/loans fields, and keeps them. The body is streamed and saved in batches; invalid "
+                + "rows are skipped and reported. Each imported loan request is sent as a CREATED event to "
+                + "GET /api/loans/events subscribers. Only GESTORE role can import loan requests."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import processed (see counts and errors)"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions"),
+        @ApiResponse(responseCode = "415", description = "Unsupported body format")
+    })
+    @RequiresRole(UserRole.GESTORE)
+    public ResponseEntity<ImportReportDTO> importLoanRequests(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        DataFormat format = DataFormat.fromContentType(contentType);
+        return ResponseEntity.ok(loanRequestService.importLoanRequests(body, format));
+    }
+
     /**
      * Update an existing loan request
      * 
@@ -166,22 +402,29 @@ public class LoanRequestController {
     @PatchMapping("/{id}/status")
     @Operation(
         summary = "Update loan request status",
-        description = "Update the status of a loan request. Only GESTORE role can update status."
+        description = "Update the status of a loan request. Only GESTORE role can update status. "
+                + "Send If-Match with the version (ETag) last read to apply the change only if the "
+                + "loan request has not been modified since."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Status updated successfully"),
         @ApiResponse(responseCode = "400", description = "Bad request - invalid status or validation failed"),
         @ApiResponse(responseCode = "404", description = "Loan request not found"),
-        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions"),
+        @ApiResponse(responseCode = "412", description = "Precondition failed - loan request modified since If-Match version")
     })
     @RequiresRole(UserRole.GESTORE)
     public ResponseEntity<LoanRequestResponseDTO> updateLoanRequestStatus(
             @Parameter(description = "Loan request ID", example = "1", required = true)
             @PathVariable Long id,
+            @Parameter(description = "Expected version, as returned in the ETag header (e.g. \"3\")", example = "\"1\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateLoanRequestStatusDTO updateStatusDTO) {
+        Long expectedVersion = parseVersion(ifMatch);
         try {
-            LoanRequestResponseDTO updated = loanRequestService.updateLoanRequestStatus(id, updateStatusDTO);
-            return ResponseEntity.ok(updated);
+            LoanRequestResponseDTO updated = loanRequestService.updateLoanRequestStatus(id, updateStatusDTO,
+                    expectedVersion);
+            return ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(updated);
         } catch (LoanRequestNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (IllegalStateException e) {
@@ -189,6 +432,30 @@ public class LoanRequestController {
         }
     }
 
+    /**
+     * Update the status of several loan requests in one call
+     * 
+     * @param items the status changes
+     * @return the outcome of every item
+     */
+    @PatchMapping("/status")
+    @Operation(
+        summary = "Update loan request statuses in bulk",
+        description = "Apply many status changes in one call. Each item follows the same transition rules "
+                + "as PATCH /api/loans/{id}/status and may carry the expected version (like If-Match); "
+                + "items are applied independently and reported one by one. Only GESTORE role can update status."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed (see per-item results)"),
+        @ApiResponse(responseCode = "400", description = "Bad request - malformed body or too many items"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - insufficient permissions")
+    })
+    @RequiresRole(UserRole.GESTORE)
+    public ResponseEntity<BatchUpdateResponseDTO> updateLoanRequestStatuses(
+            @RequestBody List<StatusUpdateItemDTO> items) {
+        return ResponseEntity.ok(loanRequestService.updateLoanRequestStatuses(items));
+    }
+
     /**
      * Delete a loan request
      * 
@@ -214,4 +481,81 @@ public class LoanRequestController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    private static ResponseEntity<BatchCreateResponseDTO> batchResponse(BatchCreateResponseDTO result) {
+        HttpStatus status = result.getInvalid() == 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    /**
+     * Answer a conditional GET: 304 without building the body if the client already has it
+     * 
+     * @param result the tagged result
+     * @param ifNoneMatch the If-None-Match header, or null
+     * @return 304, or 200 with the body; both carry the ETag and Cache-Control
+     */
+    private static <T> ResponseEntity<T> conditional(CacheableResult<T> result, String ifNoneMatch) {
+        // Private: responses depend on the caller. Without a max age, every reuse is revalidated.
+        CacheControl cacheControl = result.getMaxAgeSeconds() > 0
+                ? CacheControl.maxAge(result.getMaxAgeSeconds(), TimeUnit.SECONDS).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+        if (matchesAny(ifNoneMatch, result.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(result.getETag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(result.getETag())
+                .cacheControl(cacheControl)
+                .body(result.getBody());
+    }
+
+    /**
+     * Compare an If-None-Match header with an ETag (weak comparison, as GET requires)
+     * 
+     * @param ifNoneMatch the header value: *, or a comma separated list of tags, or null
+     * @param eTag the quoted current tag
+     * @return true if the header matches the tag
+     */
+    private static boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse an If-Match header holding a single loan request version
+     * 
+     * @param ifMatch the header value ("3", W/"3" or *), or null
+     * @return the expected version, or null if any version is accepted
+     * @throws InvalidRequestException if the header is not a version
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the response of a bulk loan request creation
+ */
+public class BatchCreateResponseDTO {
+
+    @Schema(example = "2", description = "Numero di prestiti creati")
+    private int created;
+
+    @Schema(example = "1", description = "Numero di elementi scartati perché non validi")
+    private int invalid;
+
+    @Schema(description = "Esito di ogni elemento, nello stesso ordine della richiesta")
+    private List<BatchItemResultDTO> results;
+
+    public BatchCreateResponseDTO() {
+    }
+
+    public BatchCreateResponseDTO(int created, int invalid, List<BatchItemResultDTO> results) {
+        this.created = created;
+        this.invalid = invalid;
+        this.results = results;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(int invalid) {
+        this.invalid = invalid;
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemResultDTO> results) {
+        this.results = results;
+    }
+}
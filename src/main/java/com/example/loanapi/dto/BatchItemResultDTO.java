@@ -0,0 +1,92 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of one item of a batch request
+ */
+public class BatchItemResultDTO {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String INVALID = "INVALID";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String VERSION_CONFLICT = "VERSION_CONFLICT";
+    public static final String INVALID_TRANSITION = "INVALID_TRANSITION";
+
+    @Schema(example = "0", description = "Posizione dell'elemento nella richiesta (da 0)")
+    private int index;
+
+    @Schema(example = "CREATED", description = "Esito dell'elemento", allowableValues = {
+            "CREATED", "UPDATED", "INVALID", "NOT_FOUND", "VERSION_CONFLICT", "INVALID_TRANSITION"})
+    private String status;
+
+    @Schema(description = "Prestito creato o aggiornato (solo se CREATED o UPDATED)")
+    private LoanRequestResponseDTO loan;
+
+    @Schema(description = "Motivo del rifiuto (solo per gli elementi non applicati)")
+    private List<ValidationErrorResponse.FieldError> errors;
+
+    public BatchItemResultDTO() {
+    }
+
+    public BatchItemResultDTO(int index, String status, LoanRequestResponseDTO loan,
+                              List<ValidationErrorResponse.FieldError> errors) {
+        this.index = index;
+        this.status = status;
+        this.loan = loan;
+        this.errors = errors;
+    }
+
+    public static BatchItemResultDTO created(int index, LoanRequestResponseDTO loan) {
+        return new BatchItemResultDTO(index, CREATED, loan, null);
+    }
+
+    public static BatchItemResultDTO updated(int index, LoanRequestResponseDTO loan) {
+        return new BatchItemResultDTO(index, UPDATED, loan, null);
+    }
+
+    public static BatchItemResultDTO invalid(int index, List<ValidationErrorResponse.FieldError> errors) {
+        return new BatchItemResultDTO(index, INVALID, null, errors);
+    }
+
+    public static BatchItemResultDTO rejected(int index, String status, String message) {
+        return new BatchItemResultDTO(index, status, null,
+                Collections.singletonList(new ValidationErrorResponse.FieldError(null, message, null)));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LoanRequestResponseDTO getLoan() {
+        return loan;
+    }
+
+    public void setLoan(LoanRequestResponseDTO loan) {
+        this.loan = loan;
+    }
+
+    public List<ValidationErrorResponse.FieldError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ValidationErrorResponse.FieldError> errors) {
+        this.errors = errors;
+    }
+}
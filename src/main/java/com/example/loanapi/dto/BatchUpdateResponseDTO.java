@@ -0,0 +1,53 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the response of a bulk loan request update
+ */
+public class BatchUpdateResponseDTO {
+
+    @Schema(example = "2", description = "Numero di prestiti aggiornati")
+    private int updated;
+
+    @Schema(example = "1", description = "Numero di elementi non applicati")
+    private int failed;
+
+    @Schema(description = "Esito di ogni elemento, nello stesso ordine della richiesta")
+    private List<BatchItemResultDTO> results;
+
+    public BatchUpdateResponseDTO() {
+    }
+
+    public BatchUpdateResponseDTO(int updated, int failed, List<BatchItemResultDTO> results) {
+        this.updated = updated;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchItemResultDTO> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.loanapi.dto;
+
+import com.example.loanapi.exception.InvalidRequestException;
+
+/**
+ * Body formats of the loan request export and import
+ */
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    DataFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Convert string to DataFormat enum
+     * 
+     * @param format the format name (case-insensitive), or null for NDJSON
+     * @return the corresponding DataFormat enum
+     * @throws InvalidRequestException if the format is unknown
+     */
+    public static DataFormat fromString(String format) {
+        if (format == null || format.trim().isEmpty()) {
+            return NDJSON;
+        }
+        for (DataFormat dataFormat : values()) {
+            if (dataFormat.name().equalsIgnoreCase(format.trim())) {
+                return dataFormat;
+            }
+        }
+        throw new InvalidRequestException("Invalid export format: " + format + " (expected ndjson or csv)");
+    }
+
+    /**
+     * Find the format of a request body from its Content-Type
+     * 
+     * @param contentType the Content-Type header value (parameters such as charset are ignored)
+     * @return the corresponding DataFormat enum
+     * @throws InvalidRequestException if the content type is missing or not supported
+     */
+    public static DataFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String mediaType = contentType.split(";", 2)[0].trim();
+            for (DataFormat dataFormat : values()) {
+                if (dataFormat.contentType.equalsIgnoreCase(mediaType)) {
+                    return dataFormat;
+                }
+            }
+        }
+        throw new InvalidRequestException("Unsupported content type: " + contentType
+                + " (expected application/x-ndjson or text/csv)");
+    }
+}
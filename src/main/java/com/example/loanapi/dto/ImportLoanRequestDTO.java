@@ -0,0 +1,56 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for one row of a loan request import
+ * Same fields and rules as CreateLoanRequestDTO, plus the owner, status and
+ * creation date, which an import keeps instead of setting them
+ */
+public class ImportLoanRequestDTO extends CreateLoanRequestDTO {
+
+    @NotNull(message = "User ID is required")
+    @Schema(example = "1", description = "ID dell'utente")
+    private Long userId;
+
+    @NotBlank(message = "Status is required")
+    @Pattern(regexp = "(?i)^(Pendiente|Aprobada|Rechazada|Cancelada)$",
+            message = "Status must be Pendiente, Aprobada, Rechazada or Cancelada")
+    @Schema(example = "Aprobada", description = "Stato del prestito",
+            allowableValues = {"Pendiente", "Aprobada", "Rechazada", "Cancelada"})
+    private String status;
+
+    @NotNull(message = "Creation date is required")
+    @Schema(example = "2019-02-04T10:30:00", description = "Data e ora di creazione originale")
+    private LocalDateTime createdAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of a loan request import
+ */
+public class ImportReportDTO {
+
+    @Schema(example = "100000", description = "Righe lette")
+    private long rowsRead;
+
+    @Schema(example = "99998", description = "Prestiti importati")
+    private long imported;
+
+    @Schema(example = "2", description = "Righe scartate perché non valide")
+    private long invalid;
+
+    @Schema(example = "false", description = "Vero se la lettura si è interrotta per un corpo non leggibile")
+    private boolean aborted;
+
+    @Schema(description = "Prime righe scartate (index = numero di riga dei dati, da 1) con i relativi errori")
+    private List<BatchItemResultDTO> errors;
+
+    @Schema(example = "2350", description = "Durata dell'import in millisecondi")
+    private long elapsedMillis;
+
+    @Schema(example = "42553.2", description = "Righe lette al secondo")
+    private double rowsPerSecond;
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public void setAborted(boolean aborted) {
+        this.aborted = aborted;
+    }
+
+    public List<BatchItemResultDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BatchItemResultDTO> errors) {
+        this.errors = errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object for one changed loan request in a delta sync response
+ */
+public class LoanRequestChangeDTO {
+
+    @Schema(example = "1729150000000123", description = "Numero di sequenza dell'ultima modifica del prestito")
+    private long sequence;
+
+    @Schema(example = "1", description = "ID del prestito")
+    private Long loanId;
+
+    @Schema(example = "false", description = "Vero se il prestito è stato eliminato (loan assente)")
+    private boolean deleted;
+
+    @Schema(description = "Stato attuale del prestito")
+    private LoanRequestResponseDTO loan;
+
+    public LoanRequestChangeDTO() {
+    }
+
+    public LoanRequestChangeDTO(long sequence, Long loanId, LoanRequestResponseDTO loan) {
+        this.sequence = sequence;
+        this.loanId = loanId;
+        this.deleted = loan == null;
+        this.loan = loan;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public void setLoanId(Long loanId) {
+        this.loanId = loanId;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public LoanRequestResponseDTO getLoan() {
+        return loan;
+    }
+
+    public void setLoan(LoanRequestResponseDTO loan) {
+        this.loan = loan;
+    }
+}
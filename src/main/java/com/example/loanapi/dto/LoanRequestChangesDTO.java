@@ -0,0 +1,65 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a delta sync response (GET /api/loans/changes)
+ */
+public class LoanRequestChangesDTO {
+
+    @Schema(description = "Prestiti modificati, ognuno una volta, in ordine di ultima modifica")
+    private List<LoanRequestChangeDTO> changes;
+
+    @Schema(example = "1729150000000123", description = "Valore di since per la richiesta successiva")
+    private long nextSince;
+
+    @Schema(example = "false", description = "Vero se since non è più coperto: ricaricare tutta la lista, poi ripartire da nextSince")
+    private boolean resync;
+
+    @Schema(example = "false", description = "Vero se ci sono già altre modifiche dopo nextSince")
+    private boolean hasMore;
+
+    public LoanRequestChangesDTO() {
+    }
+
+    public LoanRequestChangesDTO(List<LoanRequestChangeDTO> changes, long nextSince, boolean resync, boolean hasMore) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.resync = resync;
+        this.hasMore = hasMore;
+    }
+
+    public List<LoanRequestChangeDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<LoanRequestChangeDTO> changes) {
+        this.changes = changes;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
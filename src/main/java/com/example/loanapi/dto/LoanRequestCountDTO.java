@@ -0,0 +1,41 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object for loan request counts
+ */
+public class LoanRequestCountDTO {
+
+    @Schema(example = "42", description = "Numero totale di prestiti")
+    private long total;
+
+    @Schema(example = "{\"Aprobada\": 10, \"Pendiente\": 32}", description = "Numero di prestiti per stato")
+    private Map<String, Long> byStatus;
+
+    public LoanRequestCountDTO() {
+    }
+
+    public LoanRequestCountDTO(long total, Map<String, Long> byStatus) {
+        this.total = total;
+        this.byStatus = byStatus;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+}
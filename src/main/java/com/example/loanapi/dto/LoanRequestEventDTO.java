@@ -0,0 +1,77 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object for a change to a loan request, as pushed to event stream subscribers
+ */
+public class LoanRequestEventDTO {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String DELETED = "DELETED";
+
+    @Schema(example = "STATUS_CHANGED", description = "Tipo di modifica",
+            allowableValues = {CREATED, UPDATED, STATUS_CHANGED, DELETED})
+    private String type;
+
+    @Schema(example = "1", description = "ID del prestito")
+    private Long loanId;
+
+    @Schema(example = "1", description = "ID dell'utente proprietario del prestito")
+    private Long userId;
+
+    @Schema(description = "Stato del prestito dopo la modifica (assente per DELETED)")
+    private LoanRequestResponseDTO loan;
+
+    public LoanRequestEventDTO() {
+    }
+
+    public LoanRequestEventDTO(String type, Long loanId, Long userId, LoanRequestResponseDTO loan) {
+        this.type = type;
+        this.loanId = loanId;
+        this.userId = userId;
+        this.loan = loan;
+    }
+
+    public static LoanRequestEventDTO of(String type, LoanRequestResponseDTO loan) {
+        return new LoanRequestEventDTO(type, loan.getId(), loan.getUserId(), loan);
+    }
+
+    public static LoanRequestEventDTO deleted(Long loanId, Long userId) {
+        return new LoanRequestEventDTO(DELETED, loanId, userId, null);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public void setLoanId(Long loanId) {
+        this.loanId = loanId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LoanRequestResponseDTO getLoan() {
+        return loan;
+    }
+
+    public void setLoan(LoanRequestResponseDTO loan) {
+        this.loan = loan;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.loanapi.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+
+/**
+ * A loan request already serialized as a LoanRequestResponseDTO JSON object
+ * Written to responses as is: a page of these is the page's envelope with the
+ * fragments' UTF-8 bytes copied in, without mapping or serializing the rows.
+ */
+@Schema(implementation = LoanRequestResponseDTO.class)
+public final class LoanRequestJson implements JsonSerializable {
+
+    private final long id;
+    private final long version;
+    private final SerializableString json;
+
+    /**
+     * @param id the loan request ID
+     * @param version the version the JSON was written from
+     * @param json the LoanRequestResponseDTO JSON object
+     */
+    public LoanRequestJson(long id, long version, String json) {
+        this.id = id;
+        this.version = version;
+        SerializedString serialized = new SerializedString(json);
+        // Encoded once here; every response copies these bytes
+        serialized.asUnquotedUTF8();
+        this.json = serialized;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+}
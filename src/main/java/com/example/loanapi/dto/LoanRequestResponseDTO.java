@@ -34,6 +34,9 @@ public class LoanRequestResponseDTO {
     @Schema(example = "2026-02-04T10:30:00", description = "Data e ora di creazione")
     private LocalDateTime createdAt;
 
+    @Schema(example = "1", description = "Versione del prestito, incrementata a ogni modifica (usata con If-Match)")
+    private long version;
+
     public Long getId() {
         return id;
     }
@@ -97,4 +100,12 @@ public class LoanRequestResponseDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,106 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object for the list page cache counters
+ */
+public class PageCacheStatsDTO {
+
+    @Schema(example = "950", description = "Pagine servite dalla cache")
+    private long hits;
+
+    @Schema(example = "50", description = "Pagine lette dal repository")
+    private long misses;
+
+    @Schema(example = "0", description = "Voci rimosse per limite di dimensione")
+    private long evictions;
+
+    @Schema(example = "3", description = "Voci rimosse perché scadute (TTL)")
+    private long expirations;
+
+    @Schema(example = "12", description = "Voci rimosse perché una modifica le ha rese obsolete")
+    private long invalidations;
+
+    @Schema(example = "35", description = "Voci attualmente in cache")
+    private int size;
+
+    @Schema(example = "1000", description = "Numero massimo di voci (0 = cache disattivata)")
+    private int maxEntries;
+
+    public PageCacheStatsDTO() {
+    }
+
+    public PageCacheStatsDTO(long hits, long misses, long evictions, long expirations, long invalidations,
+                             int size, int maxEntries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.maxEntries = maxEntries;
+    }
+
+    @Schema(example = "0.95", description = "Quota di pagine servite dalla cache")
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public void setExpirations(long expirations) {
+        this.expirations = expirations;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -15,6 +15,12 @@ public class PageRequest {
     @Max(value = 100, message = "Size must be <= 100")
     private int size = 10;
 
+    // Opaque keyset cursor from a previous PageResponse.nextCursor; takes precedence over page
+    private String cursor;
+
+    // Counting all matches is the only cost that grows with the data set, so clients can skip it
+    private boolean includeTotals = true;
+
     public PageRequest() {
     }
 
@@ -23,6 +29,13 @@ public class PageRequest {
         this.size = size;
     }
 
+    public PageRequest(int page, int size, String cursor, boolean includeTotals) {
+        this.page = page;
+        this.size = size;
+        this.cursor = cursor;
+        this.includeTotals = includeTotals;
+    }
+
     public int getPage() {
         return page;
     }
@@ -38,4 +51,29 @@ public class PageRequest {
     public void setSize(int size) {
         this.size = size;
     }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isIncludeTotals() {
+        return includeTotals;
+    }
+
+    public void setIncludeTotals(boolean includeTotals) {
+        this.includeTotals = includeTotals;
+    }
+
+    /**
+     * Check if keyset pagination is requested
+     * 
+     * @return true if cursor is not null and not empty
+     */
+    public boolean hasCursor() {
+        return cursor != null && !cursor.trim().isEmpty();
+    }
 }
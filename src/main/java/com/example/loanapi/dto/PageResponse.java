@@ -1,19 +1,25 @@
 package com.example.loanapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Generic DTO for paginated response
+ * Totals are omitted when the client opted out of counting;
+ * nextCursor is omitted on the last page
  * 
  * @param <T> the type of content in the page
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageResponse<T> {
 
     private List<T> content;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private int page;
     private int size;
+    private String nextCursor;
 
     public PageResponse() {
     }
@@ -26,6 +32,16 @@ public class PageResponse<T> {
         this.size = size;
     }
 
+    public PageResponse(List<T> content, Long totalElements, Integer totalPages, int page, int size,
+                        String nextCursor) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.page = page;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
     public List<T> getContent() {
         return content;
     }
@@ -34,19 +50,19 @@ public class PageResponse<T> {
         this.content = content;
     }
 
-    public long getTotalElements() {
+    public Long getTotalElements() {
         return totalElements;
     }
 
-    public void setTotalElements(long totalElements) {
+    public void setTotalElements(Long totalElements) {
         this.totalElements = totalElements;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
 
@@ -65,4 +81,12 @@ public class PageResponse<T> {
     public void setSize(int size) {
         this.size = size;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
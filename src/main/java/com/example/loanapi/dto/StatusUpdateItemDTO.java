@@ -0,0 +1,60 @@
+package com.example.loanapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for one status change of a bulk status update
+ */
+public class StatusUpdateItemDTO {
+
+    @NotNull(message = "Loan request ID is required")
+    @Schema(example = "1", description = "ID del prestito")
+    private Long id;
+
+    @NotBlank(message = "Status is required")
+    @Schema(
+        example = "APROBADA",
+        description = "Nuovo stato del prestito",
+        allowableValues = {"PENDIENTE", "APROBADA", "RECHAZADA", "CANCELADA"}
+    )
+    private String status;
+
+    @Schema(example = "1", description = "Versione attesa del prestito (opzionale, come If-Match)")
+    private Long expectedVersion;
+
+    public StatusUpdateItemDTO() {
+    }
+
+    public StatusUpdateItemDTO(Long id, String status, Long expectedVersion) {
+        this.id = id;
+        this.status = status;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.loanapi.exception;
+
+/**
+ * Exception thrown when a request carries a value the API cannot accept
+ * Used for input that bean validation does not cover, e.g. cursors, headers and batch bodies.
+ * Mapped to 400, unlike other IllegalArgumentExceptions, which are bugs.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
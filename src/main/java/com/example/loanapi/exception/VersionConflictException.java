@@ -0,0 +1,19 @@
+package com.example.loanapi.exception;
+
+/**
+ * Custom exception for when a conditional update expected a different loan request version
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final long currentVersion;
+
+    public VersionConflictException(Long id, long expectedVersion, long currentVersion) {
+        super("Loan request with ID " + id + " is at version " + currentVersion
+                + ", expected version " + expectedVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
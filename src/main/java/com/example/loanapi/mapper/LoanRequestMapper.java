@@ -1,11 +1,19 @@
 package com.example.loanapi.mapper;
 
 import com.example.loanapi.dto.CreateLoanRequestDTO;
+import com.example.loanapi.dto.ImportLoanRequestDTO;
+import com.example.loanapi.dto.LoanRequestChangeDTO;
+import com.example.loanapi.dto.LoanRequestChangesDTO;
 import com.example.loanapi.dto.LoanRequestResponseDTO;
 import com.example.loanapi.dto.UpdateLoanRequestDTO;
 import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.model.LoanStatus;
+import com.example.loanapi.repository.LoanRequestChange;
+import com.example.loanapi.repository.LoanRequestChanges;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Mapper for converting between DTOs and Model entities
@@ -33,6 +41,25 @@ public class LoanRequestMapper {
         return loanRequest;
     }
 
+    /**
+     * Convert ImportLoanRequestDTO to LoanRequest Model
+     * Keeps the owner, status (normalized to its canonical spelling) and createdAt of the row
+     * 
+     * @param dto the import row
+     * @return the LoanRequest model
+     */
+    public static LoanRequest toModel(ImportLoanRequestDTO dto) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setUserId(dto.getUserId());
+        loanRequest.setApplicantName(dto.getApplicantName());
+        loanRequest.setAmount(dto.getAmount());
+        loanRequest.setCurrency(dto.getCurrency());
+        loanRequest.setIdentityDocument(dto.getIdentityDocument());
+        loanRequest.setStatus(LoanStatus.fromString(dto.getStatus()).getValue());
+        loanRequest.setCreatedAt(dto.getCreatedAt());
+        return loanRequest;
+    }
+
     /**
      * Update existing LoanRequest with values from UpdateLoanRequestDTO
      * Preserves ID and createdAt, updates all other fields
@@ -66,6 +93,22 @@ public class LoanRequestMapper {
         dto.setIdentityDocument(loanRequest.getIdentityDocument());
         dto.setStatus(loanRequest.getStatus());
         dto.setCreatedAt(loanRequest.getCreatedAt());
+        dto.setVersion(loanRequest.getVersion());
         return dto;
     }
+
+    /**
+     * Convert a page of the change log to LoanRequestChangesDTO
+     * 
+     * @param changes the changes read from the repository
+     * @return the response DTO; deleted loans have no loan
+     */
+    public static LoanRequestChangesDTO toChangesDTO(LoanRequestChanges changes) {
+        List<LoanRequestChangeDTO> dtos = new ArrayList<>(changes.getChanges().size());
+        for (LoanRequestChange change : changes.getChanges()) {
+            dtos.add(new LoanRequestChangeDTO(change.getSequence(), change.getLoanId(),
+                    change.isDeleted() ? null : toResponseDTO(change.getLoanRequest())));
+        }
+        return new LoanRequestChangesDTO(dtos, changes.getNextSince(), changes.isResync(), changes.isHasMore());
+    }
 }
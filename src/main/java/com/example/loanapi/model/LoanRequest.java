@@ -16,6 +16,28 @@ public class LoanRequest {
     private String identityDocument;
     private String status;
     private LocalDateTime createdAt;
+    // Incremented by the repository on every write; 0 until first saved
+    private long version;
+
+    public LoanRequest() {
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other the loan request to copy
+     */
+    public LoanRequest(LoanRequest other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.applicantName = other.applicantName;
+        this.amount = other.amount;
+        this.currency = other.currency;
+        this.identityDocument = other.identityDocument;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.version = other.version;
+    }
 
     // @Id
     // @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -82,4 +104,12 @@ public class LoanRequest {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
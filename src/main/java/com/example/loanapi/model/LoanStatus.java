@@ -19,6 +19,13 @@ public enum LoanStatus {
         return value;
     }
 
+    /**
+     * @return true if no status transition leaves this status (Rechazada, Cancelada)
+     */
+    public boolean isTerminal() {
+        return this == RECHAZADA || this == CANCELADA;
+    }
+
     /**
      * Convert string to LoanStatus enum
      * 
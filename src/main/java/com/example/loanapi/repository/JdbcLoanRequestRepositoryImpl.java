@@ -0,0 +1,558 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.InvalidRequestException;
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.model.LoanRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Database implementation of LoanRequestRepository using plain JdbcTemplate
+ * Filtering, listing order and paging are pushed into SQL. The listing order uses
+ * the generated listing_rank column (0 for Pendiente, 1 otherwise), so each filter
+ * has a matching index and keyset pages are index range scans.
+ * Written for H2 (MERGE ... KEY); the schema is created on startup if missing.
+ * IDs are allocated in-process, starting after the highest stored ID.
+ * Every write increments the version column; update() is an optimistic
+ * compare-and-set on it, retried when another writer got there first.
+ * Changes made through this instance are recorded in an in-memory change log once
+ * committed; since the log holds IDs only, readers always get the committed state.
+ * Amounts must fit the DECIMAL(19, 2) column: amounts with more than 2 decimals or more
+ * than 17 integer digits are rejected rather than rounded by the database.
+ * Active when loan.repository.type is "jdbc"
+ */
+@Repository
+@ConditionalOnProperty(name = "loan.repository.type", havingValue = "jdbc")
+public class JdbcLoanRequestRepositoryImpl implements LoanRequestRepository {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS loan_request ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "user_id BIGINT, "
+                    + "applicant_name VARCHAR(1000), "
+                    + "amount DECIMAL(19, 2), "
+                    + "currency VARCHAR(16), "
+                    + "identity_document VARCHAR(64), "
+                    + "status VARCHAR(32), "
+                    + "created_at TIMESTAMP(9), "
+                    + "version BIGINT DEFAULT 0 NOT NULL, "
+                    + "listing_rank TINYINT GENERATED ALWAYS AS (CASE WHEN status = 'Pendiente' THEN 0 ELSE 1 END))",
+            // Tables created before loan requests were versioned
+            "ALTER TABLE loan_request ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL",
+            "CREATE INDEX IF NOT EXISTS idx_loan_request_listing "
+                    + "ON loan_request (listing_rank, created_at NULLS LAST, id)",
+            "CREATE INDEX IF NOT EXISTS idx_loan_request_user "
+                    + "ON loan_request (user_id, listing_rank, created_at NULLS LAST, id)",
+            "CREATE INDEX IF NOT EXISTS idx_loan_request_status "
+                    + "ON loan_request (status, created_at NULLS LAST, id)"
+    };
+
+    private static final String COLUMNS =
+            "id, user_id, applicant_name, amount, currency, identity_document, status, created_at, version";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM loan_request";
+    private static final String ORDER_BY = " ORDER BY listing_rank, created_at NULLS LAST, id";
+    private static final String INSERT = "INSERT INTO loan_request (" + COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1)";
+    private static final String SET = "UPDATE loan_request SET user_id = ?, applicant_name = ?, amount = ?, "
+            + "currency = ?, identity_document = ?, status = ?, created_at = ?, version = version + 1 WHERE id = ?";
+    // The new version comes back from the same statement, so concurrent saves never report the same one
+    private static final String SET_RETURNING_VERSION = "SELECT version FROM FINAL TABLE (" + SET + ")";
+    private static final String COMPARE_AND_SET = SET + " AND version = ?";
+    private static final String DELETE_RETURNING_USER =
+            "SELECT user_id FROM OLD TABLE (DELETE FROM loan_request WHERE id = ?)";
+
+    private static final int[] PARAMETER_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.DECIMAL,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP
+    };
+    private static final int[] SET_PARAMETER_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT
+    };
+    private static final int[] COMPARE_AND_SET_PARAMETER_TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT
+    };
+
+    private static final int AMOUNT_PRECISION = 19;
+    private static final int AMOUNT_SCALE = 2;
+
+    private static final RowMapper<LoanRequest> ROW_MAPPER = JdbcLoanRequestRepositoryImpl::mapRow;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong idGenerator;
+    private final LoanRequestChangeLog changeLog;
+
+    public JdbcLoanRequestRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, LoanRequestChangeLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param jdbcTemplate the database access
+     * @param changeLogCapacity number of recent changes kept for findChangesSince
+     */
+    @Autowired
+    public JdbcLoanRequestRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                         @Value("${loan.changes.capacity:10000}") int changeLogCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        // On the template's data source, so its statements join the transaction
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.changeLog = new LoanRequestChangeLog(changeLogCapacity);
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM loan_request", Long.class);
+        this.idGenerator = new AtomicLong(maxId != null ? maxId + 1 : 1);
+    }
+
+    @Override
+    public LoanRequest save(LoanRequest loanRequest) {
+        write(loanRequest);
+        changeLog.record(loanRequest.getId(), loanRequest.getUserId());
+        return loanRequest;
+    }
+
+    /**
+     * Insert or update one row, without recording the change
+     */
+    private void write(LoanRequest loanRequest) {
+        boolean added = loanRequest.getId() == null;
+        assignId(loanRequest);
+        while (true) {
+            if (!added) {
+                List<Long> version = jdbcTemplate.query(SET_RETURNING_VERSION, setParameters(loanRequest),
+                        SET_PARAMETER_TYPES, (rs, rowNum) -> rs.getLong(1));
+                if (!version.isEmpty()) {
+                    loanRequest.setVersion(version.get(0));
+                    return;
+                }
+            }
+            try {
+                jdbcTemplate.update(INSERT, parameters(loanRequest), PARAMETER_TYPES);
+                loanRequest.setVersion(1);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Inserted concurrently under the same explicit ID: update it instead
+                added = false;
+            }
+        }
+    }
+
+    @Override
+    public Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        while (true) {
+            Optional<LoanRequest> current = findById(id);
+            if (!current.isPresent()) {
+                return Optional.empty();
+            }
+            long version = current.get().getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new VersionConflictException(id, expectedVersion, version);
+            }
+            LoanRequest next = change.apply(current.get());
+            next.setId(id);
+            if (jdbcTemplate.update(COMPARE_AND_SET, compareAndSetParameters(next, version),
+                    COMPARE_AND_SET_PARAMETER_TYPES) == 1) {
+                next.setVersion(version + 1);
+                changeLog.record(id, next.getUserId());
+                return Optional.of(next);
+            }
+            // Another writer changed the row since it was read: re-read and re-check
+        }
+    }
+
+    @Override
+    public void updateAll(List<LoanRequestUpdate> updates) {
+        // One query for the current rows and one batch of compare-and-set statements
+        Map<Long, LoanRequest> current = findAllById(updates);
+        List<LoanRequestUpdate> applied = new ArrayList<>(updates.size());
+        List<LoanRequest> states = new ArrayList<>(updates.size());
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (LoanRequestUpdate update : updates) {
+            LoanRequest loanRequest = update.getId() != null ? current.get(update.getId()) : null;
+            if (loanRequest == null) {
+                update.succeeded(null);
+                continue;
+            }
+            try {
+                long version = loanRequest.getVersion();
+                if (update.getExpectedVersion() != null && update.getExpectedVersion() != version) {
+                    throw new VersionConflictException(update.getId(), update.getExpectedVersion(), version);
+                }
+                LoanRequest next = update.getChange().apply(new LoanRequest(loanRequest));
+                next.setId(update.getId());
+                next.setVersion(version + 1);
+                batch.add(compareAndSetParameters(next, version));
+                applied.add(update);
+                states.add(next);
+            } catch (RuntimeException e) {
+                update.failed(e);
+            }
+        }
+        int[] rows = jdbcTemplate.batchUpdate(COMPARE_AND_SET, batch, COMPARE_AND_SET_PARAMETER_TYPES);
+        // A driver may report SUCCESS_NO_INFO instead of a row count: then read back what was written.
+        // An item counts as applied if its row holds its state, and only the first such item per row.
+        Map<Long, LoanRequest> written = Arrays.stream(rows).anyMatch(count -> count == Statement.SUCCESS_NO_INFO)
+                ? findAllById(applied) : Collections.emptyMap();
+        Set<Long> matched = new HashSet<>();
+        for (int i = 0; i < applied.size(); i++) {
+            LoanRequestUpdate update = applied.get(i);
+            if (rows[i] == 1 || (rows[i] == Statement.SUCCESS_NO_INFO
+                    && sameState(written.get(update.getId()), states.get(i)) && matched.add(update.getId()))) {
+                changeLog.record(update.getId(), states.get(i).getUserId());
+                update.succeeded(states.get(i));
+                continue;
+            }
+            // Changed since the batch read it (possibly by an earlier item): redo it on its own
+            try {
+                update.succeeded(update(update.getId(), update.getExpectedVersion(), update.getChange())
+                        .orElse(null));
+            } catch (RuntimeException e) {
+                update.failed(e);
+            }
+        }
+    }
+
+    @Override
+    public List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        // New loan requests go in as one batch; existing ones need their version bumped one by one.
+        // All in one transaction, so a failure leaves none of them saved.
+        long firstId = idGenerator.getAndAdd(LoanRequestRepositoryImpl.countNew(loanRequests));
+        long[] versions = new long[loanRequests.size()];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = loanRequests.get(i).getVersion();
+        }
+        List<Object[]> batch = new ArrayList<>(loanRequests.size());
+        List<LoanRequest> inserted = new ArrayList<>(loanRequests.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long id = firstId;
+                for (LoanRequest loanRequest : loanRequests) {
+                    if (loanRequest.getId() == null) {
+                        loanRequest.setId(id++);
+                        loanRequest.setVersion(1);
+                        batch.add(parameters(loanRequest));
+                        inserted.add(loanRequest);
+                    } else {
+                        write(loanRequest);
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT, batch, PARAMETER_TYPES);
+            });
+        } catch (RuntimeException e) {
+            // Rolled back: leave the loan requests as they were passed in
+            for (LoanRequest loanRequest : inserted) {
+                loanRequest.setId(null);
+            }
+            for (int i = 0; i < versions.length; i++) {
+                loanRequests.get(i).setVersion(versions[i]);
+            }
+            throw e;
+        }
+        // Recorded once committed, so readers of the change log find the rows
+        for (LoanRequest loanRequest : loanRequests) {
+            changeLog.record(loanRequest.getId(), loanRequest.getUserId());
+        }
+        return loanRequests;
+    }
+
+    @Override
+    public Optional<LoanRequest> findById(Long id) {
+        List<LoanRequest> result = jdbcTemplate.query(SELECT + " WHERE id = ?", ROW_MAPPER, id);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
+    }
+
+    @Override
+    public List<LoanRequest> findAll() {
+        return jdbcTemplate.query(SELECT, ROW_MAPPER);
+    }
+
+    @Override
+    public List<LoanRequest> findByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        return findPage(userId, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByStatus(String status) {
+        if (status == null) {
+            return Collections.emptyList();
+        }
+        return findPage(null, status, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByUserIdAndStatus(Long userId, String status) {
+        if (userId == null || status == null) {
+            return Collections.emptyList();
+        }
+        return findPage(userId, status, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findPage(Long userId, String status, long offset, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Query query = new Query(userId, status);
+        query.sql.append(ORDER_BY).append(" LIMIT ? OFFSET ?");
+        query.arguments.add(limit);
+        query.arguments.add(offset);
+        return jdbcTemplate.query(SELECT + query.sql, ROW_MAPPER, query.arguments.toArray());
+    }
+
+    @Override
+    public List<LoanRequest> findPageAfter(Long userId, String status, LoanRequestSortKey after, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Query query = new Query(userId, status);
+        if (after != null) {
+            // Rows strictly after (rank, created_at NULLS LAST, id)
+            int rank = after.isPending() ? 0 : 1;
+            if (after.getCreatedAt() != null) {
+                query.and("(listing_rank > ? OR (listing_rank = ? AND (created_at > ? OR created_at IS NULL "
+                        + "OR (created_at = ? AND id > ?))))");
+                query.arguments.add(rank);
+                query.arguments.add(rank);
+                query.arguments.add(after.getCreatedAt());
+                query.arguments.add(after.getCreatedAt());
+            } else {
+                query.and("(listing_rank > ? OR (listing_rank = ? AND created_at IS NULL AND id > ?))");
+                query.arguments.add(rank);
+                query.arguments.add(rank);
+            }
+            query.arguments.add(after.getId());
+        }
+        query.sql.append(ORDER_BY).append(" LIMIT ?");
+        query.arguments.add(limit);
+        return jdbcTemplate.query(SELECT + query.sql, ROW_MAPPER, query.arguments.toArray());
+    }
+
+    @Override
+    public long count(Long userId, String status) {
+        Query query = new Query(userId, status);
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_request" + query.sql,
+                Long.class, query.arguments.toArray());
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(Long userId) {
+        Query query = new Query(userId, null);
+        query.and("status IS NOT NULL");
+        Map<String, Long> result = new TreeMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM loan_request" + query.sql + " GROUP BY status",
+                rs -> {
+                    result.put(rs.getString(1), rs.getLong(2));
+                }, query.arguments.toArray());
+        return result;
+    }
+
+    @Override
+    public LoanRequestChanges findChangesSince(long since, Long userId, int limit) {
+        return changeLog.read(since, userId, limit, this::findAllById);
+    }
+
+    @Override
+    public LoanRequestChanges findChangedIdsSince(long since, int limit) {
+        return changeLog.readIds(since, limit);
+    }
+
+    @Override
+    public long getChangeSequence() {
+        return changeLog.head();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        // The owner comes back from the delete itself, for the change log
+        List<Long> deleted = jdbcTemplate.query(DELETE_RETURNING_USER, (rs, rowNum) -> {
+            long userId = rs.getLong(1);
+            return rs.wasNull() ? null : userId;
+        }, id);
+        if (!deleted.isEmpty()) {
+            changeLog.record(id, deleted.get(0));
+        }
+    }
+
+    private Map<Long, LoanRequest> findAllById(List<LoanRequestUpdate> updates) {
+        List<Long> ids = new ArrayList<>(updates.size());
+        for (LoanRequestUpdate update : updates) {
+            if (update.getId() != null) {
+                ids.add(update.getId());
+            }
+        }
+        return findAllById(ids);
+    }
+
+    private Map<Long, LoanRequest> findAllById(Collection<Long> ids) {
+        Map<Long, LoanRequest> result = new HashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        for (LoanRequest loanRequest : jdbcTemplate.query(SELECT + " WHERE id IN (" + placeholders + ")",
+                ROW_MAPPER, ids.toArray())) {
+            result.put(loanRequest.getId(), loanRequest);
+        }
+        return result;
+    }
+
+    /**
+     * Whether a stored row holds exactly the given state, version included
+     */
+    private static boolean sameState(LoanRequest stored, LoanRequest state) {
+        if (stored == null || stored.getVersion() != state.getVersion()) {
+            return false;
+        }
+        BigDecimal amount = amount(state);
+        return Objects.equals(stored.getUserId(), state.getUserId())
+                && Objects.equals(stored.getApplicantName(), state.getApplicantName())
+                && (stored.getAmount() == null ? amount == null
+                        : amount != null && stored.getAmount().compareTo(amount) == 0)
+                && Objects.equals(stored.getCurrency(), state.getCurrency())
+                && Objects.equals(stored.getIdentityDocument(), state.getIdentityDocument())
+                && Objects.equals(stored.getStatus(), state.getStatus())
+                && Objects.equals(stored.getCreatedAt(), state.getCreatedAt());
+    }
+
+    private void assignId(LoanRequest loanRequest) {
+        if (loanRequest.getId() == null) {
+            loanRequest.setId(idGenerator.getAndIncrement());
+        } else {
+            idGenerator.accumulateAndGet(loanRequest.getId() + 1, Math::max);
+        }
+    }
+
+    private static Object[] parameters(LoanRequest loanRequest) {
+        return new Object[]{
+                loanRequest.getId(),
+                loanRequest.getUserId(),
+                loanRequest.getApplicantName(),
+                amount(loanRequest),
+                loanRequest.getCurrency(),
+                loanRequest.getIdentityDocument(),
+                loanRequest.getStatus(),
+                loanRequest.getCreatedAt()
+        };
+    }
+
+    private static Object[] setParameters(LoanRequest loanRequest) {
+        return new Object[]{
+                loanRequest.getUserId(),
+                loanRequest.getApplicantName(),
+                amount(loanRequest),
+                loanRequest.getCurrency(),
+                loanRequest.getIdentityDocument(),
+                loanRequest.getStatus(),
+                loanRequest.getCreatedAt(),
+                loanRequest.getId()
+        };
+    }
+
+    /**
+     * The amount to write, checked to be stored exactly
+     *
+     * @throws InvalidRequestException if the amount does not fit DECIMAL(19, 2)
+     */
+    private static BigDecimal amount(LoanRequest loanRequest) {
+        BigDecimal amount = loanRequest.getAmount();
+        if (amount == null) {
+            return null;
+        }
+        // Trailing zeros beyond 2 decimals (e.g. 5000.100) lose nothing
+        BigDecimal exact = amount.scale() > AMOUNT_SCALE ? amount.stripTrailingZeros() : amount;
+        if (exact.scale() > AMOUNT_SCALE) {
+            throw new InvalidRequestException(
+                    "Amount must have at most " + AMOUNT_SCALE + " decimal places: " + amount);
+        }
+        if (exact.precision() - exact.scale() > AMOUNT_PRECISION - AMOUNT_SCALE) {
+            throw new InvalidRequestException("Amount is too large: " + amount);
+        }
+        return amount;
+    }
+
+    private static Object[] compareAndSetParameters(LoanRequest loanRequest, long expectedVersion) {
+        Object[] set = setParameters(loanRequest);
+        Object[] arguments = Arrays.copyOf(set, set.length + 1);
+        arguments[set.length] = expectedVersion;
+        return arguments;
+    }
+
+    private static LoanRequest mapRow(ResultSet rs, int rowNum) throws SQLException {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setId(rs.getLong("id"));
+        long userId = rs.getLong("user_id");
+        loanRequest.setUserId(rs.wasNull() ? null : userId);
+        loanRequest.setApplicantName(rs.getString("applicant_name"));
+        loanRequest.setAmount(rs.getBigDecimal("amount"));
+        loanRequest.setCurrency(rs.getString("currency"));
+        loanRequest.setIdentityDocument(rs.getString("identity_document"));
+        loanRequest.setStatus(rs.getString("status"));
+        loanRequest.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        loanRequest.setVersion(rs.getLong("version"));
+        return loanRequest;
+    }
+
+    /**
+     * WHERE clause and arguments for the userId/status filter (null means no filter)
+     */
+    private static final class Query {
+        private final StringBuilder sql = new StringBuilder();
+        private final List<Object> arguments = new ArrayList<>();
+
+        private Query(Long userId, String status) {
+            if (userId != null) {
+                and("user_id = ?");
+                arguments.add(userId);
+            }
+            if (status != null) {
+                and("status = ?");
+                arguments.add(status);
+            }
+        }
+
+        private void and(String condition) {
+            sql.append(sql.length() == 0 ? " WHERE " : " AND ").append(condition);
+        }
+    }
+}
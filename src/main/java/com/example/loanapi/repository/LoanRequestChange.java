@@ -0,0 +1,42 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+/**
+ * One loan request that changed, as read from the change log
+ */
+public final class LoanRequestChange {
+
+    private final long sequence;
+    private final long loanId;
+    private final LoanRequest loanRequest;
+
+    public LoanRequestChange(long sequence, long loanId, LoanRequest loanRequest) {
+        this.sequence = sequence;
+        this.loanId = loanId;
+        this.loanRequest = loanRequest;
+    }
+
+    /**
+     * @return the sequence number of the latest change to the loan request
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getLoanId() {
+        return loanId;
+    }
+
+    /**
+     * @return the current state, or null if the loan request was deleted (or not loaded, see
+     * LoanRequestRepository.findChangedIdsSince)
+     */
+    public LoanRequest getLoanRequest() {
+        return loanRequest;
+    }
+
+    public boolean isDeleted() {
+        return loanRequest == null;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory log of loan request mutations, numbered by a change sequence
+ * Every mutation takes the next sequence number and is written to a ring buffer slot;
+ * only the last capacity changes are kept. The log records which loan request changed,
+ * not its state: readers load the current state, so a change read late or out of order
+ * never brings back an older version.
+ * Sequence numbers start from the wall clock in microseconds, so they keep growing across
+ * restarts (unless more than a million changes a second were made on average) and a
+ * position from before a restart is older than anything retained.
+ */
+final class LoanRequestChangeLog {
+
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    private final long start;
+    private final AtomicLong sequence;
+    private final AtomicReferenceArray<Entry> entries;
+    private final int capacity;
+
+    LoanRequestChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Change log capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.start = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.sequence = new AtomicLong(start);
+    }
+
+    /**
+     * Record that a loan request was saved or deleted
+     * Call once the mutation is visible to readers, never from inside the write itself.
+     * The log holds IDs, not states, so two writers of one loan request may record in
+     * either order: readers load the state current when they read.
+     *
+     * @param id the loan request ID
+     * @param userId the owner, used to filter the log per user
+     */
+    void record(long id, Long userId) {
+        long number = sequence.incrementAndGet();
+        entries.set(slot(number), new Entry(number, id, userId));
+    }
+
+    /**
+     * Read the changes after a position
+     * A number taken by a writer that has not filled its slot yet ends the read, so
+     * nothing is skipped; the caller continues from nextSince.
+     *
+     * @param since the last sequence number the caller has seen
+     * @param userId only changes to this user's loan requests, or null for all
+     * @param limit maximum number of loan requests to return
+     * @param loader loads the current state of loan requests by ID (missing ones are deleted)
+     * @return the changes, or a resync signal if since is not covered by the log
+     */
+    LoanRequestChanges read(long since, Long userId, int limit,
+                            Function<Collection<Long>, Map<Long, LoanRequest>> loader) {
+        long head = sequence.get();
+        if (since > head || since < Math.max(start, head - capacity)) {
+            return LoanRequestChanges.resync(head);
+        }
+        // Latest sequence number per loan request, in the order of those numbers
+        LinkedHashMap<Long, Long> latest = new LinkedHashMap<>();
+        long next = since;
+        for (long number = since + 1; number <= head && latest.size() < limit; number++) {
+            Entry entry = entries.get(slot(number));
+            if (entry == null || entry.sequence < number) {
+                break;
+            }
+            if (entry.sequence > number) {
+                // Overwritten while reading: the caller fell behind
+                return LoanRequestChanges.resync(head);
+            }
+            next = number;
+            if (userId == null || userId.equals(entry.userId)) {
+                latest.remove(entry.loanId);
+                latest.put(entry.loanId, number);
+            }
+        }
+
+        Map<Long, LoanRequest> current = latest.isEmpty() ? Map.of() : loader.apply(latest.keySet());
+        List<LoanRequestChange> changes = new ArrayList<>(latest.size());
+        for (Map.Entry<Long, Long> change : latest.entrySet()) {
+            LoanRequest loanRequest = current.get(change.getKey());
+            // Given away to another user since: gone from this user's view
+            if (loanRequest != null && userId != null && !userId.equals(loanRequest.getUserId())) {
+                loanRequest = null;
+            }
+            changes.add(new LoanRequestChange(change.getValue(), change.getKey(), loanRequest));
+        }
+        return new LoanRequestChanges(changes, next, false, next < head);
+    }
+
+    /**
+     * Read the IDs of the loan requests changed after a position, loading nothing
+     *
+     * @param since the last sequence number the caller has seen
+     * @param limit maximum number of loan requests to return
+     * @return the changes, all without state, or a resync signal
+     */
+    LoanRequestChanges readIds(long since, int limit) {
+        return read(since, null, limit, ids -> Map.of());
+    }
+
+    /**
+     * Loader for stores with cheap single lookups
+     *
+     * @param repository the store to read from
+     * @return a loader calling findById for every ID
+     */
+    static Function<Collection<Long>, Map<Long, LoanRequest>> byId(LoanRequestRepository repository) {
+        return ids -> {
+            Map<Long, LoanRequest> result = new LinkedHashMap<>();
+            for (Long id : ids) {
+                repository.findById(id).ifPresent(loanRequest -> result.put(id, loanRequest));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * @return the number of the latest recorded change
+     */
+    long head() {
+        return sequence.get();
+    }
+
+    private int slot(long number) {
+        return (int) Math.floorMod(number, (long) capacity);
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final long loanId;
+        private final Long userId;
+
+        private Entry(long sequence, long loanId, Long userId) {
+            this.sequence = sequence;
+            this.loanId = loanId;
+            this.userId = userId;
+        }
+    }
+}
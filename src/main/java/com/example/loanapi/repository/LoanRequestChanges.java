@@ -0,0 +1,57 @@
+package com.example.loanapi.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of reading the change log from a position
+ */
+public final class LoanRequestChanges {
+
+    private final List<LoanRequestChange> changes;
+    private final long nextSince;
+    private final boolean resync;
+    private final boolean hasMore;
+
+    public LoanRequestChanges(List<LoanRequestChange> changes, long nextSince, boolean resync, boolean hasMore) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.resync = resync;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * The position is no longer (or not yet) covered by the log: the caller must reload everything
+     *
+     * @param head the latest sequence number, where to continue after reloading
+     * @return the resync signal
+     */
+    public static LoanRequestChanges resync(long head) {
+        return new LoanRequestChanges(Collections.emptyList(), head, true, false);
+    }
+
+    /**
+     * @return changed loan requests, each once, ordered by the sequence number of their latest change
+     */
+    public List<LoanRequestChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the position to read from next time
+     */
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    /**
+     * @return true if more changes are already available after nextSince
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of LoanRequest used by the on-disk repository formats
+ * Every nullable field is prefixed with a presence flag
+ */
+final class LoanRequestCodec {
+
+    private LoanRequestCodec() {
+    }
+
+    /**
+     * Encode a loan request into a standalone byte array
+     *
+     * @param loanRequest the loan request (must have an ID)
+     * @return the encoded bytes
+     */
+    static byte[] encode(LoanRequest loanRequest) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(loanRequest, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void write(LoanRequest loanRequest, DataOutput out) throws IOException {
+        out.writeLong(loanRequest.getId());
+        writeLong(out, loanRequest.getUserId());
+        writeString(out, loanRequest.getApplicantName());
+        writeDecimal(out, loanRequest.getAmount());
+        writeString(out, loanRequest.getCurrency());
+        writeString(out, loanRequest.getIdentityDocument());
+        writeString(out, loanRequest.getStatus());
+        writeDateTime(out, loanRequest.getCreatedAt());
+        out.writeLong(loanRequest.getVersion());
+    }
+
+    static LoanRequest read(DataInput in) throws IOException {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setId(in.readLong());
+        loanRequest.setUserId(readLong(in));
+        loanRequest.setApplicantName(readString(in));
+        loanRequest.setAmount(readDecimal(in));
+        loanRequest.setCurrency(readString(in));
+        loanRequest.setIdentityDocument(readString(in));
+        loanRequest.setStatus(readString(in));
+        loanRequest.setCreatedAt(readDateTime(in));
+        loanRequest.setVersion(in.readLong());
+        return loanRequest;
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(value.scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long epochSecond = in.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.InvalidRequestException;
+import com.example.loanapi.model.LoanRequest;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap column store for loan requests, addressed by row number
+ * Each column is a direct buffer split in fixed-size blocks, so the store grows
+ * without copying and holds no per-row Java objects:
+ * <pre>
+ * id, userId, version  long
+ * amount               long, in minor units (cents) plus a byte with the original scale
+ * createdAt            long, epoch millis (UTC)
+ * applicantName        long reference + int length into an off-heap byte arena
+ * identityDocument     fixed-width ASCII (length byte + 15 bytes)
+ * status, currency     byte dictionary codes
+ * flags                byte (row in use, null markers)
+ * </pre>
+ * Rows are turned back into LoanRequest objects only by materialize().
+ * Not thread-safe: the repository guards it with a read/write lock.
+ */
+final class LoanRequestColumns {
+
+    static final int BLOCK_SHIFT = 14;
+    static final int BLOCK_ROWS = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_ROWS - 1;
+
+    static final int MINOR_UNIT_SCALE = 2;
+    static final int DOCUMENT_WIDTH = 16;
+    private static final int ARENA_CHUNK_BYTES = 1 << 20;
+
+    private static final byte IN_USE = 1;
+    private static final byte USER_ID_NULL = 1 << 1;
+    private static final byte AMOUNT_NULL = 1 << 2;
+    private static final byte CREATED_AT_NULL = 1 << 3;
+    private static final byte NAME_NULL = 1 << 4;
+    private static final byte DOCUMENT_NULL = 1 << 5;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary currencies = new Dictionary();
+    private long arenaWasted;
+
+    /**
+     * Values of a loan request converted to their column form
+     * Built before taking the write lock, and throws if a value has no column form.
+     */
+    static final class Row {
+        private final long id;
+        private final Long userId;
+        private final long amountMinor;
+        private final byte amountScale;
+        private final boolean amountNull;
+        private final Long createdAtMillis;
+        private final byte[] name;
+        private final byte[] document;
+        private final String status;
+        private final String currency;
+
+        Row(LoanRequest loanRequest) {
+            this.id = loanRequest.getId();
+            this.userId = loanRequest.getUserId();
+            BigDecimal amount = loanRequest.getAmount();
+            this.amountNull = amount == null;
+            if (amount != null) {
+                if (amount.scale() > MINOR_UNIT_SCALE || amount.scale() < 0) {
+                    amount = amount.stripTrailingZeros();
+                }
+                if (amount.scale() > MINOR_UNIT_SCALE) {
+                    throw new InvalidRequestException(
+                            "Amount must have at most " + MINOR_UNIT_SCALE + " decimal places: " + amount);
+                }
+                try {
+                    this.amountMinor = amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw new InvalidRequestException("Amount is too large: " + amount);
+                }
+                this.amountScale = (byte) Math.max(amount.scale(), 0);
+            } else {
+                this.amountMinor = 0;
+                this.amountScale = 0;
+            }
+            LocalDateTime createdAt = loanRequest.getCreatedAt();
+            this.createdAtMillis = createdAt != null ? createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+            this.name = loanRequest.getApplicantName() != null
+                    ? loanRequest.getApplicantName().getBytes(StandardCharsets.UTF_8) : null;
+            this.document = encodeDocument(loanRequest.getIdentityDocument());
+            this.status = loanRequest.getStatus();
+            this.currency = loanRequest.getCurrency();
+        }
+
+        /**
+         * Set the values this row stores differently from the loan request it was built from
+         * (createdAt truncated to milliseconds, amount at its stored scale), so the caller
+         * holds what a later read returns
+         */
+        void applyTo(LoanRequest loanRequest) {
+            if (!amountNull) {
+                loanRequest.setAmount(amount(amountMinor, amountScale));
+            }
+            if (createdAtMillis != null) {
+                loanRequest.setCreatedAt(createdAt(createdAtMillis));
+            }
+        }
+    }
+
+    /**
+     * Write a row, reusing the space of the applicant name it replaces when possible
+     *
+     * @param row the row number (a new row must be the next unused one or a freed one)
+     * @param values the values to write
+     * @param version the version to store with them
+     */
+    void write(int row, Row values, long version) {
+        while (blockIndex(row) >= blocks.size()) {
+            blocks.add(new Block());
+        }
+        Block block = blocks.get(blockIndex(row));
+        int slot = row & BLOCK_MASK;
+        byte previousFlags = block.flags.get(slot);
+        // Resolve the dictionary codes first: they are the only step that can still fail
+        byte statusCode = statuses.code(values.status);
+        byte currencyCode = currencies.code(values.currency);
+
+        byte flags = IN_USE;
+        if (values.userId == null) {
+            flags |= USER_ID_NULL;
+        }
+        if (values.amountNull) {
+            flags |= AMOUNT_NULL;
+        }
+        if (values.createdAtMillis == null) {
+            flags |= CREATED_AT_NULL;
+        }
+        if (values.document == null) {
+            flags |= DOCUMENT_NULL;
+        }
+
+        int slot8 = slot << 3;
+        block.ids.putLong(slot8, values.id);
+        block.userIds.putLong(slot8, values.userId != null ? values.userId : 0);
+        block.versions.putLong(slot8, version);
+        block.amounts.putLong(slot8, values.amountMinor);
+        block.amountScales.put(slot, values.amountScale);
+        block.createdAt.putLong(slot8, values.createdAtMillis != null ? values.createdAtMillis : 0);
+        block.statuses.put(slot, statusCode);
+        block.currencies.put(slot, currencyCode);
+        if (values.document != null) {
+            for (int i = 0; i < DOCUMENT_WIDTH; i++) {
+                block.documents.put(slot * DOCUMENT_WIDTH + i, values.document[i]);
+            }
+        }
+
+        boolean hadName = (previousFlags & IN_USE) != 0 && (previousFlags & NAME_NULL) == 0;
+        int previousLength = hadName ? block.nameLengths.getInt(slot << 2) : 0;
+        if (values.name == null) {
+            flags |= NAME_NULL;
+            arenaWasted += previousLength;
+        } else if (hadName && values.name.length <= previousLength) {
+            writeArena(block.nameRefs.getLong(slot8), values.name);
+            arenaWasted += previousLength - values.name.length;
+        } else {
+            block.nameRefs.putLong(slot8, appendArena(values.name));
+            arenaWasted += previousLength;
+        }
+        block.nameLengths.putInt(slot << 2, values.name != null ? values.name.length : 0);
+        block.flags.put(slot, flags);
+    }
+
+    /**
+     * Mark a row as unused so it can be written again
+     */
+    void clear(int row) {
+        Block block = blocks.get(blockIndex(row));
+        int slot = row & BLOCK_MASK;
+        if ((block.flags.get(slot) & NAME_NULL) == 0) {
+            arenaWasted += block.nameLengths.getInt(slot << 2);
+        }
+        block.flags.put(slot, (byte) 0);
+    }
+
+    boolean inUse(int row) {
+        return (flags(row) & IN_USE) != 0;
+    }
+
+    long id(int row) {
+        return blocks.get(blockIndex(row)).ids.getLong((row & BLOCK_MASK) << 3);
+    }
+
+    /**
+     * @return true if the row belongs to the user (a null-owner row never matches)
+     */
+    boolean hasUserId(int row, long userId) {
+        Block block = blocks.get(blockIndex(row));
+        int slot = row & BLOCK_MASK;
+        return (block.flags.get(slot) & USER_ID_NULL) == 0 && block.userIds.getLong(slot << 3) == userId;
+    }
+
+    Long userId(int row) {
+        Block block = blocks.get(blockIndex(row));
+        int slot = row & BLOCK_MASK;
+        return (block.flags.get(slot) & USER_ID_NULL) == 0 ? block.userIds.getLong(slot << 3) : null;
+    }
+
+    String status(int row) {
+        return statuses.value(statusCode(row));
+    }
+
+    byte statusCode(int row) {
+        return blocks.get(blockIndex(row)).statuses.get(row & BLOCK_MASK);
+    }
+
+    /**
+     * @return the dictionary code of a status, or Dictionary.ABSENT if no row ever used it
+     */
+    byte lookupStatus(String status) {
+        return statuses.lookup(status);
+    }
+
+    long version(int row) {
+        return blocks.get(blockIndex(row)).versions.getLong((row & BLOCK_MASK) << 3);
+    }
+
+    boolean createdAtNull(int row) {
+        return (flags(row) & CREATED_AT_NULL) != 0;
+    }
+
+    long createdAtMillis(int row) {
+        return blocks.get(blockIndex(row)).createdAt.getLong((row & BLOCK_MASK) << 3);
+    }
+
+    /**
+     * Build a LoanRequest from a row
+     */
+    LoanRequest materialize(int row) {
+        Block block = blocks.get(blockIndex(row));
+        int slot = row & BLOCK_MASK;
+        int slot8 = slot << 3;
+        byte flags = block.flags.get(slot);
+
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setId(block.ids.getLong(slot8));
+        loanRequest.setVersion(block.versions.getLong(slot8));
+        if ((flags & USER_ID_NULL) == 0) {
+            loanRequest.setUserId(block.userIds.getLong(slot8));
+        }
+        if ((flags & NAME_NULL) == 0) {
+            loanRequest.setApplicantName(readArena(block.nameRefs.getLong(slot8), block.nameLengths.getInt(slot << 2)));
+        }
+        if ((flags & AMOUNT_NULL) == 0) {
+            loanRequest.setAmount(amount(block.amounts.getLong(slot8), block.amountScales.get(slot)));
+        }
+        loanRequest.setCurrency(currencies.value(block.currencies.get(slot)));
+        if ((flags & DOCUMENT_NULL) == 0) {
+            loanRequest.setIdentityDocument(decodeDocument(block.documents, slot * DOCUMENT_WIDTH));
+        }
+        loanRequest.setStatus(statuses.value(block.statuses.get(slot)));
+        if ((flags & CREATED_AT_NULL) == 0) {
+            loanRequest.setCreatedAt(createdAt(block.createdAt.getLong(slot8)));
+        }
+        return loanRequest;
+    }
+
+    private static BigDecimal amount(long minor, byte scale) {
+        return BigDecimal.valueOf(minor, MINOR_UNIT_SCALE).setScale(scale);
+    }
+
+    private static LocalDateTime createdAt(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return bytes of direct memory held by the columns and the name arena
+     */
+    long offHeapBytes() {
+        long total = (long) blocks.size() * Block.BYTES;
+        for (ByteBuffer chunk : arena) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * @return arena bytes left behind by names that were replaced or deleted
+     */
+    long arenaWastedBytes() {
+        return arenaWasted;
+    }
+
+    private byte flags(int row) {
+        return blocks.get(blockIndex(row)).flags.get(row & BLOCK_MASK);
+    }
+
+    private static int blockIndex(int row) {
+        return row >>> BLOCK_SHIFT;
+    }
+
+    // Arena references: chunk index in the high 32 bits, offset in the low 32 bits
+    private long appendArena(byte[] bytes) {
+        ByteBuffer chunk = arena.isEmpty() ? null : arena.get(arena.size() - 1);
+        if (chunk == null || chunk.remaining() < bytes.length) {
+            if (chunk != null) {
+                arenaWasted += chunk.remaining();
+            }
+            chunk = ByteBuffer.allocateDirect(Math.max(ARENA_CHUNK_BYTES, bytes.length));
+            arena.add(chunk);
+        }
+        long reference = ((long) (arena.size() - 1) << 32) | chunk.position();
+        chunk.put(bytes);
+        return reference;
+    }
+
+    private void writeArena(long reference, byte[] bytes) {
+        ByteBuffer chunk = arena.get((int) (reference >>> 32));
+        int offset = (int) reference;
+        for (int i = 0; i < bytes.length; i++) {
+            chunk.put(offset + i, bytes[i]);
+        }
+    }
+
+    private String readArena(long reference, int length) {
+        ByteBuffer chunk = arena.get((int) (reference >>> 32));
+        int offset = (int) reference;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = chunk.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeDocument(String document) {
+        if (document == null) {
+            return null;
+        }
+        if (document.length() >= DOCUMENT_WIDTH) {
+            throw new InvalidRequestException(
+                    "Identity document must be at most " + (DOCUMENT_WIDTH - 1) + " characters");
+        }
+        byte[] bytes = new byte[DOCUMENT_WIDTH];
+        bytes[0] = (byte) document.length();
+        for (int i = 0; i < document.length(); i++) {
+            char c = document.charAt(i);
+            if (c > 0x7F) {
+                throw new InvalidRequestException("Identity document must be ASCII");
+            }
+            bytes[i + 1] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static String decodeDocument(ByteBuffer documents, int offset) {
+        int length = documents.get(offset);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = documents.get(offset + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * One block of BLOCK_ROWS rows, one direct buffer per column
+     */
+    private static final class Block {
+        private static final int BYTES = BLOCK_ROWS * (Long.BYTES * 6 + Integer.BYTES + DOCUMENT_WIDTH + 4);
+
+        private final ByteBuffer ids = allocate(Long.BYTES);
+        private final ByteBuffer userIds = allocate(Long.BYTES);
+        private final ByteBuffer versions = allocate(Long.BYTES);
+        private final ByteBuffer amounts = allocate(Long.BYTES);
+        private final ByteBuffer createdAt = allocate(Long.BYTES);
+        private final ByteBuffer nameRefs = allocate(Long.BYTES);
+        private final ByteBuffer nameLengths = allocate(Integer.BYTES);
+        private final ByteBuffer documents = allocate(DOCUMENT_WIDTH);
+        private final ByteBuffer amountScales = allocate(1);
+        private final ByteBuffer statuses = allocate(1);
+        private final ByteBuffer currencies = allocate(1);
+        private final ByteBuffer flags = allocate(1);
+
+        private static ByteBuffer allocate(int width) {
+            return ByteBuffer.allocateDirect(BLOCK_ROWS * width).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Byte codes for a low-cardinality string column; code 0 stands for null
+     */
+    static final class Dictionary {
+        static final byte ABSENT = -1;
+        private static final int MAX_CODES = 127;
+
+        private final Map<String, Byte> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private byte code(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Byte code = codes.get(value);
+            if (code == null) {
+                if (values.size() >= MAX_CODES) {
+                    throw new IllegalArgumentException("Too many distinct values for a dictionary-coded column");
+                }
+                values.add(value);
+                code = (byte) values.size();
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        private byte lookup(String value) {
+            Byte code = codes.get(value);
+            return code != null ? code : ABSENT;
+        }
+
+        private String value(byte code) {
+            return code == 0 ? null : values.get(code - 1);
+        }
+    }
+}
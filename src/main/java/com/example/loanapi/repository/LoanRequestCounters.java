@@ -0,0 +1,147 @@
+package com.example.loanapi.repository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live loan request counts: total, per status, per user and per user and status
+ * Stores update the counters on every save/delete, so counting is a lookup
+ * instead of a walk over the matching loan requests.
+ * A null userId or status is only counted in the buckets that do not use it.
+ * Buckets are kept at zero rather than removed: removal would race with
+ * concurrent increments, and there is one bucket per user/status ever seen.
+ */
+final class LoanRequestCounters {
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, LongAdder>> byUserAndStatus =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Add a loan request with the given keys
+     */
+    void increment(Long userId, String status) {
+        add(userId, status, 1);
+    }
+
+    /**
+     * Remove a loan request with the given keys
+     */
+    void decrement(Long userId, String status) {
+        add(userId, status, -1);
+    }
+
+    /**
+     * Add the net changes collected over a batch of writes
+     */
+    void apply(Batch batch) {
+        batch.deltas.forEach((key, delta) -> {
+            if (delta[0] != 0) {
+                add(key.userId, key.status, delta[0]);
+            }
+        });
+        batch.deltas.clear();
+    }
+
+    /**
+     * @param userId the owner filter, or null for all users
+     * @param status the status filter, or null for all statuses
+     * @return number of loan requests matching the filter
+     */
+    long count(Long userId, String status) {
+        LongAdder counter;
+        if (userId == null && status == null) {
+            counter = total;
+        } else if (userId == null) {
+            counter = byStatus.get(status);
+        } else if (status == null) {
+            counter = byUser.get(userId);
+        } else {
+            Map<String, LongAdder> statuses = byUserAndStatus.get(userId);
+            counter = statuses != null ? statuses.get(status) : null;
+        }
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @param userId the owner filter, or null for all users
+     * @return non-zero counts keyed by status, sorted by status
+     */
+    Map<String, Long> countByStatus(Long userId) {
+        Map<String, LongAdder> counters = userId == null ? byStatus : byUserAndStatus.get(userId);
+        if (counters == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((status, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                result.put(status, count);
+            }
+        });
+        return result;
+    }
+
+    private void add(Long userId, String status, long delta) {
+        total.add(delta);
+        if (status != null) {
+            byStatus.computeIfAbsent(status, key -> new LongAdder()).add(delta);
+        }
+        if (userId != null) {
+            byUser.computeIfAbsent(userId, key -> new LongAdder()).add(delta);
+            if (status != null) {
+                byUserAndStatus.computeIfAbsent(userId, key -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(status, key -> new LongAdder()).add(delta);
+            }
+        }
+    }
+
+    /**
+     * Counter changes collected over a batch of writes, netted per user and status
+     * A batch of status transitions touches each bucket once instead of twice per loan request.
+     * Not thread-safe: used by one writer at a time.
+     */
+    static final class Batch {
+
+        private final Map<Key, long[]> deltas = new HashMap<>();
+
+        void increment(Long userId, String status) {
+            deltas.computeIfAbsent(new Key(userId, status), key -> new long[1])[0]++;
+        }
+
+        void decrement(Long userId, String status) {
+            deltas.computeIfAbsent(new Key(userId, status), key -> new long[1])[0]--;
+        }
+    }
+
+    private static final class Key {
+        private final Long userId;
+        private final String status;
+
+        private Key(Long userId, String status) {
+            this.userId = userId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(userId, other.userId) && Objects.equals(status, other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, status);
+        }
+    }
+}
@@ -3,22 +3,76 @@ package com.example.loanapi.repository;
 import com.example.loanapi.model.LoanRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Repository interface for loan request persistence
  * Works with Model entities only
+ * Filtered queries return loan requests in listing order:
+ * Pendiente first, then by createdAt (chronological), then by ID
  */
 public interface LoanRequestRepository {
 
     /**
      * Save a loan request (create or update)
+     * Unconditional: the stored version is incremented and set on the loan request
      * 
      * @param loanRequest the loan request to save
      * @return the saved loan request
      */
     LoanRequest save(LoanRequest loanRequest);
 
+    /**
+     * Atomically change a stored loan request (compare-and-set on its version)
+     * The change receives a copy of the current state and returns the new state. It runs
+     * against the latest committed state, so checks made inside it (e.g. a status
+     * transition rule) cannot be invalidated by a concurrent writer; throwing from it
+     * leaves the loan request unchanged.
+     * 
+     * @param id the loan request ID
+     * @param expectedVersion the version the loan request must be at, or null to accept any
+     * @param change computes the new state from a copy of the current one
+     * @return the stored new state (with its new version), or empty if the ID does not exist
+     * @throws com.example.loanapi.exception.VersionConflictException if the version does not match
+     */
+    Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change);
+
+    /**
+     * Apply several updates in one operation
+     * Each one behaves like update() on its own loan request and gets its outcome set
+     * (a failing update does not stop the others); implementations may hold their locks
+     * and adjust their counters once for the whole batch.
+     *
+     * @param updates the updates, applied in order
+     */
+    default void updateAll(List<LoanRequestUpdate> updates) {
+        for (LoanRequestUpdate update : updates) {
+            try {
+                update.succeeded(update(update.getId(), update.getExpectedVersion(), update.getChange())
+                        .orElse(null));
+            } catch (RuntimeException e) {
+                update.failed(e);
+            }
+        }
+    }
+
+    /**
+     * Save several loan requests (create or update)
+     * Implementations may write them in a single batch and allocate the IDs of
+     * new loan requests as one consecutive block
+     *
+     * @param loanRequests the loan requests to save
+     * @return the saved loan requests, in the same order
+     */
+    default List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        for (LoanRequest loanRequest : loanRequests) {
+            save(loanRequest);
+        }
+        return loanRequests;
+    }
+
     /**
      * Find a loan request by ID
      * 
@@ -34,6 +88,105 @@ public interface LoanRequestRepository {
      */
     List<LoanRequest> findAll();
 
+    /**
+     * Find all loan requests belonging to a user
+     * 
+     * @param userId the owner user ID
+     * @return list of the user's loan requests (empty if userId is null)
+     */
+    List<LoanRequest> findByUserId(Long userId);
+
+    /**
+     * Find all loan requests with the given status
+     * 
+     * @param status the exact status value (e.g. "Pendiente")
+     * @return list of loan requests in that status (empty if status is null)
+     */
+    List<LoanRequest> findByStatus(String status);
+
+    /**
+     * Find all loan requests belonging to a user with the given status
+     * 
+     * @param userId the owner user ID
+     * @param status the exact status value (e.g. "Pendiente")
+     * @return list of matching loan requests (empty if either argument is null)
+     */
+    List<LoanRequest> findByUserIdAndStatus(Long userId, String status);
+
+    /**
+     * Find one page of loan requests in listing order
+     * 
+     * @param userId the owner user ID, or null for all users
+     * @param status the exact status value, or null for all statuses
+     * @param offset number of matching loan requests to skip
+     * @param limit maximum number of loan requests to return
+     * @return the page content in listing order
+     */
+    List<LoanRequest> findPage(Long userId, String status, long offset, int limit);
+
+    /**
+     * Find one page of loan requests in listing order, starting right after a known position
+     * Cost depends on the page size only, not on how deep the position is
+     * 
+     * @param userId the owner user ID, or null for all users
+     * @param status the exact status value, or null for all statuses
+     * @param after the sort key of the last loan request already returned, or null to start from the beginning
+     * @param limit maximum number of loan requests to return
+     * @return the page content in listing order
+     */
+    List<LoanRequest> findPageAfter(Long userId, String status, LoanRequestSortKey after, int limit);
+
+    /**
+     * Count loan requests matching a filter
+     * 
+     * @param userId the owner user ID, or null for all users
+     * @param status the exact status value, or null for all statuses
+     * @return number of matching loan requests
+     */
+    long count(Long userId, String status);
+
+    /**
+     * Count loan requests per status
+     * 
+     * @param userId the owner user ID, or null for all users
+     * @return counts keyed by status value; statuses without loan requests are omitted
+     */
+    Map<String, Long> countByStatus(Long userId);
+
+    /**
+     * Read the changes made after a position of the change log
+     * Every save, update and delete takes the next number of a monotonically increasing
+     * change sequence; the most recent changes are kept in a bounded log. Each changed
+     * loan request is returned once, in its current state, or as a tombstone if it no
+     * longer exists.
+     * 
+     * @param since the last sequence number already seen
+     * @param userId only changes to this user's loan requests, or null for all users
+     * @param limit maximum number of changed loan requests to return
+     * @return the changes, or a resync signal if since has fallen off the log
+     */
+    LoanRequestChanges findChangesSince(long since, Long userId, int limit);
+
+    /**
+     * Read which loan requests changed after a position of the change log, without loading them
+     * Like findChangesSince for all users, but only IDs and sequence numbers are set: the
+     * loan request of every change is null, whether or not it still exists.
+     * 
+     * @param since the last sequence number already seen
+     * @param limit maximum number of changed loan requests to return
+     * @return the changes, or a resync signal if since has fallen off the log
+     */
+    LoanRequestChanges findChangedIdsSince(long since, int limit);
+
+    /**
+     * Get the number of the latest change in the change log
+     * Changes numbered up to this value are visible to reads started afterwards, so
+     * a result read after taking the number is at least as new as that change.
+     * 
+     * @return the current change sequence number
+     */
+    long getChangeSequence();
+
     /**
      * Delete a loan request by ID
      * 
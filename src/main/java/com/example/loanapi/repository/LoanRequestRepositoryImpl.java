@@ -1,33 +1,144 @@
 package com.example.loanapi.repository;
 
+import com.example.loanapi.exception.VersionConflictException;
 import com.example.loanapi.model.LoanRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * In-memory implementation of LoanRequestRepository
  * Thread-safe using ConcurrentHashMap
+ * Maintains secondary indexes by userId and status, each kept sorted in
+ * listing order, so filtered and paged queries only walk the entries they return,
+ * and live counters so counting is a lookup
+ * Mutations are recorded in a bounded change log for delta reads
+ * Active when loan.repository.type is "memory" (the default)
  */
 @Repository
+@ConditionalOnProperty(name = "loan.repository.type", havingValue = "memory", matchIfMissing = true)
 public class LoanRequestRepositoryImpl implements LoanRequestRepository {
 
     private final ConcurrentHashMap<Long, LoanRequest> storage = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
 
+    // Index keys as they were when each loan request was last saved.
+    // Callers mutate the stored instance before calling save(), so the
+    // previous keys cannot be read back from the entity itself.
+    private final ConcurrentHashMap<Long, IndexEntry> indexEntries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<LoanRequestSortKey> ordered = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Long, NavigableSet<LoanRequestSortKey>> idsByUserId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, NavigableSet<LoanRequestSortKey>> idsByStatus = new ConcurrentHashMap<>();
+    private final LoanRequestCounters counters = new LoanRequestCounters();
+    private final LoanRequestChangeLog changeLog;
+
+    public LoanRequestRepositoryImpl() {
+        this(LoanRequestChangeLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param changeLogCapacity number of recent changes kept for findChangesSince
+     */
+    @Autowired
+    public LoanRequestRepositoryImpl(@Value("${loan.changes.capacity:10000}") int changeLogCapacity) {
+        this(new LoanRequestChangeLog(changeLogCapacity));
+    }
+
+    /**
+     * @param changeLog the change log to record to, possibly shared with other stores
+     */
+    LoanRequestRepositoryImpl(LoanRequestChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
     @Override
     public LoanRequest save(LoanRequest loanRequest) {
-        if (loanRequest.getId() == null) {
-            // New entity - generate ID
-            Long newId = idGenerator.getAndIncrement();
-            loanRequest.setId(newId);
+        return put(loanRequest, false);
+    }
+
+    @Override
+    public List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        // One block of IDs for all new loan requests instead of one increment each
+        long nextId = idGenerator.getAndAdd(countNew(loanRequests));
+        for (LoanRequest loanRequest : loanRequests) {
+            if (loanRequest.getId() == null) {
+                loanRequest.setId(nextId++);
+            }
+            put(loanRequest, false);
         }
-        storage.put(loanRequest.getId(), loanRequest);
-        return loanRequest;
+        return loanRequests;
+    }
+
+    @Override
+    public Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        return Optional.ofNullable(apply(id, expectedVersion, change, null));
+    }
+
+    @Override
+    public void updateAll(List<LoanRequestUpdate> updates) {
+        LoanRequestCounters.Batch counts = new LoanRequestCounters.Batch();
+        try {
+            for (LoanRequestUpdate update : updates) {
+                try {
+                    update.succeeded(apply(update.getId(), update.getExpectedVersion(), update.getChange(), counts));
+                } catch (RuntimeException e) {
+                    update.failed(e);
+                }
+            }
+        } finally {
+            counters.apply(counts);
+        }
+    }
+
+    /**
+     * @param counts where to collect counter changes, or null to apply them right away
+     * @return the stored new state, or null if the ID does not exist
+     */
+    private LoanRequest apply(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change,
+                              LoanRequestCounters.Batch counts) {
+        if (id == null) {
+            return null;
+        }
+        // The entry is held while the change runs, so it always sees the latest committed state.
+        // The stored instance is replaced, never modified, so a failed change leaves no trace.
+        LoanRequest updated = storage.computeIfPresent(id, (key, current) -> {
+            if (expectedVersion != null && expectedVersion != current.getVersion()) {
+                throw new VersionConflictException(key, expectedVersion, current.getVersion());
+            }
+            LoanRequest next = change.apply(new LoanRequest(current));
+            next.setId(key);
+            next.setVersion(current.getVersion() + 1);
+            beforeSave(next);
+            reindex(key, new IndexEntry(next), counts);
+            return next;
+        });
+        // Recorded once readers of the map can see the new state, see recordChange
+        if (updated != null) {
+            recordChange(id, updated.getUserId());
+        }
+        return updated;
+    }
+
+    /**
+     * Store a loan request exactly as given, keeping its version
+     * Used to load state recovered from disk
+     *
+     * @param loanRequest the loan request (must have an ID)
+     */
+    protected void restore(LoanRequest loanRequest) {
+        put(loanRequest, true);
     }
 
     @Override
@@ -40,8 +151,295 @@ public class LoanRequestRepositoryImpl implements LoanRequestRepository {
         return new ArrayList<>(storage.values());
     }
 
+    @Override
+    public List<LoanRequest> findByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        return collect(idsByUserId.get(userId), userId, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByStatus(String status) {
+        if (status == null) {
+            return Collections.emptyList();
+        }
+        return collect(idsByStatus.get(status), null, status, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByUserIdAndStatus(Long userId, String status) {
+        if (userId == null || status == null) {
+            return Collections.emptyList();
+        }
+        return collect(idsByUserId.get(userId), userId, status, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findPage(Long userId, String status, long offset, int limit) {
+        return collect(indexFor(userId, status), userId, status, offset, limit);
+    }
+
+    @Override
+    public List<LoanRequest> findPageAfter(Long userId, String status, LoanRequestSortKey after, int limit) {
+        NavigableSet<LoanRequestSortKey> keys = indexFor(userId, status);
+        if (keys != null && after != null) {
+            keys = keys.tailSet(after, false);
+        }
+        return collect(keys, userId, status, 0, limit);
+    }
+
+    @Override
+    public long count(Long userId, String status) {
+        return counters.count(userId, status);
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(Long userId) {
+        return counters.countByStatus(userId);
+    }
+
+    @Override
+    public LoanRequestChanges findChangesSince(long since, Long userId, int limit) {
+        return changeLog.read(since, userId, limit, LoanRequestChangeLog.byId(this));
+    }
+
+    @Override
+    public LoanRequestChanges findChangedIdsSince(long since, int limit) {
+        return changeLog.readIds(since, limit);
+    }
+
+    @Override
+    public long getChangeSequence() {
+        return changeLog.head();
+    }
+
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        remove(id, true);
+    }
+
+    /**
+     * Delete a loan request without recording a change
+     * Used to replay deletes recovered from disk
+     *
+     * @param id the loan request ID
+     */
+    protected void restoreDelete(Long id) {
+        remove(id, false);
+    }
+
+    private void remove(Long id, boolean record) {
+        Long[] owner = new Long[1];
+        boolean[] deleted = new boolean[1];
+        storage.computeIfPresent(id, (key, previous) -> {
+            beforeDelete(key);
+            reindex(key, null, null);
+            owner[0] = previous.getUserId();
+            deleted[0] = true;
+            return null;
+        });
+        if (deleted[0] && record) {
+            recordChange(id, owner[0]);
+        }
+    }
+
+    /**
+     * @return number of loan requests without an ID, i.e. the size of the ID block they need
+     */
+    static int countNew(List<LoanRequest> loanRequests) {
+        int count = 0;
+        for (LoanRequest loanRequest : loanRequests) {
+            if (loanRequest.getId() == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private LoanRequest put(LoanRequest loanRequest, boolean keepVersion) {
+        if (loanRequest.getId() == null) {
+            // New entity - generate ID
+            Long newId = idGenerator.getAndIncrement();
+            loanRequest.setId(newId);
+        } else {
+            // Explicit ID (e.g. replayed from disk) - never hand it out again
+            idGenerator.accumulateAndGet(loanRequest.getId() + 1, Math::max);
+        }
+        // compute() serializes concurrent writers of the same ID, keeping indexes consistent
+        storage.compute(loanRequest.getId(), (id, previous) -> {
+            long version = loanRequest.getVersion();
+            if (!keepVersion) {
+                // previous may be the caller's own instance: its version is still the stored one
+                loanRequest.setVersion(previous != null ? previous.getVersion() + 1 : 1);
+            }
+            try {
+                beforeSave(loanRequest);
+            } catch (RuntimeException e) {
+                loanRequest.setVersion(version);
+                throw e;
+            }
+            reindex(id, new IndexEntry(loanRequest), null);
+            return loanRequest;
+        });
+        // Restored state is not a change
+        if (!keepVersion) {
+            recordChange(loanRequest.getId(), loanRequest.getUserId());
+        }
+        return loanRequest;
+    }
+
+    /**
+     * Record a mutation in the change log, after the compute call that made it has returned
+     * Inside the lambda the new value is not yet visible to map readers: a reader could see
+     * the sequence number move on and still load the old state, then never be told again.
+     */
+    private void recordChange(Long id, Long userId) {
+        changeLog.record(id, userId);
+    }
+
+    /**
+     * Hook invoked while holding the storage entry of a loan request that is about to be saved
+     * Writers of the same ID are serialized, so subclasses observe changes in commit order.
+     * Throwing aborts the save and leaves the store unchanged.
+     *
+     * @param loanRequest the loan request being saved (ID already assigned)
+     */
+    protected void beforeSave(LoanRequest loanRequest) {
+    }
+
+    /**
+     * Hook invoked while holding the storage entry of a loan request that is about to be deleted
+     * Throwing aborts the delete and leaves the store unchanged.
+     *
+     * @param id the ID of the loan request being deleted
+     */
+    protected void beforeDelete(Long id) {
+    }
+
+    /**
+     * Pick the narrowest sorted index for a filter
+     * A user's own loans are always few, so the user index wins over the status index
+     *
+     * @param userId the owner filter (null for all users)
+     * @param status the status filter (null for all statuses)
+     * @return the index to walk, or null if nothing can match
+     */
+    private NavigableSet<LoanRequestSortKey> indexFor(Long userId, String status) {
+        if (userId != null) {
+            return idsByUserId.get(userId);
+        }
+        if (status != null) {
+            return idsByStatus.get(status);
+        }
+        return ordered;
+    }
+
+    /**
+     * Move a loan request from its previously indexed keys to the given ones
+     * Must be called while holding the storage entry for the ID
+     *
+     * @param id the loan request ID
+     * @param current the keys to index under, or null to drop the loan request from all indexes
+     * @param counts where to collect counter changes, or null to apply them right away
+     */
+    private void reindex(Long id, IndexEntry current, LoanRequestCounters.Batch counts) {
+        IndexEntry previous = current != null ? indexEntries.put(id, current) : indexEntries.remove(id);
+        if (previous != null) {
+            ordered.remove(previous.sortKey);
+            removeFromIndex(idsByUserId, previous.userId, previous.sortKey);
+            removeFromIndex(idsByStatus, previous.status, previous.sortKey);
+            if (counts != null) {
+                counts.decrement(previous.userId, previous.status);
+            } else {
+                counters.decrement(previous.userId, previous.status);
+            }
+        }
+        if (current != null) {
+            ordered.add(current.sortKey);
+            addToIndex(idsByUserId, current.userId, current.sortKey);
+            addToIndex(idsByStatus, current.status, current.sortKey);
+            if (counts != null) {
+                counts.increment(current.userId, current.status);
+            } else {
+                counters.increment(current.userId, current.status);
+            }
+        }
+    }
+
+    private static <K> void addToIndex(ConcurrentHashMap<K, NavigableSet<LoanRequestSortKey>> index,
+                                       K key, LoanRequestSortKey sortKey) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, keys) -> {
+            NavigableSet<LoanRequestSortKey> result = keys != null ? keys : new ConcurrentSkipListSet<>();
+            result.add(sortKey);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(ConcurrentHashMap<K, NavigableSet<LoanRequestSortKey>> index,
+                                            K key, LoanRequestSortKey sortKey) {
+        if (key == null) {
+            return;
+        }
+        // Drop empty buckets so the index does not grow with every user/status ever seen
+        index.computeIfPresent(key, (k, keys) -> {
+            keys.remove(sortKey);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Walk a sorted index and resolve a window of matching loan requests
+     *
+     * @param keys the sorted index to walk (may be null)
+     * @param userId the userId the loan requests must have (null to skip the check)
+     * @param status the status the loan requests must have (null to skip the check)
+     * @param offset number of matching loan requests to skip
+     * @param limit maximum number of loan requests to return
+     * @return the matching loan requests in listing order
+     */
+    private List<LoanRequest> collect(NavigableSet<LoanRequestSortKey> keys, Long userId, String status,
+                                      long offset, int limit) {
+        if (keys == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<LoanRequest> result = new ArrayList<>(Math.min(limit, 64));
+        long skipped = 0;
+        for (LoanRequestSortKey key : keys) {
+            LoanRequest loanRequest = storage.get(key.getId());
+            // Re-check the live entity: it may have been changed in place and not saved yet
+            if (loanRequest == null
+                    || (userId != null && !userId.equals(loanRequest.getUserId()))
+                    || (status != null && !status.equals(loanRequest.getStatus()))) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(loanRequest);
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Immutable snapshot of the indexed fields of a loan request
+     */
+    private static final class IndexEntry {
+        private final Long userId;
+        private final String status;
+        private final LoanRequestSortKey sortKey;
+
+        private IndexEntry(LoanRequest loanRequest) {
+            this.userId = loanRequest.getUserId();
+            this.status = loanRequest.getStatus();
+            this.sortKey = LoanRequestSortKey.of(loanRequest);
+        }
     }
 }
@@ -0,0 +1,374 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary snapshot of the loan requests, read back through memory-mapped chunks
+ *
+ * Layout:
+ * <pre>
+ * header   [int magic][int version][long lsn][long rowCount][long tableOffset]
+ * chunk*   [rowCount x 72-byte rows][heap: variable-length UTF-8/decimal bytes]
+ * table    [int chunkCount]{[long offset][int rows][long heapBytes]}*
+ *          [dictionary: currency][dictionary: status]
+ * </pre>
+ * Rows are fixed-width and decoded with absolute reads straight from the mapping, so
+ * loading needs no stream parsing or intermediate copies; low-cardinality strings
+ * (currency, status) are dictionary-coded and shared. Chunks are independent and small
+ * enough to map individually, which also lets them be loaded in parallel.
+ */
+final class LoanRequestSnapshot {
+
+    private static final int MAGIC = 0x4C534E50; // "LSNP"
+    private static final int VERSION = 2; // 2: rows carry the loan request version
+    private static final int HEADER_BYTES = 32;
+    private static final int TABLE_OFFSET_POSITION = 24;
+    static final int ROW_BYTES = 72;
+    static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+    // Row layout
+    private static final int ID = 0;
+    private static final int USER_ID = 8;
+    private static final int AMOUNT = 16;
+    private static final int CREATED_SECOND = 24;
+    private static final int HEAP_OFFSET = 32;
+    private static final int CREATED_NANO = 40;
+    private static final int NAME_LENGTH = 44;
+    private static final int DOCUMENT_LENGTH = 48;
+    private static final int AMOUNT_SCALE = 52;
+    private static final int CURRENCY = 56;
+    private static final int STATUS = 58;
+    private static final int FLAGS = 60;
+    private static final int LOAN_VERSION = 64;
+
+    private static final byte USER_ID_NULL = 1;
+    private static final byte AMOUNT_NULL = 1 << 1;
+    private static final byte AMOUNT_IN_HEAP = 1 << 2; // unscaled value does not fit a long
+    private static final byte CREATED_AT_NULL = 1 << 3;
+
+    private static final int NULL_LENGTH = -1;
+    private static final short NULL_CODE = -1;
+
+    private LoanRequestSnapshot() {
+    }
+
+    /**
+     * Write a snapshot file
+     *
+     * @param file the destination file (overwritten)
+     * @param lsn the log sequence number the snapshot covers
+     * @param loans the loan requests to write
+     * @param chunkRows maximum number of rows per chunk
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, long lsn, List<LoanRequest> loans, int chunkRows) throws IOException {
+        Dictionary currencies = new Dictionary();
+        Dictionary statuses = new Dictionary();
+        List<long[]> chunks = new ArrayList<>();
+
+        try (FileChannel rowChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             FileChannel heapChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer rows = ByteBuffer.allocate(ROW_BYTES * 1024);
+            ByteBuffer heap = ByteBuffer.allocate(1 << 16);
+
+            long position = HEADER_BYTES;
+            for (int start = 0; start < loans.size(); start += chunkRows) {
+                int count = Math.min(chunkRows, loans.size() - start);
+                long chunkOffset = position;
+                long heapStart = chunkOffset + (long) count * ROW_BYTES;
+                rowChannel.position(chunkOffset);
+                heapChannel.position(heapStart);
+                long heapBytes = 0;
+                for (int i = start; i < start + count; i++) {
+                    if (rows.remaining() < ROW_BYTES) {
+                        drain(rows, rowChannel);
+                    }
+                    heapBytes += writeRow(loans.get(i), heapBytes, rows, heap, heapChannel, currencies, statuses);
+                }
+                drain(rows, rowChannel);
+                drain(heap, heapChannel);
+                chunks.add(new long[]{chunkOffset, count, heapBytes});
+                position = heapStart + heapBytes;
+            }
+
+            // Chunk table and dictionaries go last, once every value has been seen
+            ByteBuffer table = ByteBuffer.allocate(4 + chunks.size() * 20 + currencies.bytes() + statuses.bytes());
+            table.putInt(chunks.size());
+            for (long[] chunk : chunks) {
+                table.putLong(chunk[0]).putInt((int) chunk[1]).putLong(chunk[2]);
+            }
+            currencies.writeTo(table);
+            statuses.writeTo(table);
+            table.flip();
+            rowChannel.position(position);
+            drainFully(table, rowChannel);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(lsn).putLong(loans.size()).putLong(position);
+            header.flip();
+            rowChannel.position(0);
+            drainFully(header, rowChannel);
+            rowChannel.force(true);
+        }
+    }
+
+    /**
+     * Read a snapshot file, handing every loan request to a sink
+     * Chunks are decoded in parallel, so the sink must be thread-safe.
+     *
+     * @param file the snapshot file
+     * @param sink receives the decoded loan requests
+     * @return the log sequence number the snapshot covers
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    static long read(Path file, Consumer<LoanRequest> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a loan repository snapshot: " + file);
+            }
+            long lsn = header.getLong(8);
+            long tableOffset = header.getLong(TABLE_OFFSET_POSITION);
+
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, channel.size() - tableOffset);
+            int chunkCount = table.getInt();
+            List<MappedByteBuffer> chunks = new ArrayList<>(chunkCount);
+            List<Integer> rowCounts = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                long offset = table.getLong();
+                int rows = table.getInt();
+                long heapBytes = table.getLong();
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * ROW_BYTES + heapBytes));
+                rowCounts.add(rows);
+            }
+            String[] currencies = Dictionary.readFrom(table);
+            String[] statuses = Dictionary.readFrom(table);
+
+            // Mappings stay valid after the channel is closed; decoding faults pages in on demand
+            IntStream.range(0, chunkCount).parallel().forEach(i ->
+                    readChunk(chunks.get(i), rowCounts.get(i), currencies, statuses, sink));
+            return lsn;
+        }
+    }
+
+    private static void readChunk(ByteBuffer chunk, int rows, String[] currencies, String[] statuses,
+                                  Consumer<LoanRequest> sink) {
+        int heapBase = rows * ROW_BYTES;
+        // Absolute bulk gets are Java 13+, so variable-length data is read through one positioned view
+        ByteBuffer heapView = chunk.duplicate();
+        for (int row = 0; row < rows; row++) {
+            int base = row * ROW_BYTES;
+            byte flags = chunk.get(base + FLAGS);
+            int heap = heapBase + (int) chunk.getLong(base + HEAP_OFFSET);
+
+            LoanRequest loanRequest = new LoanRequest();
+            loanRequest.setId(chunk.getLong(base + ID));
+            if ((flags & USER_ID_NULL) == 0) {
+                loanRequest.setUserId(chunk.getLong(base + USER_ID));
+            }
+
+            int nameLength = chunk.getInt(base + NAME_LENGTH);
+            loanRequest.setApplicantName(readString(heapView, heap, nameLength));
+            heap += Math.max(nameLength, 0);
+            int documentLength = chunk.getInt(base + DOCUMENT_LENGTH);
+            loanRequest.setIdentityDocument(readString(heapView, heap, documentLength));
+            heap += Math.max(documentLength, 0);
+
+            if ((flags & AMOUNT_NULL) == 0) {
+                int scale = chunk.getInt(base + AMOUNT_SCALE);
+                if ((flags & AMOUNT_IN_HEAP) == 0) {
+                    loanRequest.setAmount(BigDecimal.valueOf(chunk.getLong(base + AMOUNT), scale));
+                } else {
+                    byte[] unscaled = new byte[(int) chunk.getLong(base + AMOUNT)];
+                    readBytes(heapView, heap, unscaled);
+                    loanRequest.setAmount(new BigDecimal(new BigInteger(unscaled), scale));
+                }
+            }
+            if ((flags & CREATED_AT_NULL) == 0) {
+                loanRequest.setCreatedAt(LocalDateTime.ofEpochSecond(
+                        chunk.getLong(base + CREATED_SECOND), chunk.getInt(base + CREATED_NANO), ZoneOffset.UTC));
+            }
+            short currency = chunk.getShort(base + CURRENCY);
+            loanRequest.setCurrency(currency == NULL_CODE ? null : currencies[currency]);
+            short status = chunk.getShort(base + STATUS);
+            loanRequest.setStatus(status == NULL_CODE ? null : statuses[status]);
+            loanRequest.setVersion(chunk.getLong(base + LOAN_VERSION));
+            sink.accept(loanRequest);
+        }
+    }
+
+    /**
+     * Encode one row and its variable-length data
+     *
+     * @return number of heap bytes written for the row
+     */
+    private static long writeRow(LoanRequest loanRequest, long heapOffset, ByteBuffer rows, ByteBuffer heap,
+                                 FileChannel heapChannel, Dictionary currencies, Dictionary statuses)
+            throws IOException {
+        // Read every field once: the live object may change while the snapshot is written
+        Long userId = loanRequest.getUserId();
+        byte[] name = utf8(loanRequest.getApplicantName());
+        byte[] document = utf8(loanRequest.getIdentityDocument());
+        BigDecimal amount = loanRequest.getAmount();
+        LocalDateTime createdAt = loanRequest.getCreatedAt();
+
+        byte flags = 0;
+        long amountValue = 0;
+        byte[] amountBytes = null;
+        if (userId == null) {
+            flags |= USER_ID_NULL;
+        }
+        if (amount == null) {
+            flags |= AMOUNT_NULL;
+        } else if (amount.unscaledValue().bitLength() < Long.SIZE) {
+            amountValue = amount.unscaledValue().longValue();
+        } else {
+            flags |= AMOUNT_IN_HEAP;
+            amountBytes = amount.unscaledValue().toByteArray();
+            amountValue = amountBytes.length;
+        }
+        if (createdAt == null) {
+            flags |= CREATED_AT_NULL;
+        }
+
+        int base = rows.position();
+        rows.putLong(base + ID, loanRequest.getId())
+                .putLong(base + USER_ID, userId != null ? userId : 0)
+                .putLong(base + AMOUNT, amountValue)
+                .putLong(base + CREATED_SECOND, createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : 0)
+                .putLong(base + HEAP_OFFSET, heapOffset)
+                .putInt(base + CREATED_NANO, createdAt != null ? createdAt.getNano() : 0)
+                .putInt(base + NAME_LENGTH, name != null ? name.length : NULL_LENGTH)
+                .putInt(base + DOCUMENT_LENGTH, document != null ? document.length : NULL_LENGTH)
+                .putInt(base + AMOUNT_SCALE, amount != null ? amount.scale() : 0)
+                .putShort(base + CURRENCY, currencies.code(loanRequest.getCurrency()))
+                .putShort(base + STATUS, statuses.code(loanRequest.getStatus()))
+                .put(base + FLAGS, flags)
+                .putLong(base + LOAN_VERSION, loanRequest.getVersion());
+        rows.position(base + ROW_BYTES);
+
+        long written = 0;
+        for (byte[] bytes : new byte[][]{name, document, amountBytes}) {
+            if (bytes == null) {
+                continue;
+            }
+            if (heap.remaining() < bytes.length) {
+                drain(heap, heapChannel);
+            }
+            if (heap.remaining() < bytes.length) {
+                drainFully(ByteBuffer.wrap(bytes), heapChannel); // larger than the buffer itself
+            } else {
+                heap.put(bytes);
+            }
+            written += bytes.length;
+        }
+        return written;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String readString(ByteBuffer heapView, int position, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        readBytes(heapView, position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readBytes(ByteBuffer heapView, int position, byte[] target) {
+        heapView.position(position);
+        heapView.get(target);
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        drainFully(buffer, channel);
+        buffer.clear();
+    }
+
+    private static void drainFully(ByteBuffer buffer, FileChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+        }
+    }
+
+    /**
+     * Code table for a low-cardinality string column
+     */
+    private static final class Dictionary {
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        private short code(String value) throws IOException {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Short code = codes.get(value);
+            if (code == null) {
+                if (values.size() >= Short.MAX_VALUE) {
+                    throw new IOException("Too many distinct values for a dictionary-coded column");
+                }
+                code = (short) values.size();
+                codes.put(value, code);
+                values.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return code;
+        }
+
+        private int bytes() {
+            int total = 4;
+            for (byte[] value : values) {
+                total += 4 + value.length;
+            }
+            return total;
+        }
+
+        private void writeTo(ByteBuffer buffer) {
+            buffer.putInt(values.size());
+            for (byte[] value : values) {
+                buffer.putInt(value.length).put(value);
+            }
+        }
+
+        private static String[] readFrom(ByteBuffer buffer) {
+            String[] result = new String[buffer.getInt()];
+            for (int i = 0; i < result.length; i++) {
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                result[i] = new String(value, StandardCharsets.UTF_8);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Immutable position of a loan request in the listing order:
+ * Pendiente first, then by createdAt (chronological, nulls last), then by ID
+ * The ID makes the order total, so every loan request has a unique key
+ */
+public final class LoanRequestSortKey implements Comparable<LoanRequestSortKey> {
+
+    private final boolean pending;
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    public LoanRequestSortKey(boolean pending, LocalDateTime createdAt, long id) {
+        this.pending = pending;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Build the sort key from the current field values of a loan request
+     *
+     * @param loanRequest the loan request (must have an ID)
+     * @return the sort key
+     */
+    public static LoanRequestSortKey of(LoanRequest loanRequest) {
+        return new LoanRequestSortKey(
+                "Pendiente".equals(loanRequest.getStatus()),
+                loanRequest.getCreatedAt(),
+                loanRequest.getId());
+    }
+
+    public boolean isPending() {
+        return pending;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(LoanRequestSortKey other) {
+        if (pending != other.pending) {
+            return pending ? -1 : 1; // Pendiente first
+        }
+        if (createdAt != other.createdAt) {
+            if (createdAt == null) {
+                return 1;
+            }
+            if (other.createdAt == null) {
+                return -1;
+            }
+            int byCreatedAt = createdAt.compareTo(other.createdAt);
+            if (byCreatedAt != 0) {
+                return byCreatedAt;
+            }
+        }
+        return Long.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LoanRequestSortKey)) {
+            return false;
+        }
+        LoanRequestSortKey that = (LoanRequestSortKey) o;
+        return pending == that.pending && id == that.id && Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pending, createdAt, id);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * One compare-and-set update of a batch passed to LoanRequestRepository.updateAll
+ * Carries the same arguments as LoanRequestRepository.update and receives its outcome:
+ * the stored new state, nothing (ID not found) or the exception the update threw
+ */
+public final class LoanRequestUpdate {
+
+    private final Long id;
+    private final Long expectedVersion;
+    private final UnaryOperator<LoanRequest> change;
+    private LoanRequest result;
+    private RuntimeException failure;
+
+    public LoanRequestUpdate(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.change = change;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public UnaryOperator<LoanRequest> getChange() {
+        return change;
+    }
+
+    /**
+     * @return the stored new state, or null if the update failed or the ID does not exist
+     */
+    public LoanRequest getResult() {
+        return result;
+    }
+
+    /**
+     * @return the exception thrown by the update (e.g. VersionConflictException), or null
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    void succeeded(LoanRequest result) {
+        this.result = result;
+        this.failure = null;
+    }
+
+    void failed(RuntimeException failure) {
+        this.result = null;
+        this.failure = failure;
+    }
+}
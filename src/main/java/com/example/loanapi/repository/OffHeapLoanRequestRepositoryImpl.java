@@ -0,0 +1,506 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.model.LoanRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Off-heap implementation of LoanRequestRepository
+ * Loan requests are stored as rows of LoanRequestColumns (direct memory, about 72 bytes
+ * plus the applicant name per loan) and only the rows a query returns are materialized
+ * into LoanRequest objects. Returned objects are copies: changes take effect on save().
+ *
+ * There are no secondary indexes: filtered queries scan the userId/status columns, which
+ * are dense primitive arrays, and keep only the best offset + limit rows in listing order.
+ * Counts come from live counters maintained on save/delete.
+ * Amounts are stored in minor units, so amounts with more than 2 decimals are rejected,
+ * and createdAt is kept with millisecond precision.
+ * Active when loan.repository.type is "offheap"
+ */
+@Repository
+@ConditionalOnProperty(name = "loan.repository.type", havingValue = "offheap")
+public class OffHeapLoanRequestRepositoryImpl implements LoanRequestRepository {
+
+    private static final String PENDING = "Pendiente";
+
+    private final LoanRequestColumns columns = new LoanRequestColumns();
+    private final LongIntHashMap rowsById = new LongIntHashMap();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LoanRequestCounters counters = new LoanRequestCounters();
+    private final LoanRequestChangeLog changeLog;
+
+    // Rows freed by deletes, reused before growing the columns
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    private int rowCount;
+
+    public OffHeapLoanRequestRepositoryImpl() {
+        this(LoanRequestChangeLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param changeLogCapacity number of recent changes kept for findChangesSince
+     */
+    @Autowired
+    public OffHeapLoanRequestRepositoryImpl(@Value("${loan.changes.capacity:10000}") int changeLogCapacity) {
+        this.changeLog = new LoanRequestChangeLog(changeLogCapacity);
+    }
+
+    @Override
+    public LoanRequest save(LoanRequest loanRequest) {
+        if (loanRequest.getId() == null) {
+            loanRequest.setId(idGenerator.getAndIncrement());
+        } else {
+            idGenerator.accumulateAndGet(loanRequest.getId() + 1, Math::max);
+        }
+        // Convert outside the lock; this is also where unsupported values are rejected
+        LoanRequestColumns.Row values = new LoanRequestColumns.Row(loanRequest);
+        lock.writeLock().lock();
+        try {
+            write(loanRequest, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loanRequest;
+    }
+
+    @Override
+    public List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        long nextId = idGenerator.getAndAdd(LoanRequestRepositoryImpl.countNew(loanRequests));
+        LoanRequestColumns.Row[] values = new LoanRequestColumns.Row[loanRequests.size()];
+        for (int i = 0; i < values.length; i++) {
+            LoanRequest loanRequest = loanRequests.get(i);
+            if (loanRequest.getId() == null) {
+                loanRequest.setId(nextId++);
+            } else {
+                idGenerator.accumulateAndGet(loanRequest.getId() + 1, Math::max);
+            }
+            values[i] = new LoanRequestColumns.Row(loanRequest);
+        }
+        // Every row is converted (and validated) before the first one is written
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < values.length; i++) {
+                write(loanRequests.get(i), values[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loanRequests;
+    }
+
+    @Override
+    public Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        lock.writeLock().lock();
+        try {
+            return Optional.ofNullable(apply(id, expectedVersion, change, null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateAll(List<LoanRequestUpdate> updates) {
+        LoanRequestCounters.Batch counts = new LoanRequestCounters.Batch();
+        lock.writeLock().lock();
+        try {
+            for (LoanRequestUpdate update : updates) {
+                try {
+                    update.succeeded(update.getId() == null ? null
+                            : apply(update.getId(), update.getExpectedVersion(), update.getChange(), counts));
+                } catch (RuntimeException e) {
+                    update.failed(e);
+                }
+            }
+        } finally {
+            counters.apply(counts);
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<LoanRequest> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int row = rowsById.get(id);
+            return row == LongIntHashMap.MISSING ? Optional.empty() : Optional.of(columns.materialize(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LoanRequest> findAll() {
+        lock.readLock().lock();
+        try {
+            List<LoanRequest> result = new ArrayList<>(rowsById.size());
+            for (int row = 0; row < rowCount; row++) {
+                if (columns.inUse(row)) {
+                    result.add(columns.materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LoanRequest> findByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        return select(userId, null, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByStatus(String status) {
+        if (status == null) {
+            return Collections.emptyList();
+        }
+        return select(null, status, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByUserIdAndStatus(Long userId, String status) {
+        if (userId == null || status == null) {
+            return Collections.emptyList();
+        }
+        return select(userId, status, null, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findPage(Long userId, String status, long offset, int limit) {
+        return select(userId, status, null, offset, limit);
+    }
+
+    @Override
+    public List<LoanRequest> findPageAfter(Long userId, String status, LoanRequestSortKey after, int limit) {
+        return select(userId, status, after, 0, limit);
+    }
+
+    @Override
+    public long count(Long userId, String status) {
+        return counters.count(userId, status);
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(Long userId) {
+        return counters.countByStatus(userId);
+    }
+
+    @Override
+    public LoanRequestChanges findChangesSince(long since, Long userId, int limit) {
+        return changeLog.read(since, userId, limit, LoanRequestChangeLog.byId(this));
+    }
+
+    @Override
+    public LoanRequestChanges findChangedIdsSince(long since, int limit) {
+        return changeLog.readIds(since, limit);
+    }
+
+    @Override
+    public long getChangeSequence() {
+        return changeLog.head();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.remove(id);
+            if (row == LongIntHashMap.MISSING) {
+                return;
+            }
+            Long userId = columns.userId(row);
+            counters.decrement(userId, columns.status(row));
+            columns.clear(row);
+            changeLog.record(id, userId);
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compare-and-set one row
+     * Must be called while holding the write lock.
+     *
+     * @param counts where to collect counter changes, or null to apply them right away
+     * @return the stored new state, or null if the ID does not exist
+     */
+    private LoanRequest apply(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change,
+                              LoanRequestCounters.Batch counts) {
+        int row = rowsById.get(id);
+        if (row == LongIntHashMap.MISSING) {
+            return null;
+        }
+        long version = columns.version(row);
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new VersionConflictException(id, expectedVersion, version);
+        }
+        Long previousUserId = columns.userId(row);
+        String previousStatus = columns.status(row);
+        LoanRequest next = change.apply(columns.materialize(row));
+        next.setId(id);
+        LoanRequestColumns.Row values = new LoanRequestColumns.Row(next);
+        columns.write(row, values, version + 1);
+        values.applyTo(next);
+        next.setVersion(version + 1);
+        if (counts != null) {
+            counts.decrement(previousUserId, previousStatus);
+            counts.increment(next.getUserId(), next.getStatus());
+        } else {
+            counters.decrement(previousUserId, previousStatus);
+            counters.increment(next.getUserId(), next.getStatus());
+        }
+        changeLog.record(id, next.getUserId());
+        return next;
+    }
+
+    /**
+     * Write a loan request to its row (a new one if needed) and adjust the counters
+     * The loan request is left holding the stored values, as a later read returns them.
+     * Must be called while holding the write lock.
+     */
+    private void write(LoanRequest loanRequest, LoanRequestColumns.Row values) {
+        int row = rowsById.get(loanRequest.getId());
+        boolean added = row == LongIntHashMap.MISSING;
+        Long previousUserId = null;
+        String previousStatus = null;
+        long version = 1;
+        if (added) {
+            row = freeCount > 0 ? freeRows[--freeCount] : rowCount;
+        } else {
+            previousUserId = columns.userId(row);
+            previousStatus = columns.status(row);
+            version = columns.version(row) + 1;
+        }
+        columns.write(row, values, version);
+        values.applyTo(loanRequest);
+        loanRequest.setVersion(version);
+        if (!added) {
+            counters.decrement(previousUserId, previousStatus);
+        }
+        counters.increment(loanRequest.getUserId(), loanRequest.getStatus());
+        if (added) {
+            rowsById.put(loanRequest.getId(), row);
+            if (row == rowCount) {
+                rowCount++;
+            }
+        }
+        changeLog.record(loanRequest.getId(), loanRequest.getUserId());
+    }
+
+    /**
+     * @return bytes of direct memory held by the store
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return columns.offHeapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scan the columns and materialize one window of matching rows in listing order
+     * A bounded max-heap keeps the offset + limit smallest rows seen so far, so the
+     * scan allocates nothing per row.
+     */
+    private List<LoanRequest> select(Long userId, String status, LoanRequestSortKey after, long offset, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(userId, status, after);
+            if (filter.empty) {
+                return Collections.emptyList();
+            }
+            int wanted = (int) Math.min(offset + limit, Integer.MAX_VALUE - 8L);
+            int[] heap = new int[Math.min(wanted, 64)];
+            int size = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (!filter.matches(row)) {
+                    continue;
+                }
+                if (size < wanted) {
+                    if (size == heap.length) {
+                        heap = Arrays.copyOf(heap, (int) Math.min((long) size * 2, wanted));
+                    }
+                    heap[size] = row;
+                    siftUp(heap, size++, filter);
+                } else if (filter.compare(row, heap[0]) < 0) {
+                    heap[0] = row;
+                    siftDown(heap, size, filter);
+                }
+            }
+            // Drain the max-heap from the back to get ascending order
+            for (int end = size - 1; end > 0; end--) {
+                int largest = heap[0];
+                heap[0] = heap[end];
+                heap[end] = largest;
+                siftDown(heap, end, filter);
+            }
+            if (offset >= size) {
+                return Collections.emptyList();
+            }
+            List<LoanRequest> result = new ArrayList<>(size - (int) offset);
+            for (int i = (int) offset; i < size; i++) {
+                result.add(columns.materialize(heap[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void siftUp(int[] heap, int index, Filter filter) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (filter.compare(heap[parent], row) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, Filter filter) {
+        int index = 0;
+        int row = heap[0];
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && filter.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (filter.compare(row, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+
+    /**
+     * A query filter resolved to column values, plus the listing order on rows
+     * Must be used while holding the read lock.
+     */
+    private final class Filter {
+        private final boolean byUser;
+        private final long userId;
+        private final boolean byStatus;
+        private final byte statusCode;
+        private final byte pendingCode;
+        private final LoanRequestSortKey after;
+        private final long afterSecond;
+        private final int afterNano;
+        private final boolean empty;
+
+        private Filter(Long userId, String status, LoanRequestSortKey after) {
+            this.byUser = userId != null;
+            this.userId = userId != null ? userId : 0;
+            this.byStatus = status != null;
+            this.statusCode = status != null ? columns.lookupStatus(status) : LoanRequestColumns.Dictionary.ABSENT;
+            this.pendingCode = columns.lookupStatus(PENDING);
+            this.after = after;
+            LocalDateTime afterCreatedAt = after != null ? after.getCreatedAt() : null;
+            this.afterSecond = afterCreatedAt != null ? afterCreatedAt.toEpochSecond(ZoneOffset.UTC) : 0;
+            this.afterNano = afterCreatedAt != null ? afterCreatedAt.getNano() : 0;
+            // A status no row has ever used cannot match anything
+            this.empty = byStatus && statusCode == LoanRequestColumns.Dictionary.ABSENT;
+        }
+
+        private boolean matches(int row) {
+            return columns.inUse(row)
+                    && (!byUser || columns.hasUserId(row, userId))
+                    && (!byStatus || columns.statusCode(row) == statusCode)
+                    && (after == null || compareToAfter(row) > 0);
+        }
+
+        /**
+         * Listing order: Pendiente first, then createdAt (nulls last), then ID
+         */
+        private int compare(int a, int b) {
+            boolean pendingA = columns.statusCode(a) == pendingCode;
+            boolean pendingB = columns.statusCode(b) == pendingCode;
+            if (pendingA != pendingB) {
+                return pendingA ? -1 : 1;
+            }
+            boolean nullA = columns.createdAtNull(a);
+            boolean nullB = columns.createdAtNull(b);
+            if (nullA != nullB) {
+                return nullA ? 1 : -1;
+            }
+            if (!nullA) {
+                int byCreatedAt = Long.compare(columns.createdAtMillis(a), columns.createdAtMillis(b));
+                if (byCreatedAt != 0) {
+                    return byCreatedAt;
+                }
+            }
+            return Long.compare(columns.id(a), columns.id(b));
+        }
+
+        /**
+         * Same order as compare(), between a row and the cursor position
+         */
+        private int compareToAfter(int row) {
+            boolean pending = columns.statusCode(row) == pendingCode;
+            if (pending != after.isPending()) {
+                return pending ? -1 : 1;
+            }
+            boolean createdAtNull = columns.createdAtNull(row);
+            if (createdAtNull != (after.getCreatedAt() == null)) {
+                return createdAtNull ? 1 : -1;
+            }
+            if (!createdAtNull) {
+                long millis = columns.createdAtMillis(row);
+                int bySecond = Long.compare(Math.floorDiv(millis, 1000L), afterSecond);
+                if (bySecond != 0) {
+                    return bySecond;
+                }
+                int byNano = Integer.compare((int) Math.floorMod(millis, 1000L) * 1_000_000, afterNano);
+                if (byNano != 0) {
+                    return byNano;
+                }
+            }
+            return Long.compare(columns.id(row), after.getId());
+        }
+    }
+}
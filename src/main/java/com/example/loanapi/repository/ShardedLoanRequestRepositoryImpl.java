@@ -0,0 +1,462 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory implementation of LoanRequestRepository partitioned by userId
+ * Every shard is a LoanRequestRepositoryImpl with its own map, indexes and counters,
+ * and holds all loan requests of the users hashed to it, so queries for one user
+ * touch one shard. Queries across users run on every shard in parallel and merge
+ * the sorted results.
+ * Generated IDs come from a per-shard sequence (id = sequence * shards + shard + 1),
+ * so writers of different shards share no counter and the shard of an ID is
+ * known without a lookup. A loan request saved with an explicit ID that does not
+ * encode its owner's shard is recorded in a small relocation map.
+ * A loan request stays with its owner's shard: changing its userId to a user of
+ * another shard is rejected.
+ * Active when loan.repository.type is "sharded"
+ */
+@Repository
+@ConditionalOnProperty(name = "loan.repository.type", havingValue = "sharded")
+public class ShardedLoanRequestRepositoryImpl implements LoanRequestRepository {
+
+    private final LoanRequestRepositoryImpl[] shards;
+    private final AtomicLong[] sequences;
+    // Explicit IDs stored outside the shard their value points to
+    private final ConcurrentHashMap<Long, Integer> relocated = new ConcurrentHashMap<>();
+    private final ForkJoinPool fanOutPool;
+    // One sequence for all shards, so a change position means the same thing everywhere
+    private final LoanRequestChangeLog changeLog;
+
+    public ShardedLoanRequestRepositoryImpl(int shardCount) {
+        this(shardCount, LoanRequestChangeLog.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param shardCount number of shards, or 0 for one per available processor
+     * @param changeLogCapacity number of recent changes kept for findChangesSince
+     */
+    @Autowired
+    public ShardedLoanRequestRepositoryImpl(@Value("${loan.repository.sharded.shards:0}") int shardCount,
+                                            @Value("${loan.changes.capacity:10000}") int changeLogCapacity) {
+        if (shardCount < 0) {
+            throw new IllegalArgumentException("Shard count must not be negative: " + shardCount);
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        int count = shardCount == 0 ? processors : shardCount;
+        this.shards = new LoanRequestRepositoryImpl[count];
+        this.sequences = new AtomicLong[count];
+        this.changeLog = new LoanRequestChangeLog(changeLogCapacity);
+        for (int i = 0; i < count; i++) {
+            shards[i] = new LoanRequestRepositoryImpl(changeLog);
+            sequences[i] = new AtomicLong();
+        }
+        this.fanOutPool = new ForkJoinPool(Math.min(count, processors));
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOutPool.shutdown();
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public LoanRequest save(LoanRequest loanRequest) {
+        int shard;
+        if (loanRequest.getId() == null) {
+            shard = shardOf(loanRequest.getUserId());
+            loanRequest.setId(idFor(shard, sequences[shard].getAndIncrement()));
+        } else {
+            shard = place(loanRequest);
+        }
+        return shards[shard].save(loanRequest);
+    }
+
+    @Override
+    public List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        List<List<LoanRequest>> byShard = perShard();
+        int[] newCounts = new int[shards.length];
+        for (LoanRequest loanRequest : loanRequests) {
+            int shard;
+            if (loanRequest.getId() == null) {
+                shard = shardOf(loanRequest.getUserId());
+                newCounts[shard]++;
+            } else {
+                shard = place(loanRequest);
+            }
+            byShard.get(shard).add(loanRequest);
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<LoanRequest> batch = byShard.get(shard);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            // One block of the shard's sequence for all its new loan requests
+            long sequence = sequences[shard].getAndAdd(newCounts[shard]);
+            for (LoanRequest loanRequest : batch) {
+                if (loanRequest.getId() == null) {
+                    loanRequest.setId(idFor(shard, sequence++));
+                }
+            }
+            shards[shard].saveAll(batch);
+        }
+        return loanRequests;
+    }
+
+    @Override
+    public Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        int shard = locate(id);
+        if (shard < 0) {
+            return Optional.empty();
+        }
+        return shards[shard].update(id, expectedVersion, stayIn(shard, change));
+    }
+
+    @Override
+    public void updateAll(List<LoanRequestUpdate> updates) {
+        List<List<LoanRequestUpdate>> byShard = perShard();
+        List<LoanRequestUpdate> routed = new ArrayList<>(updates.size());
+        for (LoanRequestUpdate update : updates) {
+            int shard = locate(update.getId());
+            LoanRequestUpdate copy = new LoanRequestUpdate(update.getId(), update.getExpectedVersion(),
+                    shard < 0 ? update.getChange() : stayIn(shard, update.getChange()));
+            routed.add(copy);
+            if (shard >= 0) {
+                byShard.get(shard).add(copy);
+            }
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (!byShard.get(shard).isEmpty()) {
+                shards[shard].updateAll(byShard.get(shard));
+            }
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            LoanRequestUpdate copy = routed.get(i);
+            if (copy.getFailure() != null) {
+                updates.get(i).failed(copy.getFailure());
+            } else {
+                updates.get(i).succeeded(copy.getResult());
+            }
+        }
+    }
+
+    @Override
+    public Optional<LoanRequest> findById(Long id) {
+        int shard = locate(id);
+        return shard < 0 ? Optional.empty() : shards[shard].findById(id);
+    }
+
+    @Override
+    public List<LoanRequest> findAll() {
+        List<LoanRequest> result = new ArrayList<>();
+        for (List<LoanRequest> part : fanOut(LoanRequestRepository::findAll)) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    @Override
+    public List<LoanRequest> findByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        return shards[shardOf(userId)].findByUserId(userId);
+    }
+
+    @Override
+    public List<LoanRequest> findByStatus(String status) {
+        if (status == null) {
+            return Collections.emptyList();
+        }
+        return merge(fanOut(shard -> shard.findByStatus(status)), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<LoanRequest> findByUserIdAndStatus(Long userId, String status) {
+        if (userId == null || status == null) {
+            return Collections.emptyList();
+        }
+        return shards[shardOf(userId)].findByUserIdAndStatus(userId, status);
+    }
+
+    @Override
+    public List<LoanRequest> findPage(Long userId, String status, long offset, int limit) {
+        if (userId != null) {
+            return shards[shardOf(userId)].findPage(userId, status, offset, limit);
+        }
+        // Any shard may hold the whole window, so each one returns up to offset + limit rows
+        int window = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+        return merge(fanOut(shard -> shard.findPage(null, status, 0, window)), offset, limit);
+    }
+
+    @Override
+    public List<LoanRequest> findPageAfter(Long userId, String status, LoanRequestSortKey after, int limit) {
+        if (userId != null) {
+            return shards[shardOf(userId)].findPageAfter(userId, status, after, limit);
+        }
+        return merge(fanOut(shard -> shard.findPageAfter(null, status, after, limit)), 0, limit);
+    }
+
+    @Override
+    public long count(Long userId, String status) {
+        if (userId != null) {
+            return shards[shardOf(userId)].count(userId, status);
+        }
+        // Counters are lookups: summing them in place is cheaper than fanning out
+        long total = 0;
+        for (LoanRequestRepositoryImpl shard : shards) {
+            total += shard.count(null, status);
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> countByStatus(Long userId) {
+        if (userId != null) {
+            return shards[shardOf(userId)].countByStatus(userId);
+        }
+        Map<String, Long> result = new TreeMap<>();
+        for (LoanRequestRepositoryImpl shard : shards) {
+            shard.countByStatus(null).forEach((status, count) -> result.merge(status, count, Long::sum));
+        }
+        return result;
+    }
+
+    @Override
+    public LoanRequestChanges findChangesSince(long since, Long userId, int limit) {
+        return changeLog.read(since, userId, limit, LoanRequestChangeLog.byId(this));
+    }
+
+    @Override
+    public LoanRequestChanges findChangedIdsSince(long since, int limit) {
+        return changeLog.readIds(since, limit);
+    }
+
+    @Override
+    public long getChangeSequence() {
+        return changeLog.head();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        int shard = locate(id);
+        if (shard >= 0) {
+            shards[shard].deleteById(id);
+            relocated.remove(id);
+        }
+    }
+
+    /**
+     * Shard that holds the loan requests of a user
+     * The ID is mixed first so consecutive user IDs spread evenly
+     *
+     * @param userId the owner user ID (null goes to shard 0)
+     * @return the shard index
+     */
+    int shardOf(Long userId) {
+        if (userId == null) {
+            return 0;
+        }
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(mixed >>> 32, (long) shards.length);
+    }
+
+    /**
+     * @return the shard that holds or would hold an ID, or -1 if the ID is null
+     */
+    private int locate(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer moved = relocated.isEmpty() ? null : relocated.get(id);
+        return moved != null ? moved : home(id);
+    }
+
+    private int home(long id) {
+        return (int) Math.floorMod(id - 1, (long) shards.length);
+    }
+
+    private long idFor(int shard, long sequence) {
+        return sequence * shards.length + shard + 1;
+    }
+
+    /**
+     * Pick the shard for a loan request with an explicit ID and reserve the ID
+     * An ID already stored keeps its shard; a new one goes to its owner's shard.
+     * Concurrent first saves of the same explicit ID for users of different shards
+     * are not serialized; explicit IDs come from restores and imports, one writer each.
+     *
+     * @param loanRequest the loan request (must have an ID)
+     * @return the shard index
+     * @throws IllegalArgumentException if the loan request would move to another shard
+     */
+    private int place(LoanRequest loanRequest) {
+        long id = loanRequest.getId();
+        int target = shardOf(loanRequest.getUserId());
+        int current = locate(id);
+        if (shards[current].findById(id).isPresent()) {
+            checkShard(current, target, id);
+            return current;
+        }
+        // Generated IDs must never reach an explicit one, whatever shard generates them
+        long floor = (id - 1) / shards.length + 1;
+        for (AtomicLong sequence : sequences) {
+            sequence.accumulateAndGet(floor, Math::max);
+        }
+        if (target != home(id)) {
+            relocated.put(id, target);
+        }
+        return target;
+    }
+
+    /**
+     * Wrap a change so it cannot give a loan request an owner outside its shard
+     */
+    private UnaryOperator<LoanRequest> stayIn(int shard, UnaryOperator<LoanRequest> change) {
+        return loanRequest -> {
+            LoanRequest next = change.apply(loanRequest);
+            checkShard(shard, shardOf(next.getUserId()), loanRequest.getId());
+            return next;
+        };
+    }
+
+    private static void checkShard(int current, int target, long id) {
+        if (current != target) {
+            throw new IllegalArgumentException(
+                    "Loan request " + id + " cannot be moved to a user of another shard");
+        }
+    }
+
+    private <T> List<List<T>> perShard() {
+        List<List<T>> lists = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    /**
+     * Run a query on every shard in parallel
+     * The calling thread takes shard 0 itself instead of waiting idle. With a single
+     * processor the hand-off costs more than it saves, so the shards run in turn.
+     *
+     * @param query the query to run on one shard
+     * @return the results, in shard order
+     */
+    private <T> List<T> fanOut(Function<LoanRequestRepositoryImpl, T> query) {
+        if (shards.length == 1) {
+            return Collections.singletonList(query.apply(shards[0]));
+        }
+        if (fanOutPool.getParallelism() == 1) {
+            List<T> results = new ArrayList<>(shards.length);
+            for (LoanRequestRepositoryImpl shard : shards) {
+                results.add(query.apply(shard));
+            }
+            return results;
+        }
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(shards.length - 1);
+        for (int i = 1; i < shards.length; i++) {
+            LoanRequestRepositoryImpl shard = shards[i];
+            tasks.add(fanOutPool.submit(() -> query.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        results.add(query.apply(shards[0]));
+        for (ForkJoinTask<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Merge per-shard results, each already in listing order, into one window
+     *
+     * @param parts the sorted results of every shard
+     * @param offset number of merged loan requests to skip
+     * @param limit maximum number of loan requests to return
+     * @return the merged window in listing order
+     */
+    static List<LoanRequest> merge(List<List<LoanRequest>> parts, long offset, int limit) {
+        if (parts.size() == 1) {
+            List<LoanRequest> only = parts.get(0);
+            int from = (int) Math.min(offset, only.size());
+            return only.subList(from, (int) Math.min(only.size(), from + (long) limit));
+        }
+        PriorityQueue<MergeCursor> heads = new PriorityQueue<>(Math.max(parts.size(), 1));
+        for (List<LoanRequest> part : parts) {
+            if (!part.isEmpty()) {
+                heads.add(new MergeCursor(part));
+            }
+        }
+        List<LoanRequest> result = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            MergeCursor head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(head.current());
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Position in one shard's sorted result during a merge
+     */
+    private static final class MergeCursor implements Comparable<MergeCursor> {
+        private final List<LoanRequest> rows;
+        private int next;
+        private LoanRequestSortKey key;
+
+        private MergeCursor(List<LoanRequest> rows) {
+            this.rows = rows;
+            this.key = LoanRequestSortKey.of(rows.get(0));
+        }
+
+        private LoanRequest current() {
+            return rows.get(next);
+        }
+
+        private boolean advance() {
+            if (++next >= rows.size()) {
+                return false;
+            }
+            key = LoanRequestSortKey.of(rows.get(next));
+            return true;
+        }
+
+        @Override
+        public int compareTo(MergeCursor other) {
+            return key.compareTo(other.key);
+        }
+    }
+}
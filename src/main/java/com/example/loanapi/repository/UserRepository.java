@@ -3,6 +3,7 @@ package com.example.loanapi.repository;
 import com.example.loanapi.model.User;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repository interface for user persistence
@@ -24,4 +25,34 @@ public interface UserRepository {
      * @return Optional containing the user if found
      */
     Optional<User> findById(Long id);
+
+    /**
+     * Add a user
+     *
+     * @param user the user, with a token no other user has
+     * @throws IllegalArgumentException if the ID or the token is already in use
+     */
+    void add(User user);
+
+    /**
+     * Revoke a token: the user it belongs to is removed and can no longer authenticate
+     *
+     * @param token the user token
+     * @return true if the token belonged to a user
+     */
+    boolean revoke(String token);
+
+    /**
+     * Register a callback run after each revoke, with the user that was removed
+     * Lets holders of credentials derived from the token (e.g. signed tokens) drop them
+     * without looking the user up on every request.
+     *
+     * @param listener the callback; must not block
+     */
+    void addRevokeListener(Consumer<User> listener);
+
+    /**
+     * @return number of users
+     */
+    int count();
 }
@@ -2,37 +2,64 @@ package com.example.loanapi.repository;
 
 import com.example.loanapi.model.User;
 import com.example.loanapi.model.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.io.BufferedReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * In-memory implementation of UserRepository
- * Contains 2 predefined users for testing
+ * Users are indexed by token and by ID in hash maps, so a lookup costs the same with
+ * two users or a million. Besides the 2 predefined users for testing, users can be
+ * bulk loaded at startup from loan.users.file, a UTF-8 file with one user per line:
+ * id,name,email,role,token (blank lines and lines starting with # are skipped).
+ * Lookups never lock; add and revoke are serialized so both indexes stay in step.
  */
 @Repository
 public class UserRepositoryImpl implements UserRepository {
 
-    private final List<User> users;
+    private static final Logger log = LoggerFactory.getLogger(UserRepositoryImpl.class);
+
+    private final ConcurrentHashMap<String, User> byToken;
+    private final ConcurrentHashMap<Long, User> byId;
+    private final CopyOnWriteArrayList<Consumer<User>> revokeListeners = new CopyOnWriteArrayList<>();
 
     public UserRepositoryImpl() {
+        this(null);
+    }
+
+    @Autowired
+    public UserRepositoryImpl(@Value("${loan.users.file:}") String usersFile) {
+        Path file = usersFile == null || usersFile.isEmpty() ? null : Paths.get(usersFile);
+        int expected = file == null ? 16 : estimateUsers(file);
+        this.byToken = new ConcurrentHashMap<>(expected);
+        this.byId = new ConcurrentHashMap<>(expected);
+
         // Generate random tokens
         String clienteToken = generateRandomToken();
         String gestoreToken = generateRandomToken();
         
         // Create predefined users
-        this.users = Arrays.asList(
-            new User(1L, "Mario Rossi", "mario.rossi@example.com", UserRole.CLIENTE, clienteToken),
-            new User(2L, "Luigi Bianchi", "luigi.bianchi@example.com", UserRole.GESTORE, gestoreToken)
-        );
+        add(new User(1L, "Mario Rossi", "mario.rossi@example.com", UserRole.CLIENTE, clienteToken));
+        add(new User(2L, "Luigi Bianchi", "luigi.bianchi@example.com", UserRole.GESTORE, gestoreToken));
         
         // Log tokens for testing purposes
         System.out.println("=== Predefined Users ===");
@@ -42,20 +69,145 @@ public class UserRepositoryImpl implements UserRepository {
         
         // Save tokens to file
         saveTokensToFile(clienteToken, gestoreToken);
+
+        if (file != null) {
+            long start = System.nanoTime();
+            int loaded = load(file);
+            log.info("Loaded {} users from {} in {} ms", loaded, file, (System.nanoTime() - start) / 1_000_000);
+        }
     }
 
     @Override
     public Optional<User> findByToken(String token) {
-        return users.stream()
-                .filter(user -> user.getToken().equals(token))
-                .findFirst();
+        if (token == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byToken.get(token));
     }
 
     @Override
     public Optional<User> findById(Long id) {
-        return users.stream()
-                .filter(user -> user.getId().equals(id))
-                .findFirst();
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public synchronized void add(User user) {
+        if (user.getId() == null || user.getToken() == null || user.getToken().isEmpty()) {
+            throw new IllegalArgumentException("A user needs an ID and a token");
+        }
+        if (byId.containsKey(user.getId())) {
+            throw new IllegalArgumentException("User ID already in use: " + user.getId());
+        }
+        if (byToken.containsKey(user.getToken())) {
+            throw new IllegalArgumentException("Token already in use (user " + user.getId() + ")");
+        }
+        // By ID first: whoever finds the user by token can also find it by ID
+        byId.put(user.getId(), user);
+        byToken.put(user.getToken(), user);
+    }
+
+    @Override
+    public synchronized boolean revoke(String token) {
+        if (token == null) {
+            return false;
+        }
+        // By token first: the token stops authenticating before the user disappears
+        User user = byToken.remove(token);
+        if (user == null) {
+            return false;
+        }
+        byId.remove(user.getId(), user);
+        // Still serialized with add: a listener sees the revoke before the ID can be reused
+        for (Consumer<User> listener : revokeListeners) {
+            listener.accept(user);
+        }
+        return true;
+    }
+
+    @Override
+    public void addRevokeListener(Consumer<User> listener) {
+        revokeListeners.add(listener);
+    }
+
+    @Override
+    public int count() {
+        return byId.size();
+    }
+
+    /**
+     * Add the users listed in a file
+     *
+     * @param file one user per line: id,name,email,role,token
+     * @return number of users added
+     * @throws IllegalStateException if a line is malformed or repeats an ID or token
+     */
+    private int load(Path file) {
+        int loaded = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                try {
+                    add(parse(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException("Invalid user at " + file + ":" + lineNumber + ": "
+                            + e.getMessage(), e);
+                }
+                loaded++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read users from " + file, e);
+        }
+        return loaded;
+    }
+
+    /**
+     * Parse id,name,email,role,token
+     */
+    private static User parse(String line) {
+        String[] fields = new String[5];
+        int start = 0;
+        for (int i = 0; i < 4; i++) {
+            int comma = line.indexOf(',', start);
+            if (comma < 0) {
+                throw new IllegalArgumentException("expected id,name,email,role,token");
+            }
+            fields[i] = line.substring(start, comma).trim();
+            start = comma + 1;
+        }
+        fields[4] = line.substring(start).trim();
+        long id;
+        try {
+            id = Long.parseLong(fields[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid ID: " + fields[0]);
+        }
+        UserRole role;
+        try {
+            role = UserRole.valueOf(fields[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid role: " + fields[3]);
+        }
+        return new User(id, fields[1], fields[2], role, fields[4]);
+    }
+
+    /**
+     * Size the indexes from the file size, so loading does not keep rehashing them
+     */
+    private static int estimateUsers(Path file) {
+        try {
+            // A line is rarely shorter than 64 bytes (a 32-character token plus the other fields)
+            return (int) Math.min(Integer.MAX_VALUE / 2, Math.max(16, Files.size(file) / 64));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read users from " + file, e);
+        }
     }
 
     /**
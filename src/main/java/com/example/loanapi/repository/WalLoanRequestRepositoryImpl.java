@@ -0,0 +1,282 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durable implementation of LoanRequestRepository
+ * Keeps the in-memory indexes of LoanRequestRepositoryImpl and appends every
+ * save/delete to a write-ahead log before acknowledging it. The log is periodically
+ * compacted into a memory-mapped snapshot (see LoanRequestSnapshot); on startup the
+ * latest snapshot is loaded and only the log written after it is replayed.
+ * Active when loan.repository.type is "wal"
+ */
+@Repository
+@ConditionalOnProperty(name = "loan.repository.type", havingValue = "wal")
+public class WalLoanRequestRepositoryImpl extends LoanRequestRepositoryImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(WalLoanRequestRepositoryImpl.class);
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final long compactionMinBytes;
+
+    // Writers hold the read side while their change is applied and logged; a snapshot
+    // takes the write side just long enough to cut the log, so every LSN up to the cut
+    // is already visible in memory when the snapshot starts copying it
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final WriteAheadLog wal;
+    private final ScheduledExecutorService compactor;
+
+    public WalLoanRequestRepositoryImpl(String directory, long groupCommitIntervalMs, int groupCommitMaxRecords,
+                                        long compactionIntervalMs, long compactionMinBytes) throws IOException {
+        this(directory, groupCommitIntervalMs, groupCommitMaxRecords, compactionIntervalMs, compactionMinBytes,
+                LoanRequestChangeLog.DEFAULT_CAPACITY);
+    }
+
+    @Autowired
+    public WalLoanRequestRepositoryImpl(
+            @Value("${loan.repository.wal.directory:data/wal}") String directory,
+            @Value("${loan.repository.wal.group-commit-interval-ms:0}") long groupCommitIntervalMs,
+            @Value("${loan.repository.wal.group-commit-max-records:256}") int groupCommitMaxRecords,
+            @Value("${loan.repository.wal.compaction-interval-ms:60000}") long compactionIntervalMs,
+            @Value("${loan.repository.wal.compaction-min-bytes:67108864}") long compactionMinBytes,
+            @Value("${loan.changes.capacity:10000}") int changeLogCapacity) throws IOException {
+        super(changeLogCapacity);
+        this.directory = Paths.get(directory);
+        this.compactionMinBytes = compactionMinBytes;
+
+        long started = System.nanoTime();
+        Files.createDirectories(this.directory);
+        long snapshotLsn = loadLatestSnapshot();
+        // wal is still null while replaying, so beforeSave/beforeDelete do not log the replayed changes
+        this.wal = WriteAheadLog.open(this.directory, groupCommitIntervalMs, groupCommitMaxRecords,
+                snapshotLsn, this::apply);
+        log.info("Loan repository recovered from {} in {} ms (last LSN {})", this.directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), wal.lastLsn());
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (compactionIntervalMs > 0) {
+            compactor.scheduleWithFixedDelay(this::compactIfNeeded,
+                    compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public LoanRequest save(LoanRequest loanRequest) {
+        long lsn;
+        checkpointLock.readLock().lock();
+        try {
+            super.save(loanRequest);
+            lsn = wal.lastLsn();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        // Wait outside the lock so a group commit can gather many writers
+        wal.awaitDurable(lsn);
+        return loanRequest;
+    }
+
+    @Override
+    public List<LoanRequest> saveAll(List<LoanRequest> loanRequests) {
+        long lsn;
+        checkpointLock.readLock().lock();
+        try {
+            super.saveAll(loanRequests);
+            lsn = wal.lastLsn();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        // A single wait covers every record of the batch
+        wal.awaitDurable(lsn);
+        return loanRequests;
+    }
+
+    @Override
+    public Optional<LoanRequest> update(Long id, Long expectedVersion, UnaryOperator<LoanRequest> change) {
+        Optional<LoanRequest> updated;
+        long lsn;
+        checkpointLock.readLock().lock();
+        try {
+            updated = super.update(id, expectedVersion, change);
+            lsn = wal.lastLsn();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        wal.awaitDurable(lsn);
+        return updated;
+    }
+
+    @Override
+    public void updateAll(List<LoanRequestUpdate> updates) {
+        long lsn;
+        checkpointLock.readLock().lock();
+        try {
+            super.updateAll(updates);
+            lsn = wal.lastLsn();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        wal.awaitDurable(lsn);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        long lsn;
+        checkpointLock.readLock().lock();
+        try {
+            super.deleteById(id);
+            lsn = wal.lastLsn();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        wal.awaitDurable(lsn);
+    }
+
+    @Override
+    protected void beforeSave(LoanRequest loanRequest) {
+        if (wal != null) {
+            wal.append(WriteAheadLog.PUT, LoanRequestCodec.encode(loanRequest));
+        }
+    }
+
+    @Override
+    protected void beforeDelete(Long id) {
+        if (wal != null) {
+            wal.append(WriteAheadLog.DELETE, encodeId(id));
+        }
+    }
+
+    /**
+     * Compact the log if enough has been written since the last snapshot
+     */
+    void compactIfNeeded() {
+        if (wal.bytesSinceRotation() < compactionMinBytes) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Write-ahead log compaction failed, will retry", e);
+        }
+    }
+
+    /**
+     * Write a snapshot of the current state and drop the log segments it covers
+     * Writers are only blocked while the log is cut; the state is copied concurrently
+     * and any change made meanwhile is in the new segment, which is replayed on top.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    void compact() throws IOException {
+        long cutLsn;
+        checkpointLock.writeLock().lock();
+        try {
+            cutLsn = wal.rotate();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        Path snapshot = directory.resolve(snapshotName(cutLsn));
+        Path temp = directory.resolve(snapshotName(cutLsn) + ".tmp");
+        List<LoanRequest> loans = findAll();
+        LoanRequestSnapshot.write(temp, cutLsn, loans, LoanRequestSnapshot.DEFAULT_CHUNK_ROWS);
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.syncDirectory(directory);
+
+        // The new snapshot is durable: older snapshots and covered segments can go
+        for (Path older : listSnapshots()) {
+            if (!older.equals(snapshot)) {
+                Files.deleteIfExists(older);
+            }
+        }
+        wal.deleteSegmentsUpTo(cutLsn);
+        log.info("Write-ahead log compacted at LSN {} ({} loan requests)", cutLsn, loans.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        wal.close();
+    }
+
+    /**
+     * Load the newest complete snapshot into memory
+     *
+     * @return the LSN the snapshot covers, or 0 if there is none
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        return LoanRequestSnapshot.read(snapshots.get(snapshots.size() - 1), this::restore);
+    }
+
+    /**
+     * Apply a recovered record to the in-memory state
+     */
+    private void apply(long lsn, byte type, DataInput payload) throws IOException {
+        if (type == WriteAheadLog.PUT) {
+            restore(LoanRequestCodec.read(payload));
+        } else if (type == WriteAheadLog.DELETE) {
+            restoreDelete(payload.readLong());
+        } else {
+            throw new IOException("Unknown record type " + type + " at LSN " + lsn);
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted() // zero-padded names sort by LSN
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String snapshotName(long lsn) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX);
+    }
+
+    private static byte[] encodeId(Long id) {
+        byte[] bytes = new byte[Long.BYTES];
+        long value = id;
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+}
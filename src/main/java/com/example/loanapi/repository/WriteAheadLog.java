@@ -0,0 +1,488 @@
+package com.example.loanapi.repository;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of repository mutations with group commit
+ *
+ * Records are appended to an in-memory batch and assigned a log sequence number (LSN).
+ * A background flusher writes and fsyncs the batch once the group commit interval has
+ * elapsed or the batch holds enough records; callers block in awaitDurable() until their
+ * LSN is on disk, so one fsync acknowledges every writer of the batch.
+ *
+ * The log is split into segment files named after their first LSN. rotate() seals the
+ * current segment so that older segments can be dropped once their content is covered
+ * by a snapshot.
+ *
+ * Record layout: [int payloadLength][int crc32c][long lsn][byte type][payload]
+ * The checksum covers lsn, type and payload; a torn or corrupt tail is truncated on open.
+ */
+final class WriteAheadLog implements Closeable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final int SEGMENT_MAGIC = 0x4C57414C; // "LWAL"
+    private static final int FORMAT_VERSION = 2; // 2: loan request records carry the version
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 4 + 4 + 8 + 1;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Callback receiving records in LSN order during replay
+     */
+    interface RecordVisitor {
+        void visit(long lsn, byte type, DataInput payload) throws IOException;
+    }
+
+    private final Path directory;
+    private final long groupCommitIntervalNanos;
+    private final int groupCommitMaxRecords;
+
+    // Guards the append-side state below; waiters for durability block on it
+    private final Object lock = new Object();
+    private Batch active = new Batch();
+    private Batch standby = new Batch();
+    private long lastLsn;
+    private long durableLsn;
+    private int pendingRecords;
+    private IOException failure;
+    private boolean closed;
+    private boolean terminated;
+
+    // Guards the segment file; always acquired before lock
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private FileChannel segment;
+    private volatile long bytesSinceRotation;
+
+    private final Thread flusher;
+
+    private WriteAheadLog(Path directory, long groupCommitIntervalMs, int groupCommitMaxRecords, long lastLsn)
+            throws IOException {
+        this.directory = directory;
+        this.groupCommitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, groupCommitIntervalMs));
+        this.groupCommitMaxRecords = Math.max(1, groupCommitMaxRecords);
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.segment = createSegment(lastLsn + 1);
+        this.flusher = new Thread(this::runFlusher, "wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Open the log in a directory, replaying every existing record after a given LSN
+     * Appends always go to a fresh segment, so existing segments are never written again.
+     *
+     * @param directory the log directory (created if missing)
+     * @param groupCommitIntervalMs how long a batch may wait for more records before being fsynced
+     * @param groupCommitMaxRecords batch size that triggers an fsync before the interval elapses
+     * @param afterLsn records with an LSN up to this value are skipped (already covered by a snapshot)
+     * @param visitor receives the replayed records
+     * @return the opened log, ready for appends
+     * @throws IOException if the directory cannot be read or a segment cannot be created
+     */
+    static WriteAheadLog open(Path directory, long groupCommitIntervalMs, int groupCommitMaxRecords,
+                              long afterLsn, RecordVisitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        long lastLsn = afterLsn;
+        for (Path segmentPath : listSegments(directory)) {
+            lastLsn = Math.max(lastLsn, replaySegment(segmentPath, afterLsn, visitor));
+        }
+        return new WriteAheadLog(directory, groupCommitIntervalMs, groupCommitMaxRecords, lastLsn);
+    }
+
+    /**
+     * Append a record to the current batch
+     * The record is not durable until awaitDurable() returns for its LSN.
+     *
+     * @param type the record type
+     * @param payload the record payload
+     * @return the LSN assigned to the record
+     */
+    long append(byte type, byte[] payload) {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            long lsn = ++lastLsn;
+            active.writeRecord(lsn, type, payload);
+            pendingRecords++;
+            if (pendingRecords == 1 || pendingRecords >= groupCommitMaxRecords) {
+                lock.notifyAll();
+            }
+            return lsn;
+        }
+    }
+
+    /**
+     * Block until every record up to the given LSN has been fsynced
+     *
+     * @param lsn the LSN to wait for
+     */
+    void awaitDurable(long lsn) {
+        synchronized (lock) {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log is unavailable", failure);
+                }
+                if (terminated) {
+                    throw new IllegalStateException("Write-ahead log is closed");
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for write-ahead log", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the LSN of the most recently appended record
+     */
+    long lastLsn() {
+        synchronized (lock) {
+            return lastLsn;
+        }
+    }
+
+    /**
+     * @return bytes written to disk since the last rotation, used to decide when to compact
+     */
+    long bytesSinceRotation() {
+        return bytesSinceRotation;
+    }
+
+    /**
+     * Flush pending records, seal the current segment and start a new one
+     * Every record with an LSN up to the returned value lives in a sealed segment.
+     *
+     * @return the LSN of the last record in the sealed segments
+     * @throws IOException if the flush or the new segment fails
+     */
+    long rotate() throws IOException {
+        ioLock.lock();
+        try {
+            long cutLsn = flushLocked();
+            segment.close();
+            segment = createSegment(cutLsn + 1);
+            bytesSinceRotation = 0;
+            return cutLsn;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Delete sealed segments whose records are all covered by a snapshot
+     *
+     * @param lsn the snapshot LSN returned by rotate()
+     * @throws IOException if a segment cannot be deleted
+     */
+    void deleteSegmentsUpTo(long lsn) throws IOException {
+        List<Path> segments = listSegments(directory);
+        // A segment's records end right before the next segment's first LSN
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstLsnOf(segments.get(i + 1)) - 1 <= lsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioLock.lock();
+        try {
+            flushLocked();
+            segment.close();
+        } finally {
+            ioLock.unlock();
+            synchronized (lock) {
+                terminated = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    while (!closed && pendingRecords == 0) {
+                        lock.wait();
+                    }
+                    if (closed) {
+                        return; // close() flushes whatever is left
+                    }
+                    // Group commit window: give concurrent writers a chance to join this fsync
+                    long deadline = System.nanoTime() + groupCommitIntervalNanos;
+                    while (!closed && pendingRecords < groupCommitMaxRecords) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            ioLock.lock();
+            try {
+                flushLocked();
+            } catch (IOException e) {
+                // Failure is recorded and reported to every writer
+                return;
+            } finally {
+                ioLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write and fsync the current batch; caller must hold ioLock
+     *
+     * @return the LSN of the last record now durable
+     */
+    private long flushLocked() throws IOException {
+        Batch batch;
+        long batchLsn;
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+            batch = active;
+            active = standby;
+            standby = batch;
+            batchLsn = lastLsn;
+            pendingRecords = 0;
+        }
+        try {
+            if (batch.size() > 0) {
+                ByteBuffer buffer = batch.asByteBuffer();
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+                segment.force(false);
+                bytesSinceRotation += batch.size();
+                batch.reset();
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            durableLsn = Math.max(durableLsn, batchLsn);
+            lock.notifyAll();
+        }
+        return batchLsn;
+    }
+
+    private FileChannel createSegment(long firstLsn) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        syncDirectory(directory);
+        return channel;
+    }
+
+    /**
+     * Replay one segment and truncate it after its last valid record
+     *
+     * @return the highest LSN found in the segment
+     */
+    private static long replaySegment(Path path, long afterLsn, RecordVisitor visitor) throws IOException {
+        long lastLsn = 0;
+        long validBytes = SEGMENT_HEADER_BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != SEGMENT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a write-ahead log segment: " + path);
+            }
+            RecordReader reader = new RecordReader(in);
+            while (reader.next()) {
+                if (reader.lsn > afterLsn) {
+                    visitor.visit(reader.lsn, reader.type, reader.payload());
+                }
+                lastLsn = reader.lsn;
+                validBytes += RECORD_HEADER_BYTES + reader.payloadBytes.length;
+            }
+        } catch (EOFException e) {
+            // Header itself was torn: nothing in this segment was ever acknowledged
+            Files.delete(path);
+            return lastLsn;
+        }
+        if (Files.size(path) > validBytes) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+        }
+        return lastLsn;
+    }
+
+    /**
+     * Write one record in log format
+     *
+     * @param out the destination
+     * @param lsn the record LSN
+     * @param type the record type
+     * @param payload the record payload
+     * @throws IOException if the destination fails
+     */
+    static void writeRecord(DataOutputStream out, long lsn, byte type, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(checksum(lsn, type, payload));
+        out.writeLong(lsn);
+        out.writeByte(type);
+        out.write(payload);
+    }
+
+    private static int checksum(long lsn, byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer header = ByteBuffer.allocate(9).putLong(lsn).put(type);
+        header.flip();
+        crc.update(header);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted() // zero-padded names sort by first LSN
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long firstLsnOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Make file creations and renames in a directory durable (best effort on platforms that refuse it)
+     *
+     * @param directory the directory to sync
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; file data itself is already fsynced
+        }
+    }
+
+    /**
+     * Sequential reader that stops at the first torn or corrupt record
+     */
+    private static final class RecordReader {
+        private final DataInputStream in;
+        private long lsn;
+        private byte type;
+        private byte[] payloadBytes;
+
+        private RecordReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private boolean next() throws IOException {
+            try {
+                int length = in.readInt();
+                int crc = in.readInt();
+                long recordLsn = in.readLong();
+                byte recordType = in.readByte();
+                if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                    return false;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksum(recordLsn, recordType, payload) != crc) {
+                    return false;
+                }
+                lsn = recordLsn;
+                type = recordType;
+                payloadBytes = payload;
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        private DataInput payload() {
+            return new DataInputStream(new ByteArrayInputStream(payloadBytes));
+        }
+    }
+
+    /**
+     * Growable write buffer that can be handed to a channel without copying
+     */
+    private static final class Batch extends ByteArrayOutputStream {
+        private final DataOutputStream out = new DataOutputStream(this);
+
+        private Batch() {
+            super(1 << 16);
+        }
+
+        private void writeRecord(long lsn, byte type, byte[] payload) {
+            try {
+                WriteAheadLog.writeRecord(out, lsn, type, payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // cannot happen for an in-memory buffer
+            }
+        }
+
+        private ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.loanapi.security;
+
+import com.example.loanapi.model.LoanRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Loan request loaded by the ownership check, kept for the rest of the request
+ * The authorization aspect reads the loan request to check who owns it; the service
+ * then takes it from here instead of reading it from the repository again.
+ */
+public final class LoanRequestContext {
+
+    /** Request attribute holding the loan request loaded for the request */
+    private static final String AUTHORIZED = LoanRequestContext.class.getName() + ".AUTHORIZED";
+
+    private LoanRequestContext() {
+    }
+
+    /**
+     * Keep a loan request the current user was authorized to access
+     * Does nothing outside a request.
+     *
+     * @param loanRequest the loan request as read
+     * @param readAt the change sequence number taken before it was read
+     */
+    public static void setAuthorized(LoanRequest loanRequest, long readAt) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(AUTHORIZED, new Loaded(loanRequest, readAt), RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Get the loan request already loaded in this request
+     *
+     * @param id the loan request ID
+     * @return the loaded loan request, or null if this request has not loaded it
+     */
+    public static Loaded getAuthorized(Long id) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Loaded loaded = (Loaded) attributes.getAttribute(AUTHORIZED, RequestAttributes.SCOPE_REQUEST);
+        return loaded != null && loaded.loanRequest.getId().equals(id) ? loaded : null;
+    }
+
+    /**
+     * A loan request and the change sequence number it was read at
+     */
+    public static final class Loaded {
+        private final LoanRequest loanRequest;
+        private final long readAt;
+
+        private Loaded(LoanRequest loanRequest, long readAt) {
+            this.loanRequest = loanRequest;
+            this.readAt = readAt;
+        }
+
+        public LoanRequest getLoanRequest() {
+            return loanRequest;
+        }
+
+        public long getReadAt() {
+            return readAt;
+        }
+    }
+}
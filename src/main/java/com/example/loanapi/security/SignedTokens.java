@@ -0,0 +1,275 @@
+package com.example.loanapi.security;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and verifies signed bearer tokens (JWT, HS256)
+ * A token carries the user ID (sub), the role, the user's revocation generation (gen), an
+ * expiry (exp) and a token ID (jti), so it is verified with the HMAC key alone, without
+ * looking the user up. Revoking a user (UserRepository.revoke) moves the user's generation
+ * on, which rejects every token issued to the user before. Verified claims are kept by token,
+ * so a token seen before is not parsed or signed again; expiry and revocation are still
+ * checked on every use. Revoked token IDs (until the tokens expire) and user generations are
+ * kept in this instance's memory. When claims-cache-size tokens are kept, expired ones are swept out (at most once a
+ * second); if the cache is still full, further tokens are verified but their claims not kept.
+ */
+@Component
+public class SignedTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(SignedTokens.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final int claimsCacheSize;
+    private final ConcurrentHashMap<String, Claims> verified = new ConcurrentHashMap<>();
+    /** Token ID to expiry (epoch seconds) of revoked tokens */
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    /** User ID to revocation generation, for users revoked at least once */
+    private final ConcurrentHashMap<Long, Long> generations = new ConcurrentHashMap<>();
+    /** Current time in epoch seconds */
+    private final LongSupplier clock;
+    /** Earliest time (epoch seconds) the claims cache may be swept for expired tokens again */
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    @Autowired
+    public SignedTokens(ObjectMapper objectMapper, UserRepository userRepository,
+                        @Value("${loan.tokens.secret:}") String secret,
+                        @Value("${loan.tokens.ttl-seconds:3600}") long ttlSeconds,
+                        @Value("${loan.tokens.claims-cache-size:100000}") int claimsCacheSize) {
+        this(objectMapper, userRepository, secret, ttlSeconds, claimsCacheSize,
+                () -> System.currentTimeMillis() / 1000);
+    }
+
+    SignedTokens(ObjectMapper objectMapper, UserRepository userRepository, String secret, long ttlSeconds,
+                 int claimsCacheSize, LongSupplier clock) {
+        if (ttlSeconds <= 0 || claimsCacheSize < 0) {
+            throw new IllegalArgumentException("Signed tokens need ttl-seconds > 0 and claims-cache-size >= 0");
+        }
+        byte[] keyBytes;
+        if (secret == null || secret.isEmpty()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("loan.tokens.secret is not set: signed tokens are valid only until restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalArgumentException("loan.tokens.secret must be at least 32 bytes");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        // Mac instances are not thread safe and costly to create, so each thread keeps one
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac();
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+        this.claimsCacheSize = claimsCacheSize;
+        this.clock = clock;
+        userRepository.addRevokeListener(user -> generations.merge(user.getId(), 1L, Long::sum));
+    }
+
+    /**
+     * Tell a signed token from an opaque one
+     *
+     * @param token the bearer token
+     * @return true if it has the three parts of a signed token
+     */
+    public static boolean isSigned(String token) {
+        int first = token.indexOf('.');
+        return first > 0 && token.indexOf('.', first + 1) > first + 1;
+    }
+
+    /**
+     * Issue a token for a user, valid for ttl-seconds
+     *
+     * @param user the user
+     * @return the signed token
+     */
+    public String issue(User user) {
+        return issue(user.getId(), user.getRole(), now() + ttlSeconds);
+    }
+
+    /**
+     * @return seconds an issued token is valid for
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Verify a signed token
+     *
+     * @param token the bearer token
+     * @return the user it was issued to (ID and role only), or null if the token is malformed,
+     * wrongly signed, expired or revoked, or the user was revoked after it was issued
+     */
+    public User verify(String token) {
+        Claims claims = claims(token);
+        if (claims == null) {
+            return null;
+        }
+        if (claims.expiresAt <= now()) {
+            verified.remove(token);
+            return null;
+        }
+        if (!revoked.isEmpty() && revoked.containsKey(claims.tokenId)) {
+            return null;
+        }
+        if (!generations.isEmpty() && claims.generation < generation(claims.user.getId())) {
+            return null;
+        }
+        return claims.user;
+    }
+
+    /**
+     * Revoke a signed token, e.g. on logout
+     *
+     * @param token the bearer token
+     * @return true if the token was valid and is now revoked
+     */
+    public boolean revoke(String token) {
+        Claims claims = claims(token);
+        if (claims == null) {
+            return false;
+        }
+        long now = now();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (claims.expiresAt <= now) {
+            return false;
+        }
+        boolean added = revoked.putIfAbsent(claims.tokenId, claims.expiresAt) == null;
+        verified.remove(token);
+        return added;
+    }
+
+    String issue(Long userId, UserRole role, long expiresAt) {
+        String payload = "{\"sub\":\"" + userId + "\",\"role\":\"" + role.name()
+                + "\",\"gen\":" + generation(userId) + ",\"exp\":" + expiresAt
+                + ",\"jti\":\"" + UUID.randomUUID().toString().replace("-", "") + "\"}";
+        String signingInput = HEADER + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    }
+
+    /**
+     * Claims of a correctly signed token, from the cache or verified now
+     */
+    private Claims claims(String token) {
+        Claims claims = verified.get(token);
+        if (claims != null) {
+            return claims;
+        }
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first != HEADER.length() || !token.startsWith(HEADER) || second <= first + 1
+                || token.indexOf('.', second + 1) >= 0) {
+            return null;
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, second)))) {
+                return null;
+            }
+            JsonNode payload = objectMapper.readTree(DECODER.decode(token.substring(first + 1, second)));
+            claims = new Claims(new User(Long.valueOf(payload.path("sub").asText()), null, null,
+                    UserRole.valueOf(payload.path("role").asText()), token),
+                    payload.path("gen").asLong(), payload.path("exp").asLong(), payload.path("jti").asText());
+        } catch (IllegalArgumentException | IOException e) {
+            // Not base64 or not the claims this class issues
+            return null;
+        }
+        if (claimsCacheSize > 0) {
+            if (verified.size() >= claimsCacheSize) {
+                sweepExpired();
+            }
+            if (verified.size() < claimsCacheSize) {
+                verified.put(token, claims);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Drop the claims of expired tokens, unless that was done less than a second ago
+     * A cache full of live tokens then costs one scan a second, not one per new token.
+     */
+    private void sweepExpired() {
+        long now = now();
+        long next = nextSweep.get();
+        if (now >= next && nextSweep.compareAndSet(next, now + 1)) {
+            verified.values().removeIf(claims -> claims.expiresAt <= now);
+        }
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * @return how many times the user has been revoked by this instance
+     */
+    private long generation(Long userId) {
+        Long generation = generations.get(userId);
+        return generation != null ? generation : 0;
+    }
+
+    private long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Verified content of a token
+     */
+    private static final class Claims {
+        private final User user;
+        private final long generation;
+        private final long expiresAt;
+        private final String tokenId;
+
+        private Claims(User user, long generation, long expiresAt, String tokenId) {
+            this.user = user;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+            this.tokenId = tokenId;
+        }
+    }
+}
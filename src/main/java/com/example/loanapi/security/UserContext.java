@@ -4,24 +4,42 @@ import com.example.loanapi.model.User;
 import com.example.loanapi.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Utility class to access current user information from HTTP request
+ * The user is looked up once per request and kept as a request attribute, so the
+ * authorization aspect and the service asking again do not re-read the header
+ * or query the UserRepository again. Signed tokens (see SignedTokens) are verified
+ * locally and never looked up.
  */
 @Component
 public class UserContext {
 
+    /** Request attribute holding the user resolved for the request */
+    private static final String CURRENT_USER = UserContext.class.getName() + ".CURRENT_USER";
+
+    private static final LongAdder lookups = new LongAdder();
+
     private static UserRepository userRepository;
+    private static SignedTokens signedTokens;
 
     @Autowired
     public void setUserRepository(UserRepository userRepository) {
         UserContext.userRepository = userRepository;
     }
 
+    @Autowired
+    public void setSignedTokens(SignedTokens signedTokens) {
+        UserContext.signedTokens = signedTokens;
+    }
+
     /**
      * Get the current user from the Authorization Bearer token
      * 
@@ -29,13 +47,45 @@ public class UserContext {
      * @throws com.example.loanapi.exception.UnauthorizedException if token is missing or invalid
      */
     public static User getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(CURRENT_USER, RequestAttributes.SCOPE_REQUEST);
+            if (cached != null) {
+                return (User) cached;
+            }
+        }
+
         String token = extractTokenFromRequest();
         if (token == null || token.isEmpty()) {
             throw new com.example.loanapi.exception.UnauthorizedException("Authorization token is required");
         }
         
-        return userRepository.findByToken(token)
-                .orElseThrow(() -> new com.example.loanapi.exception.UnauthorizedException("Invalid or expired token"));
+        User user;
+        if (signedTokens != null && SignedTokens.isSigned(token)) {
+            user = signedTokens.verify(token);
+            if (user == null) {
+                throw new com.example.loanapi.exception.UnauthorizedException("Invalid or expired token");
+            }
+        } else {
+            lookups.increment();
+            user = userRepository.findByToken(token)
+                    .orElseThrow(() -> new com.example.loanapi.exception.UnauthorizedException("Invalid or expired token"));
+        }
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    /**
+     * Get the number of user lookups by token since startup
+     * At most one per request, however often the current user is asked for, and none
+     * for requests with a signed token.
+     *
+     * @return number of UserRepository lookups made
+     */
+    public static long getLookupCount() {
+        return lookups.sum();
     }
 
     /**
@@ -56,6 +106,15 @@ public class UserContext {
         return getCurrentUser().getRole();
     }
 
+    /**
+     * Get the bearer token of the current request
+     *
+     * @return the token string or null if not found
+     */
+    public static String getCurrentToken() {
+        return extractTokenFromRequest();
+    }
+
     /**
      * Extract Bearer token from Authorization header
      * 
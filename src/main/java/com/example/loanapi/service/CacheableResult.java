@@ -0,0 +1,46 @@
+package com.example.loanapi.service;
+
+import java.util.function.Supplier;
+
+/**
+ * A read result identified by an entity tag, built only if the client does not have it yet
+ * The tag is known before the body is mapped, so a conditional request whose
+ * If-None-Match matches can be answered without mapping or serializing anything.
+ *
+ * @param <T> the body type
+ */
+public final class CacheableResult<T> {
+
+    private final String eTag;
+    private final long maxAgeSeconds;
+    private final Supplier<T> body;
+
+    public CacheableResult(String eTag, long maxAgeSeconds, Supplier<T> body) {
+        this.eTag = eTag;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.body = body;
+    }
+
+    /**
+     * @return the quoted entity tag, e.g. "3"
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return how long clients may reuse the result without revalidating, 0 to revalidate every time
+     */
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    /**
+     * Build the body; call at most once, on the request thread
+     *
+     * @return the body
+     */
+    public T getBody() {
+        return body.get();
+    }
+}
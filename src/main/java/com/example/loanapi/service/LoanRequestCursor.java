@@ -0,0 +1,76 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.exception.InvalidRequestException;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestSortKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination
+ * A cursor carries the (status rank, createdAt, id) of the last loan request of a page
+ */
+public final class LoanRequestCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = ":";
+    private static final String NO_DATE = "-";
+
+    private LoanRequestCursor() {
+    }
+
+    /**
+     * Build the cursor pointing right after the given loan request
+     *
+     * @param loanRequest the last loan request returned to the client
+     * @return the opaque cursor string
+     */
+    public static String after(LoanRequest loanRequest) {
+        return encode(LoanRequestSortKey.of(loanRequest));
+    }
+
+    /**
+     * Encode a sort key as an opaque, URL-safe cursor
+     *
+     * @param sortKey the sort key
+     * @return the opaque cursor string
+     */
+    public static String encode(LoanRequestSortKey sortKey) {
+        LocalDateTime createdAt = sortKey.getCreatedAt();
+        String date = createdAt == null
+                ? NO_DATE
+                : createdAt.toEpochSecond(ZoneOffset.UTC) + "." + createdAt.getNano();
+        String raw = String.join(SEPARATOR, VERSION, sortKey.isPending() ? "0" : "1", date, Long.toString(sortKey.getId()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode an opaque cursor back into a sort key
+     *
+     * @param cursor the cursor string received from the client
+     * @return the sort key
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    public static LoanRequestSortKey decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            boolean pending = "0".equals(parts[1]);
+            LocalDateTime createdAt = null;
+            if (!NO_DATE.equals(parts[2])) {
+                String[] date = parts[2].split("\\.");
+                createdAt = LocalDateTime.ofEpochSecond(Long.parseLong(date[0]), Integer.parseInt(date[1]), ZoneOffset.UTC);
+            }
+            return new LoanRequestSortKey(pending, createdAt, Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            // Covers bad Base64, bad numbers and out-of-range dates alike
+            throw new InvalidRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes loan request changes to Server-Sent Events subscribers
+ * Publishing never blocks the writer: events go into a bounded buffer per subscriber
+ * and are written by a sender thread. A subscriber whose buffer fills up is too slow
+ * to keep up; its buffer is discarded and it is sent a final "dropped" event and
+ * disconnected, so it reloads instead of holding memory. Idle streams get a comment
+ * line every heartbeat interval, which also detects clients that went away.
+ */
+@Component
+public class LoanRequestEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanRequestEventPublisher.class);
+
+    /** Name of the last event sent to a subscriber that is disconnected for falling behind */
+    public static final String DROPPED = "dropped";
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public LoanRequestEventPublisher(@Value("${loan.events.buffer-size:256}") int bufferSize,
+                                     @Value("${loan.events.timeout-ms:1800000}") long timeoutMillis,
+                                     @Value("${loan.events.heartbeat-ms:15000}") long heartbeatMillis) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Event buffer size must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger senderCount = new AtomicInteger();
+        // A sender blocked on one client's socket must not hold up the others,
+        // so senders are not pooled to a fixed size; each exists only while draining
+        this.senders = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "loan-events-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatMillis > 0) {
+            heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Open a stream of loan request events
+     *
+     * @param owner receive only events of this user's loan requests, or null for all
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Long owner) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(owner, emitter);
+        emitter.onCompletion(() -> subscriber.close(false));
+        emitter.onTimeout(() -> subscriber.close(true));
+        emitter.onError(error -> subscriber.close(false));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queue an event for every subscriber allowed to see it
+     *
+     * @param event the event (its userId decides who receives it)
+     */
+    public void publish(LoanRequestEventDTO event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * @return number of open streams
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeat.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close(true);
+        }
+        senders.shutdown();
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // A subscriber with queued events is about to be written to anyway
+            if (subscriber.isIdle()) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * One open stream: its filter, its bounded buffer and the state of its sender
+     * At most one sender runs per subscriber, so events are written in publish order.
+     */
+    private final class Subscriber implements Runnable {
+        private final Long owner;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean dropped;
+        private volatile boolean closed;
+
+        private Subscriber(Long owner, SseEmitter emitter) {
+            this.owner = owner;
+            this.emitter = emitter;
+        }
+
+        private boolean accepts(LoanRequestEventDTO event) {
+            return owner == null || owner.equals(event.getUserId());
+        }
+
+        private boolean isIdle() {
+            return buffer.isEmpty() && !dropped;
+        }
+
+        private void offer(Object item) {
+            if (closed || dropped) {
+                return;
+            }
+            if (!buffer.offer(item)) {
+                dropped = true;
+                buffer.clear();
+                log.warn("Dropping event subscriber (owner {}): more than {} events pending", owner, bufferSize);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object item;
+                while (!closed && !dropped && (item = buffer.poll()) != null) {
+                    send(item);
+                }
+                if (dropped && !closed) {
+                    emitter.send(SseEmitter.event().name(DROPPED)
+                            .data("Too many pending events, reload and subscribe again"));
+                    close(true);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or emitter already completed
+                close(false);
+            } finally {
+                scheduled.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!closed && (dropped || !buffer.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void send(Object item) throws IOException {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            LoanRequestEventDTO event = (LoanRequestEventDTO) item;
+            emitter.send(SseEmitter.event()
+                    .name(event.getType())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        private void close(boolean complete) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            if (complete) {
+                try {
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    // Already completed by the container
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.loanapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A prepared export of loan requests
+ * Who may see what is decided when the export is created, so it can be written
+ * later and on another thread (e.g. by an asynchronous response body).
+ */
+@FunctionalInterface
+public interface LoanRequestExport {
+
+    /**
+     * Write the export, flushing after every chunk of loan requests
+     * The stream is flushed but not closed.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails (e.g. the client went away)
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
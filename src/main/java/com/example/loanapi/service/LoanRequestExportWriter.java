@@ -0,0 +1,124 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.DataFormat;
+import com.example.loanapi.model.LoanRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes exported loan requests one by one in a DataFormat
+ * Rows are buffered until flush(), so the caller decides the chunk size.
+ */
+abstract class LoanRequestExportWriter {
+
+    static LoanRequestExportWriter create(DataFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        switch (format) {
+            case CSV:
+                return new Csv(out);
+            case NDJSON:
+                return new Ndjson(out, objectMapper);
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    abstract void write(LoanRequest loanRequest) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    /**
+     * One JSON object per line, serialized like the other endpoints (without mapping to DTOs)
+     */
+    private static final class Ndjson extends LoanRequestExportWriter {
+        private final JsonGenerator generator;
+
+        private Ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            // Lines are separated explicitly; the container owns the stream
+            this.generator.setRootValueSeparator(null);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(LoanRequest loanRequest) throws IOException {
+            LoanRequestJsonWriter.write(generator, loanRequest);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row
+     */
+    private static final class Csv extends LoanRequestExportWriter {
+        private static final String HEADER =
+                "id,userId,applicantName,amount,currency,identityDocument,status,createdAt,version\r\n";
+
+        private final Writer writer;
+
+        private Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+        }
+
+        @Override
+        void write(LoanRequest loanRequest) throws IOException {
+            field(loanRequest.getId());
+            writer.write(',');
+            field(loanRequest.getUserId());
+            writer.write(',');
+            field(loanRequest.getApplicantName());
+            writer.write(',');
+            field(loanRequest.getAmount() != null ? loanRequest.getAmount().toPlainString() : null);
+            writer.write(',');
+            field(loanRequest.getCurrency());
+            writer.write(',');
+            field(loanRequest.getIdentityDocument());
+            writer.write(',');
+            field(loanRequest.getStatus());
+            writer.write(',');
+            field(loanRequest.getCreatedAt() != null
+                    ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(loanRequest.getCreatedAt()) : null);
+            writer.write(',');
+            field(loanRequest.getVersion());
+            writer.write("\r\n");
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void field(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
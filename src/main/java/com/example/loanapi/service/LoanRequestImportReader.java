@@ -0,0 +1,67 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.DataFormat;
+import com.example.loanapi.dto.ImportLoanRequestDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads import rows one at a time with Jackson's streaming parser
+ * NDJSON is read as a sequence of root-level objects, CSV by header names
+ * (unknown columns such as id and version from an export are ignored).
+ * Only the current row is held in memory.
+ */
+final class LoanRequestImportReader implements Closeable {
+
+    private static final ObjectReader CSV_READER = new CsvMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(ImportLoanRequestDTO.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
+    private final MappingIterator<ImportLoanRequestDTO> rows;
+
+    private LoanRequestImportReader(MappingIterator<ImportLoanRequestDTO> rows) {
+        this.rows = rows;
+    }
+
+    static LoanRequestImportReader open(DataFormat format, InputStream in, ObjectMapper objectMapper)
+            throws IOException {
+        switch (format) {
+            case CSV:
+                return new LoanRequestImportReader(CSV_READER.readValues(in));
+            case NDJSON:
+                return new LoanRequestImportReader(
+                        objectMapper.readerFor(ImportLoanRequestDTO.class).readValues(in));
+            default:
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+    }
+
+    /**
+     * Read the next row
+     * A row whose values cannot be bound throws a JsonMappingException and the reader
+     * moves on to the following row; a syntax error (JsonParseException) leaves the
+     * input unreadable from that point.
+     *
+     * @return the row, or null at the end of the input
+     * @throws IOException if the row cannot be read
+     */
+    ImportLoanRequestDTO next() throws IOException {
+        return rows.hasNextValue() ? rows.nextValue() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+}
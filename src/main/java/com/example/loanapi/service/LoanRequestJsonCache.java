@@ -0,0 +1,154 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestJson;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestChange;
+import com.example.loanapi.repository.LoanRequestChanges;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized JSON of each loan request, kept until the loan request changes
+ * A fragment is reused while the loan request has the same version. Versions alone do
+ * not tell a deleted loan request from one saved again under the same ID, so fragments
+ * are also dropped for every ID in the repository change log, read up to the current
+ * position before fragments are handed out. Only IDs are read from the log, and without a
+ * lock: a caller that finds the log ahead drops the changed IDs itself. A fragment is
+ * stored only if no change after the loan request was read is being dropped, so one built
+ * from a stale read is never kept. Beyond max-entries, new fragments are built but not kept.
+ */
+@Component
+public class LoanRequestJsonCache {
+
+    /** Changed loan requests read from the change log at a time */
+    private static final int MAX_CHANGES_READ = 1000;
+
+    private final LoanRequestRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final ConcurrentHashMap<Long, LoanRequestJson> fragments = new ConcurrentHashMap<>();
+
+    /** Position of the change log up to which some caller has started dropping fragments */
+    private final AtomicLong dropping;
+    /** Position of the change log up to which fragments have been dropped */
+    private final AtomicLong dropped;
+
+    @Autowired
+    public LoanRequestJsonCache(LoanRequestRepository repository, ObjectMapper objectMapper,
+                                @Value("${loan.cache.json.max-entries:100000}") int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("JSON cache max-entries must not be negative: " + maxEntries);
+        }
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        long head = repository.getChangeSequence();
+        this.dropping = new AtomicLong(head);
+        this.dropped = new AtomicLong(head);
+    }
+
+    /**
+     * Get the JSON of a loan request
+     *
+     * @param loanRequest the loan request as read
+     * @param readAt the change sequence number taken before the loan request was read
+     * @return the serialized loan request
+     */
+    public LoanRequestJson toJson(LoanRequest loanRequest, long readAt) {
+        catchUp();
+        return fragment(loanRequest, readAt);
+    }
+
+    /**
+     * Get the JSON of loan requests, e.g. the rows of a page
+     *
+     * @param loanRequests the loan requests as read
+     * @param readAt the change sequence number taken before the loan requests were read
+     * @return the serialized loan requests, in the same order
+     */
+    public List<LoanRequestJson> toJson(List<LoanRequest> loanRequests, long readAt) {
+        catchUp();
+        List<LoanRequestJson> result = new ArrayList<>(loanRequests.size());
+        for (LoanRequest loanRequest : loanRequests) {
+            result.add(fragment(loanRequest, readAt));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of fragments held
+     */
+    public int size() {
+        return fragments.size();
+    }
+
+    private LoanRequestJson fragment(LoanRequest loanRequest, long readAt) {
+        LoanRequestJson cached = fragments.get(loanRequest.getId());
+        if (cached != null && cached.getVersion() == loanRequest.getVersion()) {
+            return cached;
+        }
+        LoanRequestJson built = new LoanRequestJson(loanRequest.getId(), loanRequest.getVersion(),
+                serialize(loanRequest));
+        if (maxEntries > 0 && readAt >= dropping.get() && fragments.size() < maxEntries) {
+            fragments.put(loanRequest.getId(), built);
+            // A catch-up announced meanwhile may have dropped the ID before this put
+            if (readAt < dropping.get()) {
+                fragments.remove(loanRequest.getId(), built);
+            }
+        }
+        return built;
+    }
+
+    private String serialize(LoanRequest loanRequest) {
+        StringWriter json = new StringWriter(256);
+        try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+            LoanRequestJsonWriter.write(generator, loanRequest);
+        } catch (IOException e) {
+            // Not expected when writing to a string
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Drop the fragments of loan requests changed up to the current position
+     * Concurrent callers may drop the same IDs; removing is idempotent and cheaper than waiting.
+     */
+    private void catchUp() {
+        long position = dropped.get();
+        if (repository.getChangeSequence() == position) {
+            return;
+        }
+        while (true) {
+            LoanRequestChanges changes = repository.findChangedIdsSince(position, MAX_CHANGES_READ);
+            long next = changes.getNextSince();
+            // Announced before dropping, so a fragment read earlier and stored meanwhile removes itself
+            dropping.accumulateAndGet(next, Math::max);
+            if (changes.isResync()) {
+                fragments.clear();
+            } else {
+                for (LoanRequestChange change : changes.getChanges()) {
+                    fragments.remove(change.getLoanId());
+                }
+            }
+            dropped.accumulateAndGet(next, Math::max);
+            // Stops at a change still being recorded too; it is read next time
+            if (changes.isResync() || !changes.isHasMore() || changes.getChanges().isEmpty()) {
+                return;
+            }
+            position = next;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.model.LoanRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a LoanRequest as the JSON of its LoanRequestResponseDTO, without building the DTO
+ * Fields are written in the DTO's order with pre-encoded names, and values are formatted
+ * as the application ObjectMapper formats them (nulls included, dates as ISO-8601 text),
+ * so the output is byte for byte the same as serializing the mapped DTO. Create the
+ * generator with ObjectMapper.createGenerator so its output settings apply too.
+ */
+public final class LoanRequestJsonWriter {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString APPLICANT_NAME = new SerializedString("applicantName");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString CURRENCY = new SerializedString("currency");
+    private static final SerializableString IDENTITY_DOCUMENT = new SerializedString("identityDocument");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    private LoanRequestJsonWriter() {
+    }
+
+    /**
+     * Write one loan request as a JSON object
+     *
+     * @param generator where to write
+     * @param loanRequest the loan request
+     * @throws IOException if writing fails
+     */
+    public static void write(JsonGenerator generator, LoanRequest loanRequest) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        writeNumber(generator, loanRequest.getId());
+        generator.writeFieldName(USER_ID);
+        writeNumber(generator, loanRequest.getUserId());
+        generator.writeFieldName(APPLICANT_NAME);
+        generator.writeString(loanRequest.getApplicantName());
+        generator.writeFieldName(AMOUNT);
+        generator.writeNumber(loanRequest.getAmount());
+        generator.writeFieldName(CURRENCY);
+        generator.writeString(loanRequest.getCurrency());
+        generator.writeFieldName(IDENTITY_DOCUMENT);
+        generator.writeString(loanRequest.getIdentityDocument());
+        generator.writeFieldName(STATUS);
+        generator.writeString(loanRequest.getStatus());
+        generator.writeFieldName(CREATED_AT);
+        if (loanRequest.getCreatedAt() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(loanRequest.getCreatedAt()));
+        }
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(loanRequest.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+}
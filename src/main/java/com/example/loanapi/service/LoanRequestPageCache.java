@@ -0,0 +1,250 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestJson;
+import com.example.loanapi.dto.PageCacheStatsDTO;
+import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.LoanRequestChange;
+import com.example.loanapi.repository.LoanRequestChanges;
+import com.example.loanapi.repository.LoanRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of loan request list pages, kept in step with the repository change log
+ * An entry remembers the change sequence number it was read at. While the sequence has not
+ * moved it is returned as is; otherwise the changes since then are read from the log and the
+ * entry is dropped only if one of them can affect it: a changed loan request that is on the
+ * page, now matches the page's filter, or changes the number of matching loan requests.
+ * Changes to other users' or other statuses' loan requests keep the entry. Entries are also
+ * evicted least recently used beyond max-entries and after ttl-ms.
+ */
+@Component
+public class LoanRequestPageCache {
+
+    /** Changes read to revalidate an entry; an entry with more changes behind is reloaded */
+    private static final int MAX_CHANGES_CHECKED = 256;
+
+    private final LoanRequestRepository repository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public LoanRequestPageCache(LoanRequestRepository repository,
+                                @Value("${loan.cache.pages.max-entries:1000}") int maxEntries,
+                                @Value("${loan.cache.pages.ttl-ms:60000}") long ttlMillis) {
+        if (maxEntries < 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Page cache needs max-entries >= 0 and ttl-ms > 0");
+        }
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > LoanRequestPageCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a page from the cache, or read it with the loader and cache it
+     *
+     * @param key the query; its status must be normalized
+     * @param loader reads the page from the repository
+     * @return the page, shared with other callers: do not modify it
+     */
+    public PageResponse<LoanRequestJson> get(Key key, Supplier<PageResponse<LoanRequestJson>> loader) {
+        if (maxEntries == 0) {
+            misses.increment();
+            return loader.get();
+        }
+        long head = repository.getChangeSequence();
+        Entry entry = lookup(key, head);
+        if (entry != null) {
+            hits.increment();
+            return entry.page;
+        }
+        misses.increment();
+
+        long count = repository.count(key.userId, key.status);
+        PageResponse<LoanRequestJson> page = loader.get();
+        // Cached only as a snapshot of one position: a change recorded while reading
+        // may be half reflected in the page. A change takes its sequence number only once
+        // it is visible, so one the loader missed is after head and revalidation sees it.
+        if (repository.getChangeSequence() == head) {
+            Entry loaded = new Entry(page, loanIds(page), head, count, System.nanoTime() + ttlNanos);
+            synchronized (this) {
+                entries.put(key, loaded);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * @return counters since startup and the current number of entries
+     */
+    public PageCacheStatsDTO getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new PageCacheStatsDTO(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                invalidations.sum(), size, maxEntries);
+    }
+
+    private Entry lookup(Key key, long head) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            expirations.increment();
+            remove(key, entry);
+            return null;
+        }
+        if (entry.sequence == head) {
+            return entry;
+        }
+        long checkedUpTo = stillValidUpTo(key, entry);
+        if (checkedUpTo < 0) {
+            invalidations.increment();
+            remove(key, entry);
+            return null;
+        }
+        // Valid at a later position: the changes read so far need not be read again
+        Entry revalidated = new Entry(entry.page, entry.loanIds, checkedUpTo, entry.count, entry.expiresAt);
+        synchronized (this) {
+            entries.replace(key, entry, revalidated);
+        }
+        return revalidated;
+    }
+
+    /**
+     * Check the changes made since an entry was read
+     *
+     * @return the position up to which the entry is known to be current, or -1 if it is stale
+     */
+    private long stillValidUpTo(Key key, Entry entry) {
+        LoanRequestChanges changes = repository.findChangesSince(entry.sequence, key.userId, MAX_CHANGES_CHECKED);
+        if (changes.isResync() || changes.isHasMore()) {
+            return -1;
+        }
+        for (LoanRequestChange change : changes.getChanges()) {
+            if (entry.loanIds.contains(change.getLoanId())) {
+                return -1;
+            }
+            if (!change.isDeleted()
+                    && (key.status == null || key.status.equals(change.getLoanRequest().getStatus()))) {
+                return -1;
+            }
+        }
+        // None of the changed loan requests matches the filter now, so the matching set can only
+        // have shrunk; an unchanged count means none of them matched before either
+        if (repository.count(key.userId, key.status) != entry.count) {
+            return -1;
+        }
+        return changes.getNextSince();
+    }
+
+    private static Set<Long> loanIds(PageResponse<LoanRequestJson> page) {
+        Set<Long> ids = new HashSet<>();
+        for (LoanRequestJson loan : page.getContent()) {
+            ids.add(loan.getId());
+        }
+        return ids;
+    }
+
+    private synchronized void remove(Key key, Entry entry) {
+        entries.remove(key, entry);
+    }
+
+    /**
+     * A cached query: who asks, the status filter and the offset page
+     */
+    public static final class Key {
+        private final UserRole role;
+        private final Long userId;
+        private final String status;
+        private final int page;
+        private final int size;
+        private final boolean includeTotals;
+
+        /**
+         * @param role the caller's role
+         * @param userId the owner filter (CLIENTE), or null for all loan requests
+         * @param status the normalized status filter, or null
+         * @param page the page number
+         * @param size the page size
+         * @param includeTotals whether the page carries totals
+         */
+        public Key(UserRole role, Long userId, String status, int page, int size, boolean includeTotals) {
+            this.role = role;
+            this.userId = userId;
+            this.status = status;
+            this.page = page;
+            this.size = size;
+            this.includeTotals = includeTotals;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return page == other.page && size == other.size && includeTotals == other.includeTotals
+                    && role == other.role && Objects.equals(userId, other.userId)
+                    && Objects.equals(status, other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(role, userId, status, page, size, includeTotals);
+        }
+    }
+
+    private static final class Entry {
+        private final PageResponse<LoanRequestJson> page;
+        private final Set<Long> loanIds;
+        private final long sequence;
+        private final long count;
+        private final long expiresAt;
+
+        private Entry(PageResponse<LoanRequestJson> page, Set<Long> loanIds, long sequence, long count,
+                      long expiresAt) {
+            this.page = page;
+            this.loanIds = loanIds;
+            this.sequence = sequence;
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
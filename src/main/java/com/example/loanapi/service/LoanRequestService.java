@@ -1,35 +1,110 @@
 package com.example.loanapi.service;
 
+import com.example.loanapi.dto.BatchCreateResponseDTO;
+import com.example.loanapi.dto.BatchUpdateResponseDTO;
 import com.example.loanapi.dto.CreateLoanRequestDTO;
+import com.example.loanapi.dto.DataFormat;
+import com.example.loanapi.dto.ImportReportDTO;
+import com.example.loanapi.dto.LoanRequestChangesDTO;
+import com.example.loanapi.dto.LoanRequestCountDTO;
 import com.example.loanapi.dto.LoanRequestFilter;
+import com.example.loanapi.dto.LoanRequestJson;
 import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.PageCacheStatsDTO;
 import com.example.loanapi.dto.PageRequest;
 import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.dto.StatusUpdateItemDTO;
 import com.example.loanapi.dto.UpdateLoanRequestDTO;
 import com.example.loanapi.dto.UpdateLoanRequestStatusDTO;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 /**
  * Service layer for loan request business logic
  */
 public interface LoanRequestService {
 
     /**
-     * Get all loan requests with pagination and filters
+     * Get all loan requests with pagination and filters, tagged for conditional requests
+     * Supports offset paging (page/size) and keyset paging (cursor/size). CLIENTE sees own
+     * requests only. The tag hashes the caller, the query, the totals and the ID and version of
+     * every row, so it changes whenever the page does and differs between queries. Offset pages
+     * come from the page cache; rows are serialized JSON, reused while unchanged.
      * 
      * @param pageRequest pagination parameters
      * @param filter filter parameters
-     * @return paginated response with loan requests
+     * @return the tagged page
+     * @throws com.example.loanapi.exception.InvalidRequestException if the cursor is malformed
+     */
+    CacheableResult<PageResponse<LoanRequestJson>> getCacheableLoanRequests(PageRequest pageRequest,
+                                                                           LoanRequestFilter filter);
+
+    /**
+     * Get the counters of the cache of list pages
+     * Offset pages (no cursor) are cached per role, user, status, page and size, and
+     * dropped as soon as a change to the loan requests can affect them.
+     * 
+     * @return hits, misses, evictions, expirations and invalidations since startup
+     */
+    PageCacheStatsDTO getPageCacheStats();
+
+    /**
+     * Prepare a full export of the loan requests visible to the current user
+     * CLIENTE exports own requests only, GESTORE exports all; the status filter works
+     * as in getCacheableLoanRequests. Rows are read from the repository in listing order, one
+     * chunk at a time, so memory use does not depend on the number of loan requests.
+     * 
+     * @param filter filter parameters
+     * @param format the output format
+     * @return the export, ready to be written
      */
-    PageResponse<LoanRequestResponseDTO> getAllLoanRequests(PageRequest pageRequest, LoanRequestFilter filter);
+    LoanRequestExport exportLoanRequests(LoanRequestFilter filter, DataFormat format);
 
     /**
-     * Get a loan request by ID
+     * Open a Server-Sent Events stream of changes to the loan requests visible to the current user
+     * CLIENTE receives events of own requests only, GESTORE of all. Creations (imported loan
+     * requests included), updates, status changes and deletions made through this service are
+     * pushed as they happen.
+     * 
+     * @return the stream
+     */
+    SseEmitter subscribeToEvents();
+
+    /**
+     * Get the loan requests visible to the current user that changed after a change sequence number
+     * Each changed loan is returned once, in its current state, or as a deletion. When since is
+     * older than the change log still covers, the result only signals a resync: the client
+     * reloads the full list and continues from the returned nextSince. Bulk imports are included.
+     * 
+     * @param since the nextSince of the previous call, or 0 on first use
+     * @param limit maximum number of changes to return
+     * @return the changes and the position to continue from
+     * @throws com.example.loanapi.exception.InvalidRequestException if limit is out of range
+     */
+    LoanRequestChangesDTO getChangesSince(long since, int limit);
+
+    /**
+     * Count loan requests visible to the current user, in total and per status
+     * CLIENTE counts own requests only, GESTORE counts all
+     * 
+     * @return the counts
+     */
+    LoanRequestCountDTO countLoanRequests();
+
+    /**
+     * Get a loan request by ID, tagged with its version for conditional requests
+     * Loan requests in a terminal status (Rechazada, Cancelada) get a max age, since
+     * their status can no longer change; the others are revalidated every time.
      * 
      * @param id the loan request ID
-     * @return the loan request as DTO
+     * @return the tagged loan request, serialized only when the body is requested
      * @throws com.example.loanapi.exception.LoanRequestNotFoundException if not found
      */
-    LoanRequestResponseDTO getLoanRequestById(Long id);
+    CacheableResult<LoanRequestJson> getCacheableLoanRequestById(Long id);
 
     /**
      * Create a new loan request
@@ -39,6 +114,37 @@ public interface LoanRequestService {
      */
     LoanRequestResponseDTO createLoanRequest(CreateLoanRequestDTO createLoanRequestDTO);
 
+    /**
+     * Create several loan requests for the current user in one batch
+     * Items are read from the body one at a time, and reading stops at the first item
+     * beyond the allowed batch size, so an oversized body is never read in full.
+     * Every item is validated with the same rules as createLoanRequest; the valid ones
+     * get one block of IDs and are saved with a single repository call, the invalid
+     * ones are reported and skipped.
+     * 
+     * @param body a JSON array of loan requests, or one loan request object per line
+     * @param ndjson true if the body holds one object per line (an unreadable line counts as invalid)
+     * @return the outcome of every item, in request order
+     * @throws com.example.loanapi.exception.InvalidRequestException if the batch holds more items than
+     * allowed, or the JSON array is malformed
+     * @throws IOException if the body cannot be read
+     */
+    BatchCreateResponseDTO createLoanRequests(InputStream body, boolean ndjson) throws IOException;
+
+    /**
+     * Import loan requests from a CSV or NDJSON body, keeping their owner, status and createdAt
+     * Rows are parsed one at a time and validated with the same rules as createLoanRequest;
+     * valid rows are saved in batches, so memory use does not depend on the body size.
+     * Invalid rows are counted and skipped; a body that stops being readable ends the
+     * import, keeping the rows already saved. A CREATED event is published for each saved row.
+     * 
+     * @param body the request body
+     * @param format the body format
+     * @return counts, the first rejected rows and the throughput of the import
+     * @throws IOException if the body cannot be read
+     */
+    ImportReportDTO importLoanRequests(InputStream body, DataFormat format) throws IOException;
+
     /**
      * Update an existing loan request
      * 
@@ -51,14 +157,31 @@ public interface LoanRequestService {
 
     /**
      * Update loan request status
+     * The transition is checked and applied atomically, so two concurrent updates
+     * cannot both leave Pendiente (e.g. one approving and one rejecting).
      * 
      * @param id the loan request ID
      * @param updateStatusDTO the DTO with new status
+     * @param expectedVersion the version the client last saw, or null to update unconditionally
      * @return the updated loan request as DTO
      * @throws com.example.loanapi.exception.LoanRequestNotFoundException if not found
+     * @throws com.example.loanapi.exception.VersionConflictException if the version does not match
      * @throws IllegalStateException if status transition is invalid
      */
-    LoanRequestResponseDTO updateLoanRequestStatus(Long id, UpdateLoanRequestStatusDTO updateStatusDTO);
+    LoanRequestResponseDTO updateLoanRequestStatus(Long id, UpdateLoanRequestStatusDTO updateStatusDTO,
+                                                   Long expectedVersion);
+
+    /**
+     * Update the status of several loan requests in one batch
+     * Each item is checked like updateLoanRequestStatus (including its optional expected
+     * version); all of them are applied with a single repository operation and a failing
+     * item does not stop the others.
+     * 
+     * @param items the status changes
+     * @return the outcome of every item, in request order
+     * @throws com.example.loanapi.exception.InvalidRequestException if the batch holds more items than allowed
+     */
+    BatchUpdateResponseDTO updateLoanRequestStatuses(List<StatusUpdateItemDTO> items);
 
     /**
      * Delete a loan request
@@ -1,24 +1,66 @@
 package com.example.loanapi.service;
 
+import com.example.loanapi.dto.BatchCreateResponseDTO;
+import com.example.loanapi.dto.BatchItemResultDTO;
+import com.example.loanapi.dto.BatchUpdateResponseDTO;
 import com.example.loanapi.dto.CreateLoanRequestDTO;
+import com.example.loanapi.dto.DataFormat;
+import com.example.loanapi.dto.ImportLoanRequestDTO;
+import com.example.loanapi.dto.ImportReportDTO;
+import com.example.loanapi.dto.LoanRequestChangesDTO;
+import com.example.loanapi.dto.LoanRequestCountDTO;
+import com.example.loanapi.dto.LoanRequestEventDTO;
 import com.example.loanapi.dto.LoanRequestFilter;
+import com.example.loanapi.dto.LoanRequestJson;
 import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.PageCacheStatsDTO;
 import com.example.loanapi.dto.PageRequest;
 import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.dto.StatusUpdateItemDTO;
 import com.example.loanapi.dto.UpdateLoanRequestDTO;
 import com.example.loanapi.dto.UpdateLoanRequestStatusDTO;
+import com.example.loanapi.dto.ValidationErrorResponse;
+import com.example.loanapi.exception.InvalidRequestException;
 import com.example.loanapi.exception.LoanRequestNotFoundException;
+import com.example.loanapi.exception.VersionConflictException;
 import com.example.loanapi.mapper.LoanRequestMapper;
 import com.example.loanapi.model.LoanRequest;
 import com.example.loanapi.model.LoanStatus;
 import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.LoanRequestChanges;
 import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestSortKey;
+import com.example.loanapi.repository.LoanRequestUpdate;
+import com.example.loanapi.security.LoanRequestContext;
 import com.example.loanapi.security.UserContext;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -27,73 +69,223 @@ import java.util.stream.Collectors;
 @Service
 public class LoanRequestServiceImpl implements LoanRequestService {
 
+    private static final Logger log = LoggerFactory.getLogger(LoanRequestServiceImpl.class);
+
+    /** Rejected rows listed in an import report; the rest are only counted */
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 100;
+
+    /** Upper bound of the limit parameter of getChangesSince */
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
+    /** An import logs its progress every this many rows */
+    private static final long IMPORT_PROGRESS_ROWS = 100_000;
+
     private final LoanRequestRepository loanRequestRepository;
+    private final LoanRequestEventPublisher events;
+    private final LoanRequestPageCache pageCache;
+    private final LoanRequestJsonCache jsonCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchItems;
+    private final int exportChunkSize;
+    private final int importBatchSize;
+    private final long terminalMaxAgeSeconds;
 
     @Autowired
-    public LoanRequestServiceImpl(LoanRequestRepository loanRequestRepository) {
+    public LoanRequestServiceImpl(LoanRequestRepository loanRequestRepository, LoanRequestEventPublisher events,
+                                  LoanRequestPageCache pageCache, LoanRequestJsonCache jsonCache,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${loan.batch.max-items:1000}") int maxBatchItems,
+                                  @Value("${loan.export.chunk-size:500}") int exportChunkSize,
+                                  @Value("${loan.import.batch-size:1000}") int importBatchSize,
+                                  @Value("${loan.cache.terminal-max-age-seconds:3600}") long terminalMaxAgeSeconds) {
         this.loanRequestRepository = loanRequestRepository;
+        this.events = events;
+        this.pageCache = pageCache;
+        this.jsonCache = jsonCache;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.maxBatchItems = maxBatchItems;
+        this.exportChunkSize = exportChunkSize;
+        this.importBatchSize = importBatchSize;
+        this.terminalMaxAgeSeconds = terminalMaxAgeSeconds;
     }
 
     @Override
-    public PageResponse<LoanRequestResponseDTO> getAllLoanRequests(PageRequest pageRequest, LoanRequestFilter filter) {
-        List<LoanRequest> allRequests = loanRequestRepository.findAll();
+    public CacheableResult<PageResponse<LoanRequestJson>> getCacheableLoanRequests(PageRequest pageRequest,
+                                                                                  LoanRequestFilter filter) {
+        // Resolve the status filter first so the matching index can be used
+        String normalizedStatus = null;
+        if (filter != null && filter.hasStatusFilter()) {
+            normalizedStatus = filter.getNormalizedStatus();
+        }
         
-        // Filter by userId if CLIENTE
+        // CLIENTE only sees own requests, GESTORE sees all
+        Long ownerFilter = null;
         UserRole currentRole = UserContext.getCurrentUserRole();
         if (currentRole == UserRole.CLIENTE) {
-            Long currentUserId = UserContext.getCurrentUserId();
-            allRequests = allRequests.stream()
-                    .filter(req -> req.getUserId() != null && req.getUserId().equals(currentUserId))
-                    .collect(Collectors.toList());
-        }
-        
-        // Apply status filter if present
-        if (filter != null && filter.hasStatusFilter()) {
-            String normalizedStatus = filter.getNormalizedStatus();
-            if (normalizedStatus != null) {
-                allRequests = allRequests.stream()
-                        .filter(req -> normalizedStatus.equals(req.getStatus()))
-                        .collect(Collectors.toList());
+            ownerFilter = UserContext.getCurrentUserId();
+            if (ownerFilter == null) {
+                return new CacheableResult<>("\"empty\"", 0, () -> new PageResponse<>(Collections.emptyList(), 0, 0,
+                        pageRequest.getPage(), pageRequest.getSize()));
             }
         }
+
+        long readAt = loanRequestRepository.getChangeSequence();
+        Long owner = ownerFilter;
+        String status = normalizedStatus;
+        PageResponse<LoanRequestJson> page;
+        if (pageRequest.hasCursor()) {
+            page = readPage(owner, status, pageRequest, readAt);
+        } else {
+            // Offset pages are what clients poll (e.g. the first pages of Pendiente)
+            LoanRequestPageCache.Key key = new LoanRequestPageCache.Key(currentRole, owner, status,
+                    pageRequest.getPage(), pageRequest.getSize(), pageRequest.isIncludeTotals());
+            page = pageCache.get(key, () -> readPage(owner, status, pageRequest, readAt));
+        }
+        // Tagged by what the page holds, not by the change sequence: a change is visible
+        // before it takes its sequence number, so two pages read at one number may differ
+        long hash = Objects.hash(currentRole, ownerFilter, normalizedStatus, pageRequest.getPage(),
+                pageRequest.getSize(), pageRequest.getCursor(), pageRequest.isIncludeTotals());
+        hash = mix(hash, Objects.hash(page.getTotalElements(), page.getTotalPages(), page.getNextCursor()));
+        for (LoanRequestJson row : page.getContent()) {
+            hash = mix(mix(hash, row.getId()), row.getVersion());
+        }
+        return new CacheableResult<>("\"" + Long.toHexString(hash) + "\"", 0, () -> page);
+    }
+
+    /**
+     * Fold a value into a 64-bit hash (MurmurHash3 finalizer)
+     */
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * @param readAt the change sequence number taken before reading
+     */
+    private PageResponse<LoanRequestJson> readPage(Long ownerFilter, String normalizedStatus,
+                                                   PageRequest pageRequest, long readAt) {
+        // Calculate pagination (optional; the repository keeps live counts, so this is a lookup)
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (pageRequest.isIncludeTotals()) {
+            totalElements = loanRequestRepository.count(ownerFilter, normalizedStatus);
+            totalPages = (int) Math.ceil((double) totalElements / pageRequest.getSize());
+        }
         
-        // Sort: Pendiente first, then by createdAt (chronological)
-        allRequests = allRequests.stream()
-                .sorted(createSortingComparator())
-                .collect(Collectors.toList());
-        
-        // Calculate pagination
-        long totalElements = allRequests.size();
-        int totalPages = (int) Math.ceil((double) totalElements / pageRequest.getSize());
+        // The repository keeps results sorted (Pendiente first, then by createdAt),
+        // so only the requested page is read. One extra row tells whether a next page exists.
+        int size = pageRequest.getSize();
+        List<LoanRequest> rows;
+        if (pageRequest.hasCursor()) {
+            LoanRequestSortKey after = LoanRequestCursor.decode(pageRequest.getCursor());
+            rows = loanRequestRepository.findPageAfter(ownerFilter, normalizedStatus, after, size + 1);
+        } else {
+            long start = (long) pageRequest.getPage() * size;
+            rows = loanRequestRepository.findPage(ownerFilter, normalizedStatus, start, size + 1);
+        }
         
-        // Apply pagination
-        int start = pageRequest.getPage() * pageRequest.getSize();
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = LoanRequestCursor.after(rows.get(size - 1));
+        }
         
-        List<LoanRequestResponseDTO> content = allRequests.stream()
-                .skip(start)
-                .limit(pageRequest.getSize())
-                .map(LoanRequestMapper::toResponseDTO)
-                .collect(Collectors.toList());
+        // Rows unchanged since an earlier response reuse its JSON
+        List<LoanRequestJson> content = jsonCache.toJson(rows, readAt);
         
-        return new PageResponse<>(content, totalElements, totalPages, pageRequest.getPage(), pageRequest.getSize());
+        return new PageResponse<>(content, totalElements, totalPages, pageRequest.getPage(), size, nextCursor);
     }
-    
-    /**
-     * Create comparator for sorting: Pendiente first, then by createdAt (chronological)
-     * 
-     * @return comparator
-     */
-    private Comparator<LoanRequest> createSortingComparator() {
-        return Comparator
-                .comparing((LoanRequest req) -> !"Pendiente".equals(req.getStatus())) // Pendiente first (false < true)
-                .thenComparing(LoanRequest::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Override
+    public PageCacheStatsDTO getPageCacheStats() {
+        return pageCache.getStats();
     }
 
     @Override
-    public LoanRequestResponseDTO getLoanRequestById(Long id) {
-        LoanRequest loanRequest = loanRequestRepository.findById(id)
-                .orElseThrow(() -> new LoanRequestNotFoundException(id));
-        return LoanRequestMapper.toResponseDTO(loanRequest);
+    public LoanRequestExport exportLoanRequests(LoanRequestFilter filter, DataFormat format) {
+        String normalizedStatus = filter != null ? filter.getNormalizedStatus() : null;
+
+        // Resolved here, on the request thread: the export may be written on another one
+        Long ownerFilter = null;
+        if (UserContext.getCurrentUserRole() == UserRole.CLIENTE) {
+            ownerFilter = UserContext.getCurrentUserId();
+            if (ownerFilter == null) {
+                return out -> LoanRequestExportWriter.create(format, out, objectMapper).flush();
+            }
+        }
+        Long owner = ownerFilter;
+        return out -> writeExport(owner, normalizedStatus, format, out);
+    }
+
+    @Override
+    public SseEmitter subscribeToEvents() {
+        Long owner = null;
+        if (UserContext.getCurrentUserRole() == UserRole.CLIENTE) {
+            owner = UserContext.getCurrentUserId();
+            if (owner == null) {
+                // Nothing this caller may see: end the stream right away
+                SseEmitter empty = new SseEmitter();
+                empty.complete();
+                return empty;
+            }
+        }
+        return events.subscribe(owner);
+    }
+
+    @Override
+    public LoanRequestChangesDTO getChangesSince(long since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        Long ownerFilter = null;
+        if (UserContext.getCurrentUserRole() == UserRole.CLIENTE) {
+            ownerFilter = UserContext.getCurrentUserId();
+            if (ownerFilter == null) {
+                return new LoanRequestChangesDTO(Collections.emptyList(), since, false, false);
+            }
+        }
+        LoanRequestChanges changes = loanRequestRepository.findChangesSince(since, ownerFilter, limit);
+        return LoanRequestMapper.toChangesDTO(changes);
+    }
+
+    @Override
+    public LoanRequestCountDTO countLoanRequests() {
+        // Same visibility rule as the listing
+        Long ownerFilter = null;
+        if (UserContext.getCurrentUserRole() == UserRole.CLIENTE) {
+            ownerFilter = UserContext.getCurrentUserId();
+            if (ownerFilter == null) {
+                return new LoanRequestCountDTO(0, Collections.emptyMap());
+            }
+        }
+        return new LoanRequestCountDTO(loanRequestRepository.count(ownerFilter, null),
+                loanRequestRepository.countByStatus(ownerFilter));
+    }
+
+    @Override
+    public CacheableResult<LoanRequestJson> getCacheableLoanRequestById(Long id) {
+        // Already read by the ownership check in the same request, if it ran
+        LoanRequestContext.Loaded loaded = LoanRequestContext.getAuthorized(id);
+        long readAt;
+        LoanRequest loanRequest;
+        if (loaded != null) {
+            readAt = loaded.getReadAt();
+            loanRequest = loaded.getLoanRequest();
+        } else {
+            readAt = loanRequestRepository.getChangeSequence();
+            loanRequest = loanRequestRepository.findById(id)
+                    .orElseThrow(() -> new LoanRequestNotFoundException(id));
+        }
+        // The same tag as returned by status updates and expected in If-Match
+        String eTag = "\"" + loanRequest.getVersion() + "\"";
+        long maxAge = LoanStatus.fromString(loanRequest.getStatus()).isTerminal() ? terminalMaxAgeSeconds : 0;
+        return new CacheableResult<>(eTag, maxAge, () -> jsonCache.toJson(loanRequest, readAt));
     }
 
     @Override
@@ -101,41 +293,325 @@ public class LoanRequestServiceImpl implements LoanRequestService {
         Long currentUserId = UserContext.getCurrentUserId();
         LoanRequest loanRequest = LoanRequestMapper.toModel(createLoanRequestDTO, currentUserId);
         LoanRequest saved = loanRequestRepository.save(loanRequest);
-        return LoanRequestMapper.toResponseDTO(saved);
+        LoanRequestResponseDTO created = LoanRequestMapper.toResponseDTO(saved);
+        events.publish(LoanRequestEventDTO.of(LoanRequestEventDTO.CREATED, created));
+        return created;
+    }
+
+    @Override
+    public BatchCreateResponseDTO createLoanRequests(InputStream body, boolean ndjson) throws IOException {
+        return createLoanRequests(ndjson ? readBatchLines(body) : readBatchArray(body));
+    }
+
+    private BatchCreateResponseDTO createLoanRequests(List<CreateLoanRequestDTO> items) {
+        Long currentUserId = UserContext.getCurrentUserId();
+        BatchItemResultDTO[] results = new BatchItemResultDTO[items.size()];
+        List<LoanRequest> valid = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            List<ValidationErrorResponse.FieldError> errors = validate(items.get(i));
+            if (errors.isEmpty()) {
+                valid.add(LoanRequestMapper.toModel(items.get(i), currentUserId));
+            } else {
+                results[i] = BatchItemResultDTO.invalid(i, errors);
+            }
+        }
+
+        loanRequestRepository.saveAll(valid);
+
+        // Valid items fill the remaining slots in request order
+        int next = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                LoanRequestResponseDTO created = LoanRequestMapper.toResponseDTO(valid.get(next++));
+                events.publish(LoanRequestEventDTO.of(LoanRequestEventDTO.CREATED, created));
+                results[i] = BatchItemResultDTO.created(i, created);
+            }
+        }
+        return new BatchCreateResponseDTO(valid.size(), results.length - valid.size(), Arrays.asList(results));
+    }
+
+    @Override
+    public ImportReportDTO importLoanRequests(InputStream body, DataFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportReportDTO report = new ImportReportDTO();
+        List<BatchItemResultDTO> errors = new ArrayList<>();
+        List<LoanRequest> batch = new ArrayList<>(importBatchSize);
+        long rows = 0;
+        long imported = 0;
+        long invalid = 0;
+
+        try (LoanRequestImportReader reader = LoanRequestImportReader.open(format, body, objectMapper)) {
+            while (true) {
+                ImportLoanRequestDTO row;
+                try {
+                    row = reader.next();
+                } catch (JsonParseException e) {
+                    // Syntax error: nothing after it can be trusted
+                    report.setAborted(true);
+                    addImportError(errors, rows + 1, "Unreadable input, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    rows++;
+                    invalid++;
+                    addImportError(errors, rows, "Malformed row: " + e.getOriginalMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                rows++;
+
+                List<ValidationErrorResponse.FieldError> violations = validate(row);
+                if (!violations.isEmpty()) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+                        errors.add(BatchItemResultDTO.invalid((int) rows, violations));
+                    }
+                    continue;
+                }
+                batch.add(LoanRequestMapper.toModel(row));
+                if (batch.size() == importBatchSize) {
+                    imported += saveImportBatch(batch);
+                }
+                if (rows % IMPORT_PROGRESS_ROWS == 0) {
+                    log.info("Import progress: {} rows read, {} imported, {} invalid, {} rows/s",
+                            rows, imported, invalid, Math.round(rowsPerSecond(rows, start)));
+                }
+            }
+            imported += saveImportBatch(batch);
+        }
+
+        report.setRowsRead(rows);
+        report.setImported(imported);
+        report.setInvalid(invalid);
+        report.setErrors(errors);
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        report.setRowsPerSecond(rowsPerSecond(rows, start));
+        log.info("Import finished: {} rows read, {} imported, {} invalid in {} ms{}", rows, imported, invalid,
+                report.getElapsedMillis(), report.isAborted() ? " (stopped on unreadable input)" : "");
+        return report;
     }
 
     @Override
     public LoanRequestResponseDTO updateLoanRequest(Long id, UpdateLoanRequestDTO updateLoanRequestDTO) {
-        LoanRequest existing = loanRequestRepository.findById(id)
+        LoanRequest updated = loanRequestRepository.update(id, null,
+                        existing -> LoanRequestMapper.toModel(updateLoanRequestDTO, existing))
                 .orElseThrow(() -> new LoanRequestNotFoundException(id));
-        
-        LoanRequestMapper.toModel(updateLoanRequestDTO, existing);
-        LoanRequest updated = loanRequestRepository.save(existing);
-        return LoanRequestMapper.toResponseDTO(updated);
+        return published(LoanRequestEventDTO.UPDATED, updated);
     }
 
     @Override
-    public LoanRequestResponseDTO updateLoanRequestStatus(Long id, UpdateLoanRequestStatusDTO updateStatusDTO) {
-        LoanRequest existing = loanRequestRepository.findById(id)
+    public LoanRequestResponseDTO updateLoanRequestStatus(Long id, UpdateLoanRequestStatusDTO updateStatusDTO,
+                                                          Long expectedVersion) {
+        LoanRequest updated = loanRequestRepository
+                .update(id, expectedVersion, statusChange(updateStatusDTO.getStatus()))
                 .orElseThrow(() -> new LoanRequestNotFoundException(id));
-        
-        String newStatus = updateStatusDTO.getStatus();
-        String currentStatus = existing.getStatus();
-        
-        // Validate status transition
-        validateStatusTransition(currentStatus, newStatus);
-        
-        existing.setStatus(newStatus);
-        LoanRequest updated = loanRequestRepository.save(existing);
-        return LoanRequestMapper.toResponseDTO(updated);
+        return published(LoanRequestEventDTO.STATUS_CHANGED, updated);
+    }
+
+    @Override
+    public BatchUpdateResponseDTO updateLoanRequestStatuses(List<StatusUpdateItemDTO> items) {
+        checkBatchSize(items.size());
+        BatchItemResultDTO[] results = new BatchItemResultDTO[items.size()];
+        List<LoanRequestUpdate> updates = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            StatusUpdateItemDTO item = items.get(i);
+            List<ValidationErrorResponse.FieldError> errors = validate(item);
+            if (errors.isEmpty()) {
+                updates.add(new LoanRequestUpdate(item.getId(), item.getExpectedVersion(),
+                        statusChange(item.getStatus())));
+            } else {
+                results[i] = BatchItemResultDTO.invalid(i, errors);
+            }
+        }
+
+        loanRequestRepository.updateAll(updates);
+
+        // Applied items fill the remaining slots in request order
+        int next = 0;
+        int updated = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            LoanRequestUpdate update = updates.get(next++);
+            RuntimeException failure = update.getFailure();
+            if (failure == null && update.getResult() != null) {
+                results[i] = BatchItemResultDTO.updated(i,
+                        published(LoanRequestEventDTO.STATUS_CHANGED, update.getResult()));
+                updated++;
+            } else if (failure == null) {
+                results[i] = BatchItemResultDTO.rejected(i, BatchItemResultDTO.NOT_FOUND,
+                        new LoanRequestNotFoundException(update.getId()).getMessage());
+            } else if (failure instanceof VersionConflictException) {
+                results[i] = BatchItemResultDTO.rejected(i, BatchItemResultDTO.VERSION_CONFLICT, failure.getMessage());
+            } else if (failure instanceof IllegalStateException) {
+                results[i] = BatchItemResultDTO.rejected(i, BatchItemResultDTO.INVALID_TRANSITION, failure.getMessage());
+            } else {
+                results[i] = BatchItemResultDTO.rejected(i, BatchItemResultDTO.INVALID, failure.getMessage());
+            }
+        }
+        return new BatchUpdateResponseDTO(updated, results.length - updated, Arrays.asList(results));
     }
 
     @Override
     public void deleteLoanRequest(Long id) {
         // Verify existence before deleting
-        loanRequestRepository.findById(id)
+        LoanRequest existing = loanRequestRepository.findById(id)
                 .orElseThrow(() -> new LoanRequestNotFoundException(id));
         loanRequestRepository.deleteById(id);
+        events.publish(LoanRequestEventDTO.deleted(id, existing.getUserId()));
+    }
+
+    /**
+     * Walk the matching loan requests with keyset pages and write them chunk by chunk
+     */
+    private void writeExport(Long ownerFilter, String status, DataFormat format, OutputStream out)
+            throws IOException {
+        LoanRequestExportWriter writer = LoanRequestExportWriter.create(format, out, objectMapper);
+        LoanRequestSortKey after = null;
+        while (true) {
+            List<LoanRequest> chunk = loanRequestRepository.findPageAfter(ownerFilter, status, after, exportChunkSize);
+            for (LoanRequest loanRequest : chunk) {
+                writer.write(loanRequest);
+            }
+            writer.flush();
+            if (chunk.size() < exportChunkSize) {
+                return;
+            }
+            after = LoanRequestSortKey.of(chunk.get(chunk.size() - 1));
+        }
+    }
+
+    /**
+     * Change applied by status updates
+     * It runs against the latest committed state, so the transition is validated
+     * on the status it actually replaces, not on an earlier read.
+     * 
+     * @param newStatus the requested status
+     * @return the change for LoanRequestRepository.update
+     */
+    private UnaryOperator<LoanRequest> statusChange(String newStatus) {
+        return existing -> {
+            validateStatusTransition(existing.getStatus(), newStatus);
+            existing.setStatus(newStatus);
+            return existing;
+        };
+    }
+
+    private int saveImportBatch(List<LoanRequest> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            loanRequestRepository.saveAll(batch);
+            // Subscribers that cannot keep up with a large import are dropped by the publisher
+            for (LoanRequest loanRequest : batch) {
+                published(LoanRequestEventDTO.CREATED, loanRequest);
+            }
+            batch.clear();
+        }
+        return size;
+    }
+
+    private static void addImportError(List<BatchItemResultDTO> errors, long row, String message) {
+        if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+            errors.add(BatchItemResultDTO.rejected((int) row, BatchItemResultDTO.INVALID, message));
+        }
+    }
+
+    private static double rowsPerSecond(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? rows * 1_000_000_000.0 / elapsed : 0;
+    }
+
+    /**
+     * Map a stored loan request and tell event subscribers about the change
+     */
+    private LoanRequestResponseDTO published(String type, LoanRequest loanRequest) {
+        LoanRequestResponseDTO dto = LoanRequestMapper.toResponseDTO(loanRequest);
+        events.publish(LoanRequestEventDTO.of(type, dto));
+        return dto;
+    }
+
+    /**
+     * Read the items of a JSON array one at a time, up to max-items
+     */
+    private List<CreateLoanRequestDTO> readBatchArray(InputStream body) throws IOException {
+        List<CreateLoanRequestDTO> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("A batch must be a JSON array");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new InvalidRequestException("Malformed batch: the JSON array is not closed");
+                }
+                checkBatchItem(items.size());
+                items.add(objectMapper.readValue(parser, CreateLoanRequestDTO.class));
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("Malformed batch: " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * Read newline-delimited JSON items one line at a time, up to max-items
+     * Blank lines are skipped; a line that is not a loan request object becomes a null
+     * item, so it is reported as invalid at its position instead of failing the batch.
+     */
+    private List<CreateLoanRequestDTO> readBatchLines(InputStream body) throws IOException {
+        List<CreateLoanRequestDTO> items = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            checkBatchItem(items.size());
+            try {
+                items.add(objectMapper.readValue(line, CreateLoanRequestDTO.class));
+            } catch (JsonProcessingException e) {
+                items.add(null);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @param read number of items read so far, before the next one
+     */
+    private void checkBatchItem(int read) {
+        if (read >= maxBatchItems) {
+            throw new InvalidRequestException("A batch can hold at most " + maxBatchItems + " items");
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchItems) {
+            throw new InvalidRequestException("A batch can hold at most " + maxBatchItems + " items, got " + size);
+        }
+    }
+
+    /**
+     * Apply the bean validation constraints of a DTO to one batch item
+     * 
+     * @param item the item, or null if it was missing or unreadable
+     * @return the violations sorted by field, empty if the item is valid
+     */
+    private List<ValidationErrorResponse.FieldError> validate(Object item) {
+        if (item == null) {
+            return Collections.singletonList(
+                    new ValidationErrorResponse.FieldError(null, "Item is missing or malformed", null));
+        }
+        return validator.validate(item).stream()
+                .map(violation -> new ValidationErrorResponse.FieldError(
+                        violation.getPropertyPath().toString(),
+                        violation.getMessage(),
+                        violation.getInvalidValue()))
+                .sorted(Comparator.comparing(ValidationErrorResponse.FieldError::getField)
+                        .thenComparing(ValidationErrorResponse.FieldError::getMessage))
+                .collect(Collectors.toList());
     }
 
     /**
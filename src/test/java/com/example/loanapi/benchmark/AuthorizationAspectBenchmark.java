@@ -0,0 +1,172 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.annotation.RequiresOwnership;
+import com.example.loanapi.annotation.RequiresRole;
+import com.example.loanapi.aspect.AuthorizationAspect;
+import com.example.loanapi.exception.UnauthorizedException;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import com.example.loanapi.repository.UserRepositoryImpl;
+import com.example.loanapi.security.UserContext;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the authorization checks on a proxied handler
+ * - cached: AuthorizationAspect, with the metadata of each method cached
+ * - reflective: the previous implementation, reflecting on every call
+ * - none: the same proxy without the aspect
+ * The current user is already resolved for the request, as after the first check of a
+ * real request. Add -prof gc to compare allocation per call.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AuthorizationAspectBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AuthorizationAspectBenchmark {
+
+    @Param({"cached", "reflective", "none"})
+    public String aspect;
+
+    private Handler handler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LoanRequestRepository loanRequestRepository = new LoanRequestRepositoryImpl();
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setId(1L);
+        loanRequest.setUserId(100L);
+        loanRequest.setApplicantName("Mario Rossi");
+        loanRequest.setAmount(new BigDecimal("1000.00"));
+        loanRequest.setCurrency("EUR");
+        loanRequest.setIdentityDocument("ABC12345");
+        loanRequest.setStatus("Pendiente");
+        loanRequest.setCreatedAt(LocalDateTime.now());
+        loanRequestRepository.save(loanRequest);
+
+        UserRepositoryImpl userRepository = new UserRepositoryImpl();
+        userRepository.add(new User(100L, "Anna Verdi", "anna.verdi@example.com", UserRole.CLIENTE, "token-100"));
+        new UserContext().setUserRepository(userRepository);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token-100");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        UserContext.getCurrentUser();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Handler());
+        factory.setProxyTargetClass(true);
+        if ("cached".equals(aspect)) {
+            factory.addAspect(new AuthorizationAspect(loanRequestRepository));
+        } else if ("reflective".equals(aspect)) {
+            factory.addAspect(new ReflectiveAuthorizationAspect(loanRequestRepository));
+        }
+        handler = factory.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Object role() {
+        return handler.list("Pendiente");
+    }
+
+    @Benchmark
+    public Object roleAndOwnership() {
+        return handler.get(1L);
+    }
+
+    /**
+     * Handler methods annotated as in LoanRequestController
+     */
+    public static class Handler {
+
+        @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+        public Object list(String status) {
+            return status;
+        }
+
+        @RequiresRole({UserRole.CLIENTE, UserRole.GESTORE})
+        @RequiresOwnership
+        public Object get(Long id) {
+            return id;
+        }
+    }
+
+    /**
+     * The checks as AuthorizationAspect made them before caching method metadata
+     */
+    @Aspect
+    public static class ReflectiveAuthorizationAspect {
+
+        private final LoanRequestRepository loanRequestRepository;
+
+        public ReflectiveAuthorizationAspect(LoanRequestRepository loanRequestRepository) {
+            this.loanRequestRepository = loanRequestRepository;
+        }
+
+        @Before("@annotation(com.example.loanapi.annotation.RequiresRole)")
+        public void checkRole(JoinPoint joinPoint) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            RequiresRole requiresRole = method.getAnnotation(RequiresRole.class);
+            User currentUser = UserContext.getCurrentUser();
+            UserRole[] requiredRoles = requiresRole.value();
+            if (Arrays.stream(requiredRoles).noneMatch(role -> role == currentUser.getRole())) {
+                throw new UnauthorizedException("Not authorized");
+            }
+        }
+
+        @Before("@annotation(com.example.loanapi.annotation.RequiresOwnership)")
+        public void checkOwnership(JoinPoint joinPoint) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Object[] args = joinPoint.getArgs();
+            Long loanRequestId = null;
+            Class<?>[] paramTypes = method.getParameterTypes();
+            for (int i = 0; i < paramTypes.length; i++) {
+                if (paramTypes[i] == Long.class || paramTypes[i] == long.class) {
+                    loanRequestId = (Long) args[i];
+                    break;
+                }
+            }
+            LoanRequest loanRequest = loanRequestRepository.findById(loanRequestId).orElseThrow();
+            User currentUser = UserContext.getCurrentUser();
+            if (currentUser.getRole() == UserRole.CLIENTE
+                    && !currentUser.getId().equals(loanRequest.getUserId())) {
+                throw new UnauthorizedException("Not authorized");
+            }
+        }
+    }
+}
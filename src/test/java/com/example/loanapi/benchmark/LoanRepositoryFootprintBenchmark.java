@@ -0,0 +1,108 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import com.example.loanapi.repository.OffHeapLoanRequestRepositoryImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory footprint of the loan stores after loading the same loan requests
+ * - memory: ConcurrentHashMap of LoanRequest objects plus sorted indexes
+ * - offheap: LoanRequestColumns in direct memory
+ * Reported as secondary results: heapBytesPerLoan and offHeapBytesPerLoan,
+ * measured after a full GC. The primary score is the load time.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoanRepositoryFootprintBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoanRepositoryFootprintBenchmark {
+
+    @Param({"1000000"})
+    public int loans;
+
+    @Param({"memory", "offheap"})
+    public String store;
+
+    /**
+     * Footprint of the last loaded store, reported next to the load time
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerLoan;
+        public long offHeapBytesPerLoan;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            heapBytesPerLoan = 0;
+            offHeapBytesPerLoan = 0;
+        }
+    }
+
+    @Benchmark
+    public LoanRequestRepository load(Footprint footprint) {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+
+        LoanRequestRepository repository = "offheap".equals(store)
+                ? new OffHeapLoanRequestRepositoryImpl()
+                : new LoanRequestRepositoryImpl();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < loans; i++) {
+            LoanRequest loanRequest = new LoanRequest();
+            loanRequest.setUserId((long) (i % 10_000));
+            loanRequest.setApplicantName("Applicant " + i);
+            loanRequest.setAmount(BigDecimal.valueOf(100_000 + i % 1_000_000, 2));
+            loanRequest.setCurrency(i % 2 == 0 ? "EUR" : "USD");
+            loanRequest.setIdentityDocument(String.format("ABC%05d", i % 100_000));
+            loanRequest.setStatus(i % 3 == 0 ? "Aprobada" : "Pendiente");
+            loanRequest.setCreatedAt(start.plusSeconds(i));
+            repository.save(loanRequest);
+        }
+
+        footprint.heapBytesPerLoan = (usedHeap() - heapBefore) / loans;
+        footprint.offHeapBytesPerLoan = (usedDirect() - directBefore) / loans;
+        return repository;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.RepositoryFixtures;
+import com.example.loanapi.repository.WalLoanRequestRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup (recovery) time of the durable repository
+ * - log: every loan request is replayed from write-ahead log records
+ * - snapshot: the loan requests are loaded from a memory-mapped snapshot
+ *
+ * The 10M case needs a heap of several GB for the recovered objects.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoanRepositoryStartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class LoanRepositoryStartupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int loans;
+
+    @Param({"log", "snapshot"})
+    public String format;
+
+    private Path directory;
+    private WalLoanRequestRepositoryImpl repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("loan-startup-bench");
+        RepositoryFixtures.writeLog(directory, generate(loans));
+        if ("snapshot".equals(format)) {
+            RepositoryFixtures.compact(directory);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRepository() throws IOException {
+        if (repository != null) {
+            repository.close();
+            repository = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public WalLoanRequestRepositoryImpl recover() throws IOException {
+        repository = new WalLoanRequestRepositoryImpl(directory.toString(), 2, 256, 0, Long.MAX_VALUE);
+        return repository;
+    }
+
+    /**
+     * Loan requests generated on demand, so the fixture never holds them all at once
+     */
+    private static List<LoanRequest> generate(int count) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return new AbstractList<LoanRequest>() {
+            @Override
+            public LoanRequest get(int index) {
+                LoanRequest loanRequest = new LoanRequest();
+                loanRequest.setId(index + 1L);
+                loanRequest.setUserId((long) (index % 10_000));
+                loanRequest.setApplicantName("Applicant " + index);
+                loanRequest.setAmount(BigDecimal.valueOf(100_000 + index % 1_000_000, 2));
+                loanRequest.setCurrency(index % 2 == 0 ? "EUR" : "USD");
+                loanRequest.setIdentityDocument(String.format("ABC%05d", index % 100_000));
+                loanRequest.setStatus(index % 3 == 0 ? "Aprobada" : "Pendiente");
+                loanRequest.setCreatedAt(start.plusSeconds(index));
+                return loanRequest;
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.dto.LoanRequestJson;
+import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.mapper.LoanRequestMapper;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.service.LoanRequestJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing a page of loan requests as JSON
+ * - dto: map every row to LoanRequestResponseDTO, collect a list and let Jackson serialize it
+ * - writer: LoanRequestJsonWriter writes the models straight to the generator
+ * - fragments: rows already serialized (LoanRequestJson), as served by GET /api/loans when unchanged
+ * Each writes the same page envelope and bytes. Add -prof gc to compare allocation per page, e.g.
+ * -Dbenchmark.args="-prof gc".
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoanRequestSerializationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoanRequestSerializationBenchmark {
+
+    @Param({"20", "500"})
+    public int rows;
+
+    // Configured as Spring Boot configures the application's mapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private List<LoanRequest> page;
+    private List<LoanRequestJson> fragments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        page = new ArrayList<>(rows);
+        fragments = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 30, 15);
+        for (int i = 0; i < rows; i++) {
+            LoanRequest loanRequest = new LoanRequest();
+            loanRequest.setId((long) i + 1);
+            loanRequest.setUserId((long) (i % 100));
+            loanRequest.setApplicantName("Applicant " + i);
+            loanRequest.setAmount(BigDecimal.valueOf(100_000 + i, 2));
+            loanRequest.setCurrency("EUR");
+            loanRequest.setIdentityDocument("DOC" + i);
+            loanRequest.setStatus("Pendiente");
+            loanRequest.setCreatedAt(start.plusSeconds(i));
+            loanRequest.setVersion(1);
+            page.add(loanRequest);
+
+            StringWriter json = new StringWriter();
+            try (JsonGenerator generator = objectMapper.createGenerator(json)) {
+                LoanRequestJsonWriter.write(generator, loanRequest);
+            }
+            fragments.add(new LoanRequestJson(loanRequest.getId(), loanRequest.getVersion(), json.toString()));
+        }
+    }
+
+    @Benchmark
+    public int dto() throws IOException {
+        out.reset();
+        List<LoanRequestResponseDTO> content = new ArrayList<>(page.size());
+        for (LoanRequest loanRequest : page) {
+            content.add(LoanRequestMapper.toResponseDTO(loanRequest));
+        }
+        objectMapper.writeValue(out, new PageResponse<>(content, (long) rows, 1, 0, rows, null));
+        return out.size();
+    }
+
+    @Benchmark
+    public int writer() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("content");
+            for (LoanRequest loanRequest : page) {
+                LoanRequestJsonWriter.write(generator, loanRequest);
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("totalElements", (long) rows);
+            generator.writeNumberField("totalPages", 1);
+            generator.writeNumberField("page", 0);
+            generator.writeNumberField("size", rows);
+            generator.writeEndObject();
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int fragments() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, new PageResponse<>(fragments, (long) rows, 1, 0, rows, null));
+        return out.size();
+    }
+}
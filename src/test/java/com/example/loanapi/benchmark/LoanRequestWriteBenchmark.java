@@ -0,0 +1,94 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import com.example.loanapi.repository.WalLoanRequestRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of concurrent loan creation (the repository side of POST /api/loans)
+ * Compares the in-memory store with the write-ahead log under different group commit settings:
+ * - wal-immediate: the flusher fsyncs as soon as it wakes up (batches form only from contention);
+ *   the default settings
+ * - wal-group-2ms: batches wait up to 2 ms or 256 records per fsync
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoanRequestWriteBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(16)
+public class LoanRequestWriteBenchmark {
+
+    @Param({"memory", "wal-immediate", "wal-group-2ms"})
+    public String store;
+
+    private LoanRequestRepositoryImpl repository;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("loan-wal-bench");
+        switch (store) {
+            case "memory":
+                repository = new LoanRequestRepositoryImpl();
+                break;
+            case "wal-immediate":
+                repository = new WalLoanRequestRepositoryImpl(directory.toString(), 0, 256, 0, Long.MAX_VALUE);
+                break;
+            case "wal-group-2ms":
+                repository = new WalLoanRequestRepositoryImpl(directory.toString(), 2, 256, 0, Long.MAX_VALUE);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown store: " + store);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (repository instanceof WalLoanRequestRepositoryImpl) {
+            ((WalLoanRequestRepositoryImpl) repository).close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public LoanRequest createLoan() {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setUserId(Thread.currentThread().getId());
+        loanRequest.setApplicantName("Mario Rossi");
+        loanRequest.setAmount(new BigDecimal("5000.00"));
+        loanRequest.setCurrency("EUR");
+        loanRequest.setIdentityDocument("ABC12345");
+        loanRequest.setStatus("Pendiente");
+        loanRequest.setCreatedAt(LocalDateTime.now());
+        return repository.save(loanRequest);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and conflict rate of concurrent status updates (PATCH /api/loans/{id}/status)
+ * Every thread picks one of hotLoans loan requests and flips its status:
+ * - conditional: reads the version, then updates with it as If-Match would; conflicts are counted
+ * - unconditional: update without an expected version (still atomic per loan request)
+ * hotLoans = 1 puts every writer on the same entry; 1024 spreads them out.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=LoanStatusContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class LoanStatusContentionBenchmark {
+
+    @Param({"1", "1024"})
+    public int hotLoans;
+
+    @Param({"conditional", "unconditional"})
+    public String mode;
+
+    private LoanRequestRepositoryImpl repository;
+
+    /**
+     * Per-thread outcome counts, reported next to the throughput
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long applied;
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new LoanRequestRepositoryImpl();
+        for (int i = 0; i < hotLoans; i++) {
+            LoanRequest loanRequest = new LoanRequest();
+            loanRequest.setUserId((long) i);
+            loanRequest.setApplicantName("Mario Rossi");
+            loanRequest.setAmount(new BigDecimal("5000.00"));
+            loanRequest.setCurrency("EUR");
+            loanRequest.setIdentityDocument("ABC12345");
+            loanRequest.setStatus("Pendiente");
+            loanRequest.setCreatedAt(LocalDateTime.now());
+            repository.save(loanRequest);
+        }
+    }
+
+    @Benchmark
+    public void updateStatus(Outcomes outcomes) {
+        long id = 1 + ThreadLocalRandom.current().nextInt(hotLoans);
+        Long expectedVersion = "conditional".equals(mode) ? repository.findById(id).get().getVersion() : null;
+        try {
+            repository.update(id, expectedVersion, loanRequest -> {
+                loanRequest.setStatus("Pendiente".equals(loanRequest.getStatus()) ? "Aprobada" : "Pendiente");
+                return loanRequest;
+            });
+            outcomes.applied++;
+        } catch (VersionConflictException e) {
+            outcomes.conflicts++;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import com.example.loanapi.repository.ShardedLoanRequestRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed workload on the single-map store and the store sharded by userId
+ * One group runs concurrently:
+ * - create: CLIENTE-style inserts for random users (POST /api/loans)
+ * - clientePage: first page of one user's loans (GET /api/loans as CLIENTE)
+ * - gestorePage: first page of all Pendiente loans (GET /api/loans as GESTORE), a fan-out on the sharded store
+ * shards = 0 is the plain LoanRequestRepositoryImpl. Thread counts per operation can be
+ * changed with -tg, e.g. -Dbenchmark.args="-tg 16,8,8" on a many-core machine.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ShardedRepositoryBenchmark
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ShardedRepositoryBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int INITIAL_LOANS = 200_000;
+
+    @Param({"0", "1", "4", "16"})
+    public int shards;
+
+    private LoanRequestRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = shards == 0 ? new LoanRequestRepositoryImpl() : new ShardedLoanRequestRepositoryImpl(shards);
+        List<LoanRequest> loans = new ArrayList<>(INITIAL_LOANS);
+        for (int i = 0; i < INITIAL_LOANS; i++) {
+            loans.add(loan(i % USERS, i % 4 == 0 ? "Pendiente" : "Aprobada"));
+        }
+        repository.saveAll(loans);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (repository instanceof ShardedLoanRequestRepositoryImpl) {
+            ((ShardedLoanRequestRepositoryImpl) repository).close();
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public LoanRequest create() {
+        return repository.save(loan(ThreadLocalRandom.current().nextInt(USERS), "Pendiente"));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public List<LoanRequest> clientePage() {
+        long userId = ThreadLocalRandom.current().nextInt(USERS);
+        return repository.findPageAfter(userId, null, null, 20);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public List<LoanRequest> gestorePage() {
+        return repository.findPageAfter(null, "Pendiente", null, 20);
+    }
+
+    private static LoanRequest loan(long userId, String status) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.setUserId(userId);
+        loanRequest.setApplicantName("Mario Rossi");
+        loanRequest.setAmount(new BigDecimal("5000.00"));
+        loanRequest.setCurrency("EUR");
+        loanRequest.setIdentityDocument("ABC12345");
+        loanRequest.setStatus(status);
+        loanRequest.setCreatedAt(LocalDateTime.now());
+        return loanRequest;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepositoryImpl;
+import com.example.loanapi.security.SignedTokens;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of authenticating a bearer token
+ * - lookup: an opaque token looked up in UserRepositoryImpl
+ * - signedCached: a signed token seen before, its claims kept by SignedTokens
+ * - signedUncached: a signed token verified from scratch (HMAC and claims parsing) every time
+ * Tokens are picked at random among the given number of users, on 4 threads.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TokenVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TokenVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-0123456789abcdef";
+
+    @Param({"100000"})
+    public int users;
+
+    private UserRepositoryImpl repository;
+    private SignedTokens cached;
+    private SignedTokens uncached;
+    private String[] opaqueTokens;
+    private String[] signedTokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        repository = new UserRepositoryImpl();
+        cached = new SignedTokens(objectMapper, repository, SECRET, 3600, users);
+        uncached = new SignedTokens(objectMapper, repository, SECRET, 3600, 0);
+        opaqueTokens = new String[users];
+        signedTokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            User user = new User(1000L + i, "User " + i, "user" + i + "@example.com",
+                    i % 100 == 0 ? UserRole.GESTORE : UserRole.CLIENTE,
+                    UUID.randomUUID().toString().replace("-", ""));
+            repository.add(user);
+            opaqueTokens[i] = user.getToken();
+            signedTokens[i] = cached.issue(user);
+            cached.verify(signedTokens[i]);
+        }
+    }
+
+    @Benchmark
+    public User lookup() {
+        return repository.findByToken(opaqueTokens[ThreadLocalRandom.current().nextInt(users)]).orElseThrow();
+    }
+
+    @Benchmark
+    public User signedCached() {
+        return cached.verify(signedTokens[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    public User signedUncached() {
+        return uncached.verify(signedTokens[ThreadLocalRandom.current().nextInt(users)]);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.loanapi.benchmark;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the per-request user lookups with many users loaded
+ * - findByToken / findById: a random existing user
+ * - findByTokenMissing: an unknown token, as sent by unauthenticated clients
+ * Users are bulk loaded from a generated users file, so the setup also exercises loan.users.file.
+ * Lookups run on 4 threads, with no writers (add and revoke are rare next to them).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=UserLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserLookupBenchmark {
+
+    @Param({"1000000"})
+    public int users;
+
+    private UserRepositoryImpl repository;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tokens = new String[users];
+        Path file = Files.createTempFile("users", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < users; i++) {
+                tokens[i] = UUID.randomUUID().toString().replace("-", "");
+                long id = 1000L + i;
+                writer.write(id + ",User " + id + ",user" + id + "@example.com,"
+                        + (i % 100 == 0 ? UserRole.GESTORE : UserRole.CLIENTE) + "," + tokens[i]);
+                writer.newLine();
+            }
+        }
+        try {
+            repository = new UserRepositoryImpl(file.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public Optional<User> findByToken() {
+        return repository.findByToken(tokens[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return repository.findById(1000L + ThreadLocalRandom.current().nextInt(users));
+    }
+
+    @Benchmark
+    public Optional<User> findByTokenMissing() {
+        // Same length as a real token, so hashing costs the same
+        return repository.findByToken("ffffffffffffffffffffffff" + (10_000_000 + ThreadLocalRandom.current().nextInt(users)));
+    }
+}
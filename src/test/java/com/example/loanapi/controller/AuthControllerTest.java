@@ -0,0 +1,116 @@
+package com.example.loanapi.controller;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepository;
+import com.example.loanapi.security.UserContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for AuthController
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    private static final String OPAQUE_TOKEN = "auth-test-cliente-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByToken(OPAQUE_TOKEN).isEmpty()) {
+            userRepository.add(new User(500L, "Anna Verdi", "anna.verdi@example.com", UserRole.CLIENTE, OPAQUE_TOKEN));
+        }
+    }
+
+    @Test
+    void issueToken_SignedTokenAuthenticatesWithoutLookup() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + OPAQUE_TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(3600))
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+
+        long lookups = UserContext.getLookupCount();
+        mockMvc.perform(get("/api/loans")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(lookups, UserContext.getLookupCount());
+    }
+
+    @Test
+    void issueToken_UserRevoked_SignedTokenCannotIssueOrAuthenticate() throws Exception {
+        String opaque = "auth-test-revoked-token";
+        userRepository.add(new User(501L, "Luca Neri", "luca.neri@example.com", UserRole.CLIENTE, opaque));
+        MvcResult result = mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + opaque))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+
+        assertTrue(userRepository.revoke(opaque));
+
+        mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/loans")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void issueToken_SignedBearer_CannotRenewItself() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + OPAQUE_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+
+        mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void revokeToken_SignedTokenRejectedAfterwards() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/token")
+                .header("Authorization", "Bearer " + OPAQUE_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+
+        mockMvc.perform(delete("/api/auth/token")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/loans")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+
+        // The opaque token is managed by the user store, not revoked here
+        mockMvc.perform(delete("/api/auth/token")
+                .header("Authorization", "Bearer " + OPAQUE_TOKEN))
+                .andExpect(status().isBadRequest());
+    }
+}
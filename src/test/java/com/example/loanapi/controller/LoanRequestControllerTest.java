@@ -1,7 +1,9 @@
 package com.example.loanapi.controller;
 
+import com.example.loanapi.dto.BatchCreateResponseDTO;
 import com.example.loanapi.dto.CreateLoanRequestDTO;
 import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.StatusUpdateItemDTO;
 import com.example.loanapi.dto.UpdateLoanRequestDTO;
 import com.example.loanapi.dto.UpdateLoanRequestStatusDTO;
 import com.example.loanapi.helper.TestHelper;
@@ -17,14 +19,22 @@ import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,7 +49,7 @@ class LoanRequestControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @Autowired
+    @SpyBean
     private LoanRequestRepository loanRequestRepository;
 
     @Autowired
@@ -178,6 +188,120 @@ class LoanRequestControllerTest {
         }
     }
 
+    @Test
+    void getAllLoanRequests_WithCursor_WalksAllPagesInOrder() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            LocalDateTime now = LocalDateTime.now();
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "User1",
+                    new BigDecimal("1000"), "EUR", "DOC1", "Aprobada", now.minusDays(3)));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, 1L, "User2",
+                    new BigDecimal("2000"), "EUR", "DOC2", "Pendiente", now.minusDays(1)));
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, 1L, "User3",
+                    new BigDecimal("3000"), "EUR", "DOC3", "Pendiente", now.minusDays(2)));
+
+            MvcResult first = mockMvc.perform(get("/api/loans")
+                    .param("size", "2")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(3))
+                    .andExpect(jsonPath("$.content[1].id").value(2))
+                    .andExpect(jsonPath("$.nextCursor").exists())
+                    .andReturn();
+            String cursor = objectMapper.readTree(first.getResponse().getContentAsString())
+                    .get("nextCursor").asText();
+
+            mockMvc.perform(get("/api/loans")
+                    .param("size", "2")
+                    .param("cursor", cursor)
+                    .param("includeTotals", "false")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].id").value(1))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.totalPages").doesNotExist());
+        }
+    }
+
+    @Test
+    void getAllLoanRequests_InvalidCursor_Returns400() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            mockMvc.perform(get("/api/loans")
+                    .param("cursor", "not-a-cursor")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void getLoanRequestById_InternalIllegalArgument_IsNotReportedAsBadRequest() {
+        LoanRequest saved = loanRequestRepository.save(TestHelper.createLoanRequest(
+                null, clienteUser.getId(), "Mario Rossi", new BigDecimal("5000.00"),
+                "EUR", "ABC12345", "Pendiente", LocalDateTime.now()));
+        doThrow(new IllegalArgumentException("bug")).when(loanRequestRepository).findById(saved.getId());
+
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            Exception e = assertThrows(Exception.class, () -> mockMvc.perform(get("/api/loans/" + saved.getId())
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN)));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    // ========== GET /api/loans/count Tests ==========
+
+    @Test
+    void countLoanRequests_AsGestore_CountsAllByStatus() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, TestHelper.CLIENTE_ID, "Pendiente"));
+            LoanRequest moved = loanRequestRepository.save(TestHelper.createLoanRequest(2L, 99L, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, 99L, "Aprobada"));
+            moved.setStatus("Rechazada");
+            loanRequestRepository.save(moved);
+
+            mockMvc.perform(get("/api/loans/count")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(3))
+                    .andExpect(jsonPath("$.byStatus.Pendiente").value(1))
+                    .andExpect(jsonPath("$.byStatus.Aprobada").value(1))
+                    .andExpect(jsonPath("$.byStatus.Rechazada").value(1));
+        }
+    }
+
+    @Test
+    void countLoanRequests_AsCliente_CountsOwnOnly() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, TestHelper.CLIENTE_ID, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, 99L, "Pendiente"));
+            loanRequestRepository.deleteById(2L);
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, 99L, "Aprobada"));
+
+            mockMvc.perform(get("/api/loans/count")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(1))
+                    .andExpect(jsonPath("$.byStatus.Pendiente").value(1))
+                    .andExpect(jsonPath("$.byStatus.Aprobada").doesNotExist());
+        }
+    }
+
     @Test
     void getAllLoanRequests_UnauthorizedRole_ReturnsForbidden() throws Exception {
         // This test would require a user with a different role, but we only have CLIENTE and GESTORE
@@ -186,6 +310,414 @@ class LoanRequestControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    void getAllLoanRequests_IfNoneMatch_Returns304UntilPageChanges() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+            MvcResult first = mockMvc.perform(get("/api/loans")
+                    .param("status", "Pendiente")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String eTag = first.getResponse().getHeader("ETag");
+            assertNotNull(eTag);
+
+            mockMvc.perform(get("/api/loans")
+                    .param("status", "Pendiente")
+                    .header("If-None-Match", "\"other\", " + eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isNotModified());
+
+            // Another query has another tag
+            mockMvc.perform(get("/api/loans")
+                    .param("status", "Aprobada")
+                    .header("If-None-Match", eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk());
+
+            // A change the page does not show keeps the tag
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, 3L, "Aprobada"));
+            mockMvc.perform(get("/api/loans")
+                    .param("status", "Pendiente")
+                    .header("If-None-Match", eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isNotModified());
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, 2L, "Pendiente"));
+            mockMvc.perform(get("/api/loans")
+                    .param("status", "Pendiente")
+                    .header("If-None-Match", eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", not(eTag)))
+                    .andExpect(jsonPath("$.content.length()").value(2));
+        }
+    }
+
+    @Test
+    void getAllLoanRequests_RepeatedPageServedFromCache() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+            long hits = pageCacheHits();
+
+            for (int i = 0; i < 3; i++) {
+                mockMvc.perform(get("/api/loans")
+                        .param("status", "Pendiente")
+                        .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[0].id").value(1));
+            }
+
+            assertEquals(hits + 2, pageCacheHits());
+        }
+    }
+
+    private long pageCacheHits() throws Exception {
+        MvcResult stats = mockMvc.perform(get("/api/loans/cache/stats")
+                .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(stats.getResponse().getContentAsString()).get("hits").asLong();
+    }
+
+    // ========== GET /api/loans/export Tests ==========
+
+    @Test
+    void exportLoanRequests_Ndjson_ClienteStreamsOwnRequestsAcrossChunks() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            // More than one export chunk of the client's own loans, plus someone else's
+            int own = 1203;
+            List<LoanRequest> loans = new ArrayList<>();
+            for (int i = 0; i < own; i++) {
+                loans.add(TestHelper.createLoanRequest(null, TestHelper.CLIENTE_ID, "Pendiente"));
+            }
+            loans.add(TestHelper.createLoanRequest(null, TestHelper.GESTORE_ID, "Pendiente"));
+            loanRequestRepository.saveAll(loans);
+
+            MvcResult started = mockMvc.perform(get("/api/loans/export")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String body = mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertEquals(own, lines.length);
+            Set<Long> ids = new HashSet<>();
+            for (String line : lines) {
+                LoanRequestResponseDTO loan = objectMapper.readValue(line, LoanRequestResponseDTO.class);
+                assertEquals(TestHelper.CLIENTE_ID, loan.getUserId());
+                ids.add(loan.getId());
+            }
+            assertEquals(own, ids.size());
+        }
+    }
+
+    @Test
+    void exportLoanRequests_CsvWithStatusFilter_QuotesSpecialCharacters() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            LocalDateTime createdAt = LocalDateTime.of(2024, 5, 6, 7, 8, 0);
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Rossi, \"Mario\"",
+                    new BigDecimal("5000.00"), "EUR", "ABC12345", "Aprobada", createdAt));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, 1L, "Pendiente"));
+
+            MvcResult started = mockMvc.perform(get("/api/loans/export")
+                    .param("format", "csv")
+                    .param("status", "APROBADA")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"loans.csv\""))
+                    .andExpect(content().string(
+                            "id,userId,applicantName,amount,currency,identityDocument,status,createdAt,version\r\n"
+                            + "1,1,\"Rossi, \"\"Mario\"\"\",5000.00,EUR,ABC12345,Aprobada,2024-05-06T07:08:00,1\r\n"));
+        }
+    }
+
+    @Test
+    void exportLoanRequests_UnknownFormat_Returns400() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            mockMvc.perform(get("/api/loans/export")
+                    .param("format", "xml")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // ========== POST /api/loans/import Tests ==========
+
+    @Test
+    void importLoanRequests_Ndjson_KeepsStatusAndCreatedAtAndReportsBadRows() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            String body = "{\"userId\":7,\"applicantName\":\"Mario Rossi\",\"amount\":5000.00,\"currency\":\"EUR\","
+                    + "\"identityDocument\":\"ABC12345\",\"status\":\"APROBADA\",\"createdAt\":\"2019-02-04T10:30:00\"}\n"
+                    // Fails validation: no status
+                    + "{\"userId\":7,\"applicantName\":\"Anna Bianchi\",\"amount\":100,\"currency\":\"EUR\","
+                    + "\"identityDocument\":\"XYZ98765\",\"createdAt\":\"2019-02-05T10:30:00\"}\n"
+                    // Cannot be bound: amount is not a number
+                    + "{\"userId\":7,\"applicantName\":\"Anna Bianchi\",\"amount\":\"many\",\"currency\":\"EUR\","
+                    + "\"identityDocument\":\"XYZ98765\",\"status\":\"Pendiente\",\"createdAt\":\"2019-02-05T10:30:00\"}\n"
+                    + "{\"userId\":8,\"applicantName\":\"Luca Verdi\",\"amount\":250.50,\"currency\":\"USD\","
+                    + "\"identityDocument\":\"DEF45678\",\"status\":\"Cancelada\",\"createdAt\":\"2020-01-01T00:00:00\"}\n";
+
+            mockMvc.perform(post("/api/loans/import")
+                    .contentType("application/x-ndjson")
+                    .content(body)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rowsRead").value(4))
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.invalid").value(2))
+                    .andExpect(jsonPath("$.aborted").value(false))
+                    .andExpect(jsonPath("$.errors.length()").value(2))
+                    .andExpect(jsonPath("$.errors[0].index").value(2))
+                    .andExpect(jsonPath("$.errors[0].errors[0].field").value("status"))
+                    .andExpect(jsonPath("$.errors[1].index").value(3));
+
+            List<LoanRequest> imported = loanRequestRepository.findByUserId(7L);
+            assertEquals(1, imported.size());
+            assertEquals("Aprobada", imported.get(0).getStatus());
+            assertEquals(LocalDateTime.of(2019, 2, 4, 10, 30), imported.get(0).getCreatedAt());
+            assertEquals("Cancelada", loanRequestRepository.findByUserId(8L).get(0).getStatus());
+        }
+    }
+
+    @Test
+    void importLoanRequests_CsvFromExport_IgnoresIdAndVersionColumns() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            String body = "id,userId,applicantName,amount,currency,identityDocument,status,createdAt,version\r\n"
+                    + "41,1,\"Rossi, \"\"Mario\"\"\",5000.00,EUR,ABC12345,Rechazada,2024-05-06T07:08:00,3\r\n"
+                    + "42,1,Anna Bianchi,-5,EUR,XYZ98765,Pendiente,2024-05-07T07:08:00,1\r\n";
+
+            mockMvc.perform(post("/api/loans/import")
+                    .contentType("text/csv")
+                    .content(body)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.rowsRead").value(2))
+                    .andExpect(jsonPath("$.imported").value(1))
+                    .andExpect(jsonPath("$.errors[0].index").value(2))
+                    .andExpect(jsonPath("$.errors[0].errors[0].field").value("amount"));
+
+            List<LoanRequest> imported = loanRequestRepository.findByUserId(1L);
+            assertEquals(1, imported.size());
+            assertEquals("Rossi, \"Mario\"", imported.get(0).getApplicantName());
+            assertEquals(0, new BigDecimal("5000.00").compareTo(imported.get(0).getAmount()));
+            assertEquals("Rechazada", imported.get(0).getStatus());
+            assertEquals(1L, imported.get(0).getVersion());
+        }
+    }
+
+    @Test
+    void importLoanRequests_BrokenJson_StopsAndKeepsEarlierRows() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            String body = "{\"userId\":7,\"applicantName\":\"Mario Rossi\",\"amount\":5000.00,\"currency\":\"EUR\","
+                    + "\"identityDocument\":\"ABC12345\",\"status\":\"Pendiente\",\"createdAt\":\"2019-02-04T10:30:00\"}\n"
+                    + "{\"userId\":7,\"applicantName\n";
+
+            mockMvc.perform(post("/api/loans/import")
+                    .contentType("application/x-ndjson")
+                    .content(body)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(1))
+                    .andExpect(jsonPath("$.aborted").value(true))
+                    .andExpect(jsonPath("$.errors[0].index").value(2));
+
+            assertEquals(1, loanRequestRepository.findByUserId(7L).size());
+        }
+    }
+
+    @Test
+    void importLoanRequests_Cliente_Returns403() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            mockMvc.perform(post("/api/loans/import")
+                    .contentType("text/csv")
+                    .content("userId,applicantName,amount,currency,identityDocument,status,createdAt\r\n")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    // ========== GET /api/loans/events Tests ==========
+
+    @Test
+    void subscribeToEvents_ClienteReceivesOwnStatusChangesOnly() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, TestHelper.CLIENTE_ID, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, TestHelper.GESTORE_ID, "Pendiente"));
+
+            MvcResult stream = mockMvc.perform(get("/api/loans/events")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // A GESTORE decides on someone else's loan, then on the client's
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+            for (long id : new long[] {2L, 1L}) {
+                mockMvc.perform(patch("/api/loans/" + id + "/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestHelper.createStatusUpdateDTO("Aprobada")))
+                        .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                        .andExpect(status().isOk());
+            }
+
+            String body = "";
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!body.contains("\"loanId\":1") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                body = stream.getResponse().getContentAsString();
+            }
+            assertEquals("text/event-stream", stream.getResponse().getContentType());
+            assertTrue(body.contains("event:STATUS_CHANGED"), body);
+            assertTrue(body.contains("\"status\":\"Aprobada\""), body);
+            assertFalse(body.contains("\"loanId\":2"), body);
+        }
+    }
+
+    @Test
+    void subscribeToEvents_ClienteReceivesCreatedForOwnImportedLoans() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            MvcResult stream = mockMvc.perform(get("/api/loans/events")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // A GESTORE imports a loan for someone else, then one for the client
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+            String body = "{\"userId\":" + TestHelper.GESTORE_ID + ",\"applicantName\":\"Luca Verdi\","
+                    + "\"amount\":250.50,\"currency\":\"USD\",\"identityDocument\":\"DEF45678\","
+                    + "\"status\":\"Pendiente\",\"createdAt\":\"2020-01-01T00:00:00\"}\n"
+                    + "{\"userId\":" + TestHelper.CLIENTE_ID + ",\"applicantName\":\"Mario Rossi\","
+                    + "\"amount\":5000.00,\"currency\":\"EUR\",\"identityDocument\":\"ABC12345\","
+                    + "\"status\":\"Aprobada\",\"createdAt\":\"2019-02-04T10:30:00\"}\n";
+            mockMvc.perform(post("/api/loans/import")
+                    .contentType("application/x-ndjson")
+                    .content(body)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2));
+
+            String events = "";
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!events.contains("Mario Rossi") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                events = stream.getResponse().getContentAsString();
+            }
+            assertTrue(events.contains("event:CREATED"), events);
+            assertTrue(events.contains("\"status\":\"Aprobada\""), events);
+            assertFalse(events.contains("Luca Verdi"), events);
+        }
+    }
+
+    // ========== GET /api/loans/changes Tests ==========
+
+    @Test
+    void getChanges_ClienteGetsOwnDeltasAndTombstonesAfterResync() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            // A position the log never covered: reload everything, then continue from nextSince
+            MvcResult first = mockMvc.perform(get("/api/loans/changes")
+                    .param("since", "0")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.resync").value(true))
+                    .andExpect(jsonPath("$.changes.length()").value(0))
+                    .andReturn();
+            long since = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextSince").asLong();
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, TestHelper.CLIENTE_ID, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, TestHelper.GESTORE_ID, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, TestHelper.CLIENTE_ID, "Pendiente"));
+            loanRequestRepository.deleteById(3L);
+
+            MvcResult delta = mockMvc.perform(get("/api/loans/changes")
+                    .param("since", String.valueOf(since))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.resync").value(false))
+                    .andExpect(jsonPath("$.hasMore").value(false))
+                    .andExpect(jsonPath("$.changes.length()").value(2))
+                    .andExpect(jsonPath("$.changes[0].loanId").value(1))
+                    .andExpect(jsonPath("$.changes[0].deleted").value(false))
+                    .andExpect(jsonPath("$.changes[0].loan.status").value("Pendiente"))
+                    .andExpect(jsonPath("$.changes[1].loanId").value(3))
+                    .andExpect(jsonPath("$.changes[1].deleted").value(true))
+                    .andExpect(jsonPath("$.changes[1].loan").doesNotExist())
+                    .andReturn();
+            long next = objectMapper.readTree(delta.getResponse().getContentAsString()).get("nextSince").asLong();
+            assertTrue(next > since);
+
+            mockMvc.perform(get("/api/loans/changes")
+                    .param("since", String.valueOf(next))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changes.length()").value(0))
+                    .andExpect(jsonPath("$.nextSince").value(next));
+        }
+    }
+
+    @Test
+    void getChanges_LimitOutOfRange_ReturnsBadRequest() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            mockMvc.perform(get("/api/loans/changes")
+                    .param("since", "0")
+                    .param("limit", "0")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     // ========== GET /api/loans/{id} Tests ==========
 
     @Test
@@ -205,6 +737,67 @@ class LoanRequestControllerTest {
         }
     }
 
+    @Test
+    void getLoanRequestById_OwnershipCheckedRead_LoadsLoanRequestOnce() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(clienteUser.getId());
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, clienteUser.getId(), "Pendiente"));
+            // The first read also catches the JSON cache up with the change log, which reads changes by ID
+            mockMvc.perform(get("/api/loans/1")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk());
+            clearInvocations(loanRequestRepository);
+
+            mockMvc.perform(get("/api/loans/1")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1));
+
+            verify(loanRequestRepository, times(1)).findById(1L);
+        }
+    }
+
+    @Test
+    void getLoanRequestById_IfNoneMatchCurrentVersion_Returns304UntilModified() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+            MvcResult first = mockMvc.perform(get("/api/loans/1")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "no-cache, private"))
+                    .andReturn();
+            String eTag = first.getResponse().getHeader("ETag");
+            assertEquals("\"" + loanRequestRepository.findById(1L).get().getVersion() + "\"", eTag);
+
+            mockMvc.perform(get("/api/loans/1")
+                    .header("If-None-Match", eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", eTag))
+                    .andExpect(content().string(""));
+
+            // Rejected: a new version, which clients may keep using without asking again
+            mockMvc.perform(patch("/api/loans/1/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(TestHelper.createStatusUpdateDTO("Rechazada")))
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/loans/1")
+                    .header("If-None-Match", eTag)
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "max-age=3600, private"))
+                    .andExpect(jsonPath("$.status").value("Rechazada"));
+        }
+    }
+
     @Test
     void getLoanRequestById_ClienteCanSeeOwnRequest() throws Exception {
         try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
@@ -381,6 +974,135 @@ class LoanRequestControllerTest {
         }
     }
 
+    // ========== POST /api/loans/batch Tests ==========
+
+    @Test
+    void createLoanRequests_AllValid_ReturnsCreatedWithConsecutiveIds() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            List<CreateLoanRequestDTO> items = List.of(
+                    TestHelper.createValidCreateDTO(),
+                    TestHelper.createCreateDTO("Jane Doe", new BigDecimal("2500.00"), "USD", "XYZ98765"));
+
+            MvcResult result = mockMvc.perform(post("/api/loans/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(items))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.created").value(2))
+                    .andExpect(jsonPath("$.invalid").value(0))
+                    .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                    .andExpect(jsonPath("$.results[1].loan.applicantName").value("Jane Doe"))
+                    .andExpect(jsonPath("$.results[1].loan.userId").value(TestHelper.CLIENTE_ID))
+                    .andReturn();
+
+            BatchCreateResponseDTO response = objectMapper.readValue(
+                    result.getResponse().getContentAsString(), BatchCreateResponseDTO.class);
+            long firstId = response.getResults().get(0).getLoan().getId();
+            assertEquals(firstId + 1, response.getResults().get(1).getLoan().getId());
+            assertEquals(2, loanRequestRepository.count(TestHelper.CLIENTE_ID, "Pendiente"));
+        }
+    }
+
+    @Test
+    void createLoanRequests_SomeInvalid_CreatesValidOnesAndReportsErrors() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            List<CreateLoanRequestDTO> items = List.of(
+                    TestHelper.createCreateDTO("Jane Doe", new BigDecimal("2500.00"), "GBP", "XYZ98765"),
+                    TestHelper.createValidCreateDTO());
+
+            mockMvc.perform(post("/api/loans/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(items))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(1))
+                    .andExpect(jsonPath("$.invalid").value(1))
+                    .andExpect(jsonPath("$.results[0].index").value(0))
+                    .andExpect(jsonPath("$.results[0].status").value("INVALID"))
+                    .andExpect(jsonPath("$.results[0].errors[0].field").value("currency"))
+                    .andExpect(jsonPath("$.results[1].index").value(1))
+                    .andExpect(jsonPath("$.results[1].status").value("CREATED"));
+
+            assertEquals(1, loanRequestRepository.count(null, null));
+        }
+    }
+
+    @Test
+    void createLoanRequests_Ndjson_ReportsMalformedLineInPlace() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            String body = objectMapper.writeValueAsString(TestHelper.createValidCreateDTO()) + "\n"
+                    + "{not json\n"
+                    + "\n"
+                    + objectMapper.writeValueAsString(TestHelper.createValidCreateDTO()) + "\n";
+
+            mockMvc.perform(post("/api/loans/batch")
+                    .contentType("application/x-ndjson")
+                    .content(body)
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created").value(2))
+                    .andExpect(jsonPath("$.results.length()").value(3))
+                    .andExpect(jsonPath("$.results[1].status").value("INVALID"))
+                    .andExpect(jsonPath("$.results[2].status").value("CREATED"));
+        }
+    }
+
+    @Test
+    void createLoanRequests_TooManyItems_RejectedBeforeReadingTheRest() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+            mockedUserContext.when(UserContext::getCurrentUserId).thenReturn(TestHelper.CLIENTE_ID);
+
+            String item = objectMapper.writeValueAsString(TestHelper.createValidCreateDTO());
+            // One item over loan.batch.max-items, then a tail that would fail parsing if it were read
+            String items = String.join(",", Collections.nCopies(1001, item));
+
+            mockMvc.perform(post("/api/loans/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[" + items + ", {not json")
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("at most 1000 items")));
+
+            mockMvc.perform(post("/api/loans/batch")
+                    .contentType("application/x-ndjson")
+                    .content(String.join("\n", Collections.nCopies(1001, item)))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isBadRequest());
+
+            assertEquals(0, loanRequestRepository.count(null, null));
+        }
+    }
+
+    @Test
+    void createLoanRequests_Gestore_ReturnsForbidden() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            mockMvc.perform(post("/api/loans/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(TestHelper.createValidCreateDTO())))
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isForbidden());
+
+            assertEquals(0, loanRequestRepository.count(null, null));
+        }
+    }
+
     // ========== PUT /api/loans/{id} Tests ==========
 
     @Test
@@ -581,6 +1303,128 @@ class LoanRequestControllerTest {
         }
     }
 
+    @Test
+    void updateLoanRequestStatus_IfMatchCurrentVersion_ReturnsUpdatedWithETag() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            LoanRequest existing = loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+            assertEquals(1, existing.getVersion());
+
+            UpdateLoanRequestStatusDTO dto = TestHelper.createStatusUpdateDTO("Aprobada");
+
+            mockMvc.perform(patch("/api/loans/1/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto))
+                    .header("If-Match", "\"1\"")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"2\""))
+                    .andExpect(jsonPath("$.status").value("Aprobada"))
+                    .andExpect(jsonPath("$.version").value(2));
+        }
+    }
+
+    @Test
+    void updateLoanRequestStatus_IfMatchStaleVersion_Returns412() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            LoanRequest existing = TestHelper.createLoanRequest(1L, 1L, "Pendiente");
+            loanRequestRepository.save(existing);
+            loanRequestRepository.save(existing);
+
+            UpdateLoanRequestStatusDTO dto = TestHelper.createStatusUpdateDTO("Rechazada");
+
+            mockMvc.perform(patch("/api/loans/1/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto))
+                    .header("If-Match", "\"1\"")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isPreconditionFailed());
+
+            assertEquals("Pendiente", loanRequestRepository.findById(1L).get().getStatus());
+        }
+    }
+
+    @Test
+    void updateLoanRequestStatus_MalformedIfMatch_Returns400() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+            UpdateLoanRequestStatusDTO dto = TestHelper.createStatusUpdateDTO("Aprobada");
+
+            mockMvc.perform(patch("/api/loans/1/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(dto))
+                    .header("If-Match", "\"abc\"")
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void updateLoanRequestStatuses_MixedBatch_ReportsEachOutcome() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(gestoreUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.GESTORE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(2L, 1L, "Rechazada"));
+            loanRequestRepository.save(TestHelper.createLoanRequest(3L, 2L, "Pendiente"));
+
+            List<StatusUpdateItemDTO> items = List.of(
+                    new StatusUpdateItemDTO(1L, "Aprobada", 1L),
+                    new StatusUpdateItemDTO(2L, "Aprobada", null),
+                    new StatusUpdateItemDTO(3L, "Rechazada", 7L),
+                    new StatusUpdateItemDTO(999L, "Aprobada", null),
+                    new StatusUpdateItemDTO(3L, null, null));
+
+            mockMvc.perform(patch("/api/loans/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(items))
+                    .header("Authorization", "Bearer " + TestHelper.GESTORE_TOKEN))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated").value(1))
+                    .andExpect(jsonPath("$.failed").value(4))
+                    .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+                    .andExpect(jsonPath("$.results[0].loan.version").value(2))
+                    .andExpect(jsonPath("$.results[1].status").value("INVALID_TRANSITION"))
+                    .andExpect(jsonPath("$.results[2].status").value("VERSION_CONFLICT"))
+                    .andExpect(jsonPath("$.results[3].status").value("NOT_FOUND"))
+                    .andExpect(jsonPath("$.results[4].status").value("INVALID"))
+                    .andExpect(jsonPath("$.results[4].errors[0].field").value("status"));
+
+            assertEquals("Aprobada", loanRequestRepository.findById(1L).get().getStatus());
+            assertEquals("Pendiente", loanRequestRepository.findById(3L).get().getStatus());
+            assertEquals(1, loanRequestRepository.count(null, "Pendiente"));
+            assertEquals(1, loanRequestRepository.count(1L, "Aprobada"));
+        }
+    }
+
+    @Test
+    void updateLoanRequestStatuses_Cliente_ReturnsForbidden() throws Exception {
+        try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
+            mockedUserContext.when(UserContext::getCurrentUser).thenReturn(clienteUser);
+            mockedUserContext.when(UserContext::getCurrentUserRole).thenReturn(UserRole.CLIENTE);
+
+            loanRequestRepository.save(TestHelper.createLoanRequest(1L, TestHelper.CLIENTE_ID, "Pendiente"));
+
+            mockMvc.perform(patch("/api/loans/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(List.of(new StatusUpdateItemDTO(1L, "Aprobada", null))))
+                    .header("Authorization", "Bearer " + TestHelper.CLIENTE_TOKEN))
+                    .andExpect(status().isForbidden());
+
+            assertEquals("Pendiente", loanRequestRepository.findById(1L).get().getStatus());
+        }
+    }
+
     @Test
     void updateLoanRequestStatus_OnlyGestoreCanUpdate() throws Exception {
         try (MockedStatic<UserContext> mockedUserContext = mockStatic(UserContext.class)) {
@@ -0,0 +1,285 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Unit tests for JdbcLoanRequestRepositoryImpl against an in-memory H2 database
+ */
+class JdbcLoanRequestRepositoryImplTest {
+
+    private EmbeddedDatabase database;
+    private JdbcLoanRequestRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        repository = new JdbcLoanRequestRepositoryImpl(new JdbcTemplate(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void save_InsertsThenUpdates() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_789);
+        LoanRequest loan = repository.save(TestHelper.createLoanRequest(null, 1L, "Mario Rossi",
+                new BigDecimal("5000.00"), "EUR", "ABC12345", "Pendiente", createdAt));
+        repository.save(TestHelper.createLoanRequest(null, null, null, null, null, null, null, null));
+
+        loan.setStatus("Aprobada");
+        repository.save(loan);
+
+        LoanRequest stored = repository.findById(loan.getId()).get();
+        assertEquals("Aprobada", stored.getStatus());
+        assertEquals(new BigDecimal("5000.00"), stored.getAmount());
+        assertEquals(createdAt, stored.getCreatedAt());
+        assertEquals(2, stored.getVersion());
+        assertEquals(2, loan.getVersion());
+        assertEquals(2, repository.findAll().size());
+        assertEquals(1, repository.count(1L, "Aprobada"));
+        assertTrue(repository.findByStatus("Pendiente").isEmpty());
+    }
+
+    @Test
+    void saveAll_InsertsBatchAndContinuesIds() {
+        List<LoanRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(loan(null, 1L, "Pendiente", LocalDateTime.now()));
+        }
+        repository.saveAll(batch);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(batch));
+        assertEquals(5, repository.count(1L, null));
+
+        // A new instance on the same database starts after the stored IDs
+        JdbcLoanRequestRepositoryImpl reopened = new JdbcLoanRequestRepositoryImpl(new JdbcTemplate(database));
+        assertEquals(6L, reopened.save(loan(null, 1L, "Pendiente", LocalDateTime.now())).getId());
+    }
+
+    @Test
+    void update_ComparesAndSetsVersion() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+
+        LoanRequest updated = repository.update(1L, 1L, loan -> {
+            loan.setStatus("Aprobada");
+            return loan;
+        }).get();
+        assertEquals(2, updated.getVersion());
+        assertEquals("Aprobada", repository.findById(1L).get().getStatus());
+
+        assertThrows(VersionConflictException.class, () -> repository.update(1L, 1L, loan -> loan));
+        assertEquals(2, repository.findById(1L).get().getVersion());
+        assertFalse(repository.update(99L, null, loan -> loan).isPresent());
+    }
+
+    @Test
+    void updateAll_AppliesBatchAndRedoesItemsChangedWithinIt() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(2L, 1L, "Pendiente", LocalDateTime.now()));
+        List<LoanRequestUpdate> updates = List.of(
+                new LoanRequestUpdate(1L, 1L, status("Aprobada")),
+                new LoanRequestUpdate(2L, 1L, status("Rechazada")),
+                new LoanRequestUpdate(1L, null, status("Cancelada")),
+                new LoanRequestUpdate(2L, 1L, status("Aprobada")),
+                new LoanRequestUpdate(99L, null, status("Aprobada")));
+
+        repository.updateAll(updates);
+
+        assertEquals(2, updates.get(0).getResult().getVersion());
+        assertEquals(3, updates.get(2).getResult().getVersion());
+        assertEquals("Cancelada", repository.findById(1L).get().getStatus());
+        assertEquals("Rechazada", repository.findById(2L).get().getStatus());
+        assertTrue(updates.get(3).getFailure() instanceof VersionConflictException);
+        assertNull(updates.get(4).getResult());
+        assertNull(updates.get(4).getFailure());
+    }
+
+    @Test
+    void updateAll_DriverWithoutRowCounts_AppliesEachItemOnce() {
+        JdbcTemplate jdbcTemplate = spy(new JdbcTemplate(database));
+        doAnswer(invocation -> {
+            int[] rows = (int[]) invocation.callRealMethod();
+            Arrays.fill(rows, Statement.SUCCESS_NO_INFO);
+            return rows;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), any(int[].class));
+        repository = new JdbcLoanRequestRepositoryImpl(jdbcTemplate);
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(2L, 1L, "Pendiente", LocalDateTime.now()));
+        List<LoanRequestUpdate> updates = List.of(
+                new LoanRequestUpdate(1L, 1L, status("Aprobada")),
+                new LoanRequestUpdate(2L, 1L, status("Rechazada")),
+                new LoanRequestUpdate(1L, null, status("Cancelada")),
+                new LoanRequestUpdate(2L, 1L, status("Aprobada")),
+                new LoanRequestUpdate(1L, null, status("Cancelada")));
+
+        repository.updateAll(updates);
+
+        assertEquals(2, updates.get(0).getResult().getVersion());
+        assertEquals(2, updates.get(1).getResult().getVersion());
+        assertEquals(3, updates.get(2).getResult().getVersion());
+        assertTrue(updates.get(3).getFailure() instanceof VersionConflictException);
+        assertEquals(4, updates.get(4).getResult().getVersion());
+        assertEquals(4, repository.findById(1L).get().getVersion());
+        assertEquals("Rechazada", repository.findById(2L).get().getStatus());
+        assertEquals(2, repository.findById(2L).get().getVersion());
+    }
+
+    @Test
+    void deleteById_RemovesRow() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+
+        repository.deleteById(1L);
+
+        assertFalse(repository.findById(1L).isPresent());
+        assertTrue(repository.findByUserId(1L).isEmpty());
+    }
+
+    @Test
+    void findPage_ReturnsPendienteFirstThenByCreatedAt() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(loan(1L, 1L, "Aprobada", now.minusDays(3)));
+        repository.save(loan(2L, 1L, "Pendiente", now.minusDays(1)));
+        repository.save(loan(3L, 2L, "Pendiente", now.minusDays(2)));
+        repository.save(loan(4L, 2L, "Rechazada", now.minusDays(4)));
+        repository.save(loan(5L, 2L, "Rechazada", null));
+
+        assertEquals(List.of(3L, 2L), ids(repository.findPage(null, null, 0, 2)));
+        assertEquals(List.of(4L, 1L), ids(repository.findPage(null, null, 2, 2)));
+        assertEquals(List.of(5L), ids(repository.findPage(null, null, 4, 2)));
+        assertEquals(List.of(4L, 5L), ids(repository.findByUserIdAndStatus(2L, "Rechazada")));
+        assertEquals(5, repository.count(null, null));
+    }
+
+    @Test
+    void findPageAfter_WalksEveryRowOnceInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 30; id++) {
+            repository.save(loan(id, id % 2, id % 3 == 0 ? "Pendiente" : "Aprobada",
+                    id % 7 == 0 ? null : now.minusMinutes(id / 4)));
+        }
+
+        List<Long> walked = new ArrayList<>();
+        LoanRequestSortKey after = null;
+        List<LoanRequest> page;
+        while (!(page = repository.findPageAfter(null, null, after, 4)).isEmpty()) {
+            walked.addAll(ids(page));
+            after = LoanRequestSortKey.of(page.get(page.size() - 1));
+        }
+
+        assertEquals(ids(repository.findPage(null, null, 0, 100)), walked);
+        assertEquals(30, walked.size());
+    }
+
+    @Test
+    void findChangesSince_TracksCommittedWritesAndDeletes() {
+        long start = repository.findChangesSince(0, null, 100).getNextSince();
+        LocalDateTime now = LocalDateTime.now();
+        LoanRequest first = repository.save(loan(null, 1L, "Pendiente", now));
+        repository.saveAll(List.of(loan(null, 2L, "Pendiente", now), loan(null, 2L, "Pendiente", now)));
+        repository.update(first.getId(), 1L, status("Aprobada"));
+        repository.deleteById(first.getId() + 1);
+
+        LoanRequestChanges changes = repository.findChangesSince(start, null, 100);
+        assertEquals(start + 5, changes.getNextSince());
+        assertEquals(List.of(first.getId() + 2, first.getId(), first.getId() + 1), changes.getChanges().stream()
+                .map(LoanRequestChange::getLoanId).collect(Collectors.toList()));
+        assertEquals("Aprobada", changes.getChanges().get(1).getLoanRequest().getStatus());
+        assertTrue(changes.getChanges().get(2).isDeleted());
+        assertEquals(2, repository.findChangesSince(start, 2L, 100).getChanges().size());
+    }
+
+    @Test
+    void save_AmountNotFittingColumn_RejectedInsteadOfRounded() {
+        LoanRequest rounded = loan(null, 1L, "Pendiente", LocalDateTime.now());
+        rounded.setAmount(new BigDecimal("5000.129"));
+        assertThrows(IllegalArgumentException.class, () -> repository.save(rounded));
+        LoanRequest tooLarge = loan(null, 1L, "Pendiente", LocalDateTime.now());
+        tooLarge.setAmount(new BigDecimal("1E+17"));
+        assertThrows(IllegalArgumentException.class, () -> repository.save(tooLarge));
+        assertEquals(0, repository.count(null, null));
+
+        // Trailing zeros lose nothing
+        LoanRequest exact = loan(null, 1L, "Pendiente", LocalDateTime.now());
+        exact.setAmount(new BigDecimal("5000.100"));
+        repository.save(exact);
+        assertEquals(0, new BigDecimal("5000.1").compareTo(repository.findById(exact.getId()).get().getAmount()));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.update(exact.getId(), null, loan -> {
+            loan.setAmount(new BigDecimal("0.001"));
+            return loan;
+        }));
+        assertEquals(1, repository.findById(exact.getId()).get().getVersion());
+    }
+
+    @Test
+    void saveAll_FailureMidBatch_SavesNothingAndRecordsNoChange() {
+        LoanRequest existing = repository.save(loan(null, 1L, "Pendiente", LocalDateTime.now()));
+        long since = repository.getChangeSequence();
+
+        existing.setStatus("Aprobada");
+        LoanRequest invalid = loan(null, 1L, "Pendiente", LocalDateTime.now());
+        invalid.setAmount(new BigDecimal("1.001"));
+        List<LoanRequest> batch = List.of(existing, loan(null, 1L, "Pendiente", LocalDateTime.now()), invalid);
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(batch));
+
+        // The update of the existing row, made before the failure, was rolled back too
+        assertEquals("Pendiente", repository.findById(existing.getId()).get().getStatus());
+        assertEquals(1, repository.count(null, null));
+        assertEquals(1, existing.getVersion());
+        assertNull(batch.get(1).getId());
+        assertTrue(repository.findChangesSince(since, null, 100).getChanges().isEmpty());
+
+        // Once fixed, the same batch goes in and every row is in the change log
+        invalid.setAmount(new BigDecimal("1.00"));
+        repository.saveAll(batch);
+        assertEquals("Aprobada", repository.findById(existing.getId()).get().getStatus());
+        assertEquals(3, repository.count(null, null));
+        assertEquals(3, repository.findChangesSince(since, null, 100).getChanges().size());
+    }
+
+    private static LoanRequest loan(Long id, Long userId, String status, LocalDateTime createdAt) {
+        return TestHelper.createLoanRequest(id, userId, "Applicant " + id, new BigDecimal("1000"),
+                "EUR", "DOC" + id, status, createdAt);
+    }
+
+    private static UnaryOperator<LoanRequest> status(String status) {
+        return loan -> {
+            loan.setStatus(status);
+            return loan;
+        };
+    }
+
+    private static List<Long> ids(List<LoanRequest> loans) {
+        return loans.stream().map(LoanRequest::getId).collect(Collectors.toList());
+    }
+}
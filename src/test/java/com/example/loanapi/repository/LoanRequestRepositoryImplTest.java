@@ -0,0 +1,295 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoanRequestRepositoryImpl
+ */
+class LoanRequestRepositoryImplTest {
+
+    private LoanRequestRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LoanRequestRepositoryImpl();
+    }
+
+    @Test
+    void findByUserIdAndStatus_UsesIndexedValues() {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        repository.save(TestHelper.createLoanRequest(2L, 1L, "Aprobada"));
+        repository.save(TestHelper.createLoanRequest(3L, 2L, "Pendiente"));
+
+        assertEquals(2, repository.findByUserId(1L).size());
+        assertEquals(2, repository.findByStatus("Pendiente").size());
+
+        List<LoanRequest> result = repository.findByUserIdAndStatus(1L, "Pendiente");
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+    }
+
+    @Test
+    void save_StatusChangedInPlace_MovesLoanBetweenStatusIndexes() {
+        LoanRequest loan = repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+        loan.setStatus("Aprobada");
+        repository.save(loan);
+
+        assertTrue(repository.findByStatus("Pendiente").isEmpty());
+        assertEquals(1, repository.findByStatus("Aprobada").size());
+    }
+
+    @Test
+    void deleteById_RemovesLoanFromIndexes() {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+        repository.deleteById(1L);
+
+        assertTrue(repository.findByUserId(1L).isEmpty());
+        assertTrue(repository.findByStatus("Pendiente").isEmpty());
+    }
+
+    @Test
+    void findByUserId_NullUser_ReturnsEmpty() {
+        repository.save(TestHelper.createLoanRequest(1L, null, "Pendiente"));
+
+        assertTrue(repository.findByUserId(null).isEmpty());
+    }
+
+    @Test
+    void findPage_ReturnsPendienteFirstThenByCreatedAt() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(loan(1L, 1L, "Aprobada", now.minusDays(3)));
+        repository.save(loan(2L, 1L, "Pendiente", now.minusDays(1)));
+        repository.save(loan(3L, 2L, "Pendiente", now.minusDays(2)));
+        repository.save(loan(4L, 2L, "Rechazada", now.minusDays(4)));
+
+        List<LoanRequest> firstPage = repository.findPage(null, null, 0, 2);
+        List<LoanRequest> secondPage = repository.findPage(null, null, 2, 2);
+
+        assertEquals(List.of(3L, 2L), ids(firstPage));
+        assertEquals(List.of(4L, 1L), ids(secondPage));
+        assertEquals(4, repository.count(null, null));
+    }
+
+    @Test
+    void findPage_StatusTransition_MovesLoanOutOfPendingSection() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(loan(1L, 1L, "Pendiente", now.minusDays(2)));
+        LoanRequest second = repository.save(loan(2L, 1L, "Pendiente", now.minusDays(1)));
+        repository.save(loan(3L, 1L, "Aprobada", now.minusDays(3)));
+
+        second.setStatus("Rechazada");
+        repository.save(second);
+
+        assertEquals(List.of(1L, 3L, 2L), ids(repository.findPage(null, null, 0, 10)));
+        assertEquals(List.of(1L), ids(repository.findPage(1L, "Pendiente", 0, 10)));
+        assertEquals(1, repository.count(1L, "Pendiente"));
+        assertEquals(1, repository.count(null, "Rechazada"));
+        assertEquals(Map.of("Pendiente", 1L, "Aprobada", 1L, "Rechazada", 1L), repository.countByStatus(1L));
+
+        repository.deleteById(1L);
+        assertEquals(0, repository.count(1L, "Pendiente"));
+        assertEquals(2, repository.count(1L, null));
+        assertEquals(Map.of("Aprobada", 1L, "Rechazada", 1L), repository.countByStatus(null));
+    }
+
+    @Test
+    void update_AppliesChangeAndIncrementsVersion() {
+        LoanRequest saved = repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        assertEquals(1, saved.getVersion());
+
+        LoanRequest updated = repository.update(1L, 1L, loan -> {
+            loan.setStatus("Aprobada");
+            return loan;
+        }).get();
+
+        assertEquals(2, updated.getVersion());
+        assertEquals("Pendiente", saved.getStatus());
+        assertEquals("Aprobada", repository.findById(1L).get().getStatus());
+        assertEquals(1, repository.count(1L, "Aprobada"));
+        assertEquals(0, repository.count(1L, "Pendiente"));
+        assertFalse(repository.update(99L, null, loan -> loan).isPresent());
+    }
+
+    @Test
+    void update_StaleVersionOrFailingChange_LeavesLoanUnchanged() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.update(1L, null, loan -> loan);
+
+        VersionConflictException conflict = assertThrows(VersionConflictException.class,
+                () -> repository.update(1L, 1L, loan -> loan));
+        assertEquals(2, conflict.getCurrentVersion());
+
+        assertThrows(IllegalStateException.class, () -> repository.update(1L, 2L, loan -> {
+            loan.setStatus("Aprobada");
+            throw new IllegalStateException("rejected");
+        }));
+        LoanRequest stored = repository.findById(1L).get();
+        assertEquals("Pendiente", stored.getStatus());
+        assertEquals(2, stored.getVersion());
+        assertEquals(1, repository.count(null, "Pendiente"));
+    }
+
+    @Test
+    void update_ConcurrentTransitionsFromSameVersion_OnlyOneWins() throws Exception {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (String status : List.of("Aprobada", "Rechazada")) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        repository.update(1L, 1L, loan -> {
+                            loan.setStatus(status);
+                            return loan;
+                        });
+                        return true;
+                    } catch (VersionConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                winners += result.get() ? 1 : 0;
+            }
+            assertEquals(1, winners);
+            assertEquals(2, repository.findById(1L).get().getVersion());
+            assertEquals(0, repository.count(null, "Pendiente"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateAll_AppliesEachUpdateAndNetsCounters() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(2L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(3L, 2L, "Aprobada", LocalDateTime.now()));
+        List<LoanRequestUpdate> updates = List.of(
+                new LoanRequestUpdate(1L, 1L, status("Aprobada")),
+                new LoanRequestUpdate(2L, 5L, status("Aprobada")),
+                new LoanRequestUpdate(3L, null, loan -> {
+                    throw new IllegalStateException("rejected");
+                }),
+                new LoanRequestUpdate(4L, null, status("Aprobada")));
+
+        repository.updateAll(updates);
+
+        assertEquals("Aprobada", updates.get(0).getResult().getStatus());
+        assertTrue(updates.get(1).getFailure() instanceof VersionConflictException);
+        assertTrue(updates.get(2).getFailure() instanceof IllegalStateException);
+        assertNull(updates.get(3).getResult());
+        assertEquals(Map.of("Pendiente", 1L, "Aprobada", 1L), repository.countByStatus(1L));
+        assertEquals(Map.of("Pendiente", 1L, "Aprobada", 2L), repository.countByStatus(null));
+        assertEquals(1, repository.findByStatus("Pendiente").size());
+    }
+
+    @Test
+    void findChangesSince_ReturnsCurrentStateOncePerLoanAndTombstones() {
+        long start = repository.findChangesSince(0, null, 100).getNextSince();
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(2L, 2L, "Pendiente", LocalDateTime.now()));
+        repository.update(1L, null, status("Aprobada"));
+        repository.deleteById(2L);
+
+        LoanRequestChanges changes = repository.findChangesSince(start, null, 100);
+        assertFalse(changes.isResync());
+        assertFalse(changes.isHasMore());
+        assertEquals(start + 4, changes.getNextSince());
+        assertEquals(List.of(1L, 2L), changes.getChanges().stream()
+                .map(LoanRequestChange::getLoanId).collect(Collectors.toList()));
+        assertEquals("Aprobada", changes.getChanges().get(0).getLoanRequest().getStatus());
+        assertTrue(changes.getChanges().get(1).isDeleted());
+
+        LoanRequestChanges own = repository.findChangesSince(start, 1L, 100);
+        assertEquals(1, own.getChanges().size());
+        assertEquals(start + 4, own.getNextSince());
+        assertTrue(repository.findChangesSince(own.getNextSince(), null, 100).getChanges().isEmpty());
+    }
+
+    @Test
+    void findChangesSince_PositionFallenOffLog_SignalsResync() {
+        repository = new LoanRequestRepositoryImpl(3);
+        long start = repository.findChangesSince(0, null, 100).getNextSince();
+        for (long id = 1; id <= 5; id++) {
+            repository.save(loan(id, 1L, "Pendiente", LocalDateTime.now()));
+        }
+
+        LoanRequestChanges resync = repository.findChangesSince(start, null, 100);
+        assertTrue(resync.isResync());
+        assertEquals(start + 5, resync.getNextSince());
+
+        LoanRequestChanges paged = repository.findChangesSince(start + 2, null, 2);
+        assertEquals(2, paged.getChanges().size());
+        assertTrue(paged.isHasMore());
+        assertEquals(start + 4, paged.getNextSince());
+    }
+
+    @Test
+    void findChangesSince_ConcurrentWrites_RowsReflectEverySequenceRead() throws Exception {
+        long start = repository.getChangeSequence();
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        // Only loan 1 changes, so its version at sequence number n is n - start
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    repository.update(1L, null, UnaryOperator.identity());
+                }
+            });
+            long since = start;
+            while (!writer.isDone()) {
+                LoanRequestChanges changes = repository.findChangesSince(since, null, 100);
+                for (LoanRequestChange change : changes.getChanges()) {
+                    assertTrue(change.getLoanRequest().getVersion() >= change.getSequence() - start,
+                            "stale row read for sequence " + change.getSequence());
+                }
+                since = changes.getNextSince();
+                assertTrue(repository.findById(1L).get().getVersion() >= since - start,
+                        "stale row after reading up to " + since);
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static UnaryOperator<LoanRequest> status(String status) {
+        return loan -> {
+            loan.setStatus(status);
+            return loan;
+        };
+    }
+
+    private static LoanRequest loan(Long id, Long userId, String status, LocalDateTime createdAt) {
+        return TestHelper.createLoanRequest(id, userId, "Applicant " + id, new BigDecimal("1000"),
+                "EUR", "DOC" + id, status, createdAt);
+    }
+
+    private static List<Long> ids(List<LoanRequest> loans) {
+        return loans.stream().map(LoanRequest::getId).collect(Collectors.toList());
+    }
+}
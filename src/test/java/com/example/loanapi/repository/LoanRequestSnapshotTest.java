@@ -0,0 +1,82 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoanRequestSnapshot
+ */
+class LoanRequestSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead_RoundTripsEveryFieldAcrossChunks() throws IOException {
+        List<LoanRequest> loans = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            loans.add(TestHelper.createLoanRequest(id, id % 3, "Applicant " + id, new BigDecimal(id + ".50"),
+                    id % 2 == 0 ? "EUR" : "USD", "ABC" + (10000 + id), id % 4 == 0 ? "Aprobada" : "Pendiente",
+                    LocalDateTime.of(2024, 1, 1, 10, 0, 0, (int) id * 1000)));
+        }
+        // Nulls, a non-ASCII name and an amount that does not fit an unscaled long
+        loans.add(TestHelper.createLoanRequest(26L, null, null, null, null, null, null, null));
+        loans.add(TestHelper.createLoanRequest(27L, 9L, "Íñigo Muñoz", new BigDecimal("123456789012345678901234.5678"),
+                "EUR", "XYZ99999", "Rechazada", LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999)));
+
+        Path file = directory.resolve("snapshot.dat");
+        LoanRequestSnapshot.write(file, 42L, loans, 4);
+
+        List<LoanRequest> read = Collections.synchronizedList(new ArrayList<>());
+        assertEquals(42L, LoanRequestSnapshot.read(file, read::add));
+
+        read.sort(Comparator.comparing(LoanRequest::getId));
+        assertEquals(loans.size(), read.size());
+        for (int i = 0; i < loans.size(); i++) {
+            assertSameLoan(loans.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void writeAndRead_EmptySnapshot() throws IOException {
+        Path file = directory.resolve("snapshot.dat");
+        LoanRequestSnapshot.write(file, 7L, Collections.emptyList(), LoanRequestSnapshot.DEFAULT_CHUNK_ROWS);
+
+        List<LoanRequest> read = new ArrayList<>();
+        assertEquals(7L, LoanRequestSnapshot.read(file, read::add));
+        assertTrue(read.isEmpty());
+    }
+
+    @Test
+    void read_RejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("snapshot.dat");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> LoanRequestSnapshot.read(file, loan -> { }));
+    }
+
+    private static void assertSameLoan(LoanRequest expected, LoanRequest actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getApplicantName(), actual.getApplicantName());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getCurrency(), actual.getCurrency());
+        assertEquals(expected.getIdentityDocument(), actual.getIdentityDocument());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffHeapLoanRequestRepositoryImpl
+ */
+class OffHeapLoanRequestRepositoryImplTest {
+
+    private OffHeapLoanRequestRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OffHeapLoanRequestRepositoryImpl();
+    }
+
+    @Test
+    void findById_MaterializesEveryColumn() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000);
+        repository.save(TestHelper.createLoanRequest(1L, 7L, "Íñigo Muñoz", new BigDecimal("5000.5"),
+                "USD", "ABC12345", "Pendiente", createdAt));
+        repository.save(TestHelper.createLoanRequest(2L, null, null, null, null, null, null, null));
+
+        LoanRequest loan = repository.findById(1L).get();
+        assertEquals(7L, loan.getUserId());
+        assertEquals("Íñigo Muñoz", loan.getApplicantName());
+        assertEquals(new BigDecimal("5000.5"), loan.getAmount());
+        assertEquals("USD", loan.getCurrency());
+        assertEquals("ABC12345", loan.getIdentityDocument());
+        assertEquals("Pendiente", loan.getStatus());
+        assertEquals(createdAt, loan.getCreatedAt());
+
+        LoanRequest empty = repository.findById(2L).get();
+        assertNull(empty.getUserId());
+        assertNull(empty.getApplicantName());
+        assertNull(empty.getAmount());
+        assertNull(empty.getCurrency());
+        assertNull(empty.getIdentityDocument());
+        assertNull(empty.getStatus());
+        assertNull(empty.getCreatedAt());
+    }
+
+    @Test
+    void save_ReturnedCopyChangesOnlyAfterSave() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+
+        LoanRequest copy = repository.findById(1L).get();
+        copy.setStatus("Aprobada");
+        copy.setApplicantName("A much longer applicant name than before");
+        assertEquals("Pendiente", repository.findById(1L).get().getStatus());
+
+        repository.save(copy);
+        assertEquals("Aprobada", repository.findById(1L).get().getStatus());
+        assertEquals(2, repository.findById(1L).get().getVersion());
+        assertEquals("A much longer applicant name than before", repository.findById(1L).get().getApplicantName());
+        assertTrue(repository.findByStatus("Pendiente").isEmpty());
+    }
+
+    @Test
+    void save_ReturnsTheStoredValues() {
+        LoanRequest loan = loan(1L, 1L, "Pendiente", LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_456_789));
+        loan.setAmount(new BigDecimal("10.500"));
+
+        LoanRequest saved = repository.save(loan);
+        LoanRequest read = repository.findById(1L).get();
+        assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123_000_000), saved.getCreatedAt());
+        assertEquals(read.getCreatedAt(), saved.getCreatedAt());
+        assertEquals(read.getAmount(), saved.getAmount());
+
+        LoanRequest updated = repository.update(1L, null, next -> {
+            next.setCreatedAt(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 999_999_999));
+            return next;
+        }).get();
+        assertEquals(repository.findById(1L).get().getCreatedAt(), updated.getCreatedAt());
+    }
+
+    @Test
+    void update_ComparesAndSetsVersion() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+
+        LoanRequest updated = repository.update(1L, 1L, loan -> {
+            loan.setStatus("Rechazada");
+            return loan;
+        }).get();
+        assertEquals(2, updated.getVersion());
+        assertEquals(1, repository.count(1L, "Rechazada"));
+        assertEquals(0, repository.count(1L, "Pendiente"));
+
+        assertThrows(VersionConflictException.class, () -> repository.update(1L, 1L, loan -> loan));
+        assertEquals("Rechazada", repository.findById(1L).get().getStatus());
+    }
+
+    @Test
+    void save_AmountWithMoreThanTwoDecimals_IsRejected() {
+        LoanRequest loan = loan(1L, 1L, "Pendiente", LocalDateTime.now());
+        loan.setAmount(new BigDecimal("10.125"));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.save(loan));
+        assertFalse(repository.findById(1L).isPresent());
+    }
+
+    @Test
+    void deleteById_FreesRowForReuse() {
+        repository.save(loan(1L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(2L, 2L, "Pendiente", LocalDateTime.now()));
+
+        repository.deleteById(1L);
+        repository.save(loan(3L, 3L, "Aprobada", LocalDateTime.now()));
+
+        assertFalse(repository.findById(1L).isPresent());
+        assertEquals(List.of(2L, 3L), ids(repository.findPage(null, null, 0, 10)));
+        assertTrue(repository.findByUserId(1L).isEmpty());
+        assertEquals(2, repository.count(null, null));
+    }
+
+    @Test
+    void findPage_ReturnsPendienteFirstThenByCreatedAt() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(loan(1L, 1L, "Aprobada", now.minusDays(3)));
+        repository.save(loan(2L, 1L, "Pendiente", now.minusDays(1)));
+        repository.save(loan(3L, 2L, "Pendiente", now.minusDays(2)));
+        repository.save(loan(4L, 2L, "Rechazada", now.minusDays(4)));
+        repository.save(loan(5L, 2L, "Rechazada", null));
+
+        assertEquals(List.of(3L, 2L), ids(repository.findPage(null, null, 0, 2)));
+        assertEquals(List.of(4L, 1L), ids(repository.findPage(null, null, 2, 2)));
+        assertEquals(List.of(5L), ids(repository.findPage(null, null, 4, 2)));
+        assertEquals(List.of(1L), ids(repository.findPage(1L, "Aprobada", 0, 10)));
+        assertEquals(2, repository.count(2L, "Rechazada"));
+        assertEquals(0, repository.count(null, "Cancelada"));
+    }
+
+    @Test
+    void findPageAfter_WalksAllRowsAcrossManyBlocks() {
+        int total = LoanRequestColumns.BLOCK_ROWS + 100;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= total; id++) {
+            repository.save(loan(id, id % 5, id % 3 == 0 ? "Pendiente" : "Aprobada", start.plusSeconds(id / 2)));
+        }
+
+        long seen = 0;
+        LoanRequestSortKey after = null;
+        LoanRequestSortKey previous = null;
+        while (true) {
+            List<LoanRequest> page = repository.findPageAfter(2L, null, after, 1000);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (LoanRequest loan : page) {
+                LoanRequestSortKey key = LoanRequestSortKey.of(loan);
+                assertTrue(previous == null || previous.compareTo(key) < 0);
+                assertEquals(2L, loan.getUserId());
+                previous = key;
+            }
+            seen += page.size();
+            after = LoanRequestSortKey.of(page.get(page.size() - 1));
+        }
+        assertEquals(repository.count(2L, null), seen);
+        assertTrue(repository.offHeapBytes() > 0);
+    }
+
+    @Test
+    void findChangesSince_RecordsWritesUpdatesAndDeletes() {
+        long start = repository.findChangesSince(0, null, 100).getNextSince();
+        repository.saveAll(List.of(loan(1L, 1L, "Pendiente", LocalDateTime.now()),
+                loan(2L, 2L, "Pendiente", LocalDateTime.now())));
+        repository.update(2L, null, loan -> {
+            loan.setStatus("Rechazada");
+            return loan;
+        });
+        repository.deleteById(1L);
+
+        LoanRequestChanges changes = repository.findChangesSince(start, null, 100);
+        assertEquals(start + 4, changes.getNextSince());
+        assertEquals(2L, changes.getChanges().get(0).getLoanId());
+        assertEquals("Rechazada", changes.getChanges().get(0).getLoanRequest().getStatus());
+        assertTrue(changes.getChanges().get(1).isDeleted());
+    }
+
+    private static LoanRequest loan(Long id, Long userId, String status, LocalDateTime createdAt) {
+        return TestHelper.createLoanRequest(id, userId, "Applicant " + id, new BigDecimal("1000"),
+                "EUR", "DOC" + id, status, createdAt);
+    }
+
+    private static List<Long> ids(List<LoanRequest> loans) {
+        return loans.stream().map(LoanRequest::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.LoanRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Builds on-disk repository fixtures for tests and benchmarks outside this package
+ */
+public final class RepositoryFixtures {
+
+    private RepositoryFixtures() {
+    }
+
+    /**
+     * Write loan requests as write-ahead log records, without waiting for each fsync
+     *
+     * @param directory the log directory
+     * @param loans the loan requests to log (must have IDs)
+     * @throws IOException if the log cannot be written
+     */
+    public static void writeLog(Path directory, Iterable<LoanRequest> loans) throws IOException {
+        try (WriteAheadLog wal = WriteAheadLog.open(directory, 0, 4096, 0, (lsn, type, payload) -> { })) {
+            for (LoanRequest loanRequest : loans) {
+                wal.append(WriteAheadLog.PUT, LoanRequestCodec.encode(loanRequest));
+            }
+        }
+    }
+
+    /**
+     * Recover the repository in a directory and compact it into a snapshot
+     *
+     * @param directory the repository directory
+     * @throws IOException if recovery or compaction fails
+     */
+    public static void compact(Path directory) throws IOException {
+        WalLoanRequestRepositoryImpl repository =
+                new WalLoanRequestRepositoryImpl(directory.toString(), 0, 4096, 0, Long.MAX_VALUE);
+        try {
+            repository.compact();
+        } finally {
+            repository.close();
+        }
+    }
+}
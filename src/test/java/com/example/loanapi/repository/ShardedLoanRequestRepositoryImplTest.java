@@ -0,0 +1,183 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.exception.VersionConflictException;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardedLoanRequestRepositoryImpl
+ */
+class ShardedLoanRequestRepositoryImplTest {
+
+    private ShardedLoanRequestRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedLoanRequestRepositoryImpl(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void save_GeneratedIdsAreUniqueAndFoundAcrossShards() {
+        Set<Long> ids = new HashSet<>();
+        for (long userId = 1; userId <= 40; userId++) {
+            LoanRequest saved = repository.save(loan(null, userId, "Pendiente", LocalDateTime.now()));
+            assertTrue(ids.add(saved.getId()));
+            assertEquals(userId, repository.findById(saved.getId()).get().getUserId());
+        }
+        assertEquals(40, repository.findAll().size());
+        assertEquals(40, repository.count(null, null));
+    }
+
+    @Test
+    void save_ExplicitIdsNeverCollideWithGeneratedOnes() {
+        // Explicit IDs outside their owner's home shard, as a restore or import may bring
+        for (long id = 1; id <= 10; id++) {
+            repository.save(loan(id * 7, id, "Aprobada", LocalDateTime.now()));
+        }
+        for (long id = 1; id <= 10; id++) {
+            assertEquals(id, repository.findById(id * 7).get().getUserId());
+        }
+
+        List<LoanRequest> created = new ArrayList<>();
+        for (long userId = 1; userId <= 20; userId++) {
+            created.add(loan(null, userId, "Pendiente", LocalDateTime.now()));
+        }
+        repository.saveAll(created);
+
+        assertTrue(created.stream().allMatch(loan -> loan.getId() > 70));
+        assertEquals(30, repository.findAll().stream().map(LoanRequest::getId).distinct().count());
+    }
+
+    @Test
+    void findPage_MergesShardsInListingOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<LoanRequest> loans = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            loans.add(loan(null, (long) (i % 37), i % 3 == 0 ? "Pendiente" : "Aprobada", start.plusMinutes(i % 50)));
+        }
+        repository.saveAll(loans);
+        List<LoanRequest> expected = new ArrayList<>(loans);
+        expected.sort((a, b) -> LoanRequestSortKey.of(a).compareTo(LoanRequestSortKey.of(b)));
+
+        assertEquals(ids(expected.subList(40, 60)), ids(repository.findPage(null, null, 40, 20)));
+
+        List<Long> walked = new ArrayList<>();
+        LoanRequestSortKey after = null;
+        while (true) {
+            List<LoanRequest> page = repository.findPageAfter(null, "Aprobada", after, 64);
+            if (page.isEmpty()) {
+                break;
+            }
+            walked.addAll(ids(page));
+            after = LoanRequestSortKey.of(page.get(page.size() - 1));
+        }
+        assertEquals(ids(expected.stream().filter(loan -> "Aprobada".equals(loan.getStatus()))
+                .collect(Collectors.toList())), walked);
+        assertEquals(ids(repository.findByStatus("Aprobada")), walked);
+    }
+
+    @Test
+    void countAndUserQueries_CombineShardsOrHitOne() {
+        repository.save(loan(null, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(null, 1L, "Aprobada", LocalDateTime.now()));
+        repository.save(loan(null, 2L, "Aprobada", LocalDateTime.now()));
+        repository.save(loan(null, 3L, "Rechazada", LocalDateTime.now()));
+
+        assertEquals(Map.of("Aprobada", 2L, "Pendiente", 1L, "Rechazada", 1L), repository.countByStatus(null));
+        assertEquals(Map.of("Aprobada", 1L, "Pendiente", 1L), repository.countByStatus(1L));
+        assertEquals(2, repository.count(null, "Aprobada"));
+        assertEquals(2, repository.findByUserId(1L).size());
+        assertEquals(1, repository.findByUserIdAndStatus(1L, "Aprobada").size());
+        assertEquals(1, repository.findPage(2L, null, 0, 10).size());
+    }
+
+    @Test
+    void update_ComparesAndSetsVersionAndKeepsOwnerShard() {
+        LoanRequest saved = repository.save(loan(null, 1L, "Pendiente", LocalDateTime.now()));
+        Long id = saved.getId();
+
+        LoanRequest updated = repository.update(id, 1L, loan -> {
+            loan.setStatus("Aprobada");
+            return loan;
+        }).get();
+        assertEquals(2, updated.getVersion());
+        assertThrows(VersionConflictException.class, () -> repository.update(id, 1L, loan -> loan));
+
+        long otherShardUser = 2;
+        while (repository.shardOf(otherShardUser) == repository.shardOf(1L)) {
+            otherShardUser++;
+        }
+        long newOwner = otherShardUser;
+        assertThrows(IllegalArgumentException.class, () -> repository.update(id, null, loan -> {
+            loan.setUserId(newOwner);
+            return loan;
+        }));
+        assertEquals(1L, repository.findById(id).get().getUserId());
+    }
+
+    @Test
+    void updateAll_RoutesEveryUpdateAndReportsOutcomes() {
+        LoanRequest first = repository.save(loan(null, 1L, "Pendiente", LocalDateTime.now()));
+        LoanRequest second = repository.save(loan(null, 2L, "Pendiente", LocalDateTime.now()));
+        List<LoanRequestUpdate> updates = List.of(
+                new LoanRequestUpdate(first.getId(), 1L, approve()),
+                new LoanRequestUpdate(second.getId(), 5L, approve()),
+                new LoanRequestUpdate(999L, null, approve()));
+
+        repository.updateAll(updates);
+
+        assertEquals("Aprobada", updates.get(0).getResult().getStatus());
+        assertTrue(updates.get(1).getFailure() instanceof VersionConflictException);
+        assertNull(updates.get(2).getResult());
+        assertNull(updates.get(2).getFailure());
+        assertEquals(1, repository.count(null, "Aprobada"));
+    }
+
+    @Test
+    void deleteById_RemovesRelocatedLoan() {
+        repository.save(loan(7L, 1L, "Pendiente", LocalDateTime.now()));
+        repository.save(loan(8L, 2L, "Pendiente", LocalDateTime.now()));
+
+        repository.deleteById(7L);
+
+        assertFalse(repository.findById(7L).isPresent());
+        assertTrue(repository.findByUserId(1L).isEmpty());
+        assertEquals(1, repository.count(null, null));
+    }
+
+    private static UnaryOperator<LoanRequest> approve() {
+        return loan -> {
+            loan.setStatus("Aprobada");
+            return loan;
+        };
+    }
+
+    private static LoanRequest loan(Long id, Long userId, String status, LocalDateTime createdAt) {
+        return TestHelper.createLoanRequest(id, userId, "Applicant " + id, new BigDecimal("1000"),
+                "EUR", "DOC" + id, status, createdAt);
+    }
+
+    private static List<Long> ids(List<LoanRequest> loans) {
+        return loans.stream().map(LoanRequest::getId).collect(Collectors.toList());
+    }
+}
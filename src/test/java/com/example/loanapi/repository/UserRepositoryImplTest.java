@@ -0,0 +1,129 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserRepositoryImpl
+ */
+class UserRepositoryImplTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void constructor_LoadsUsersFileBesidesPredefinedUsers() throws IOException {
+        Path file = directory.resolve("users.csv");
+        Files.write(file, Arrays.asList(
+                "# id,name,email,role,token",
+                "100,Anna Verdi,anna.verdi@example.com,CLIENTE,token-100",
+                "",
+                "101, Paolo Neri ,paolo.neri@example.com,GESTORE,token-101"), StandardCharsets.UTF_8);
+
+        UserRepositoryImpl repository = new UserRepositoryImpl(file.toString());
+
+        assertEquals(4, repository.count());
+        User anna = repository.findByToken("token-100").orElseThrow();
+        assertEquals(100L, anna.getId());
+        assertEquals(UserRole.CLIENTE, anna.getRole());
+        assertEquals("Paolo Neri", repository.findById(101L).orElseThrow().getName());
+        assertEquals(UserRole.GESTORE, repository.findById(2L).orElseThrow().getRole());
+        assertTrue(repository.findByToken("token-999").isEmpty());
+        assertTrue(repository.findByToken(null).isEmpty());
+    }
+
+    @Test
+    void constructor_MalformedOrDuplicateLine_FailsWithLineNumber() throws IOException {
+        Path malformed = directory.resolve("malformed.csv");
+        Files.write(malformed, Arrays.asList(
+                "100,Anna Verdi,anna.verdi@example.com,CLIENTE,token-100",
+                "101,Paolo Neri,paolo.neri@example.com,ADMIN,token-101"), StandardCharsets.UTF_8);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new UserRepositoryImpl(malformed.toString()));
+        assertTrue(e.getMessage().contains(":2: invalid role"), e.getMessage());
+
+        Path duplicate = directory.resolve("duplicate.csv");
+        Files.write(duplicate, Arrays.asList(
+                "100,Anna Verdi,anna.verdi@example.com,CLIENTE,token-100",
+                "101,Paolo Neri,paolo.neri@example.com,GESTORE,token-100"), StandardCharsets.UTF_8);
+        e = assertThrows(IllegalStateException.class, () -> new UserRepositoryImpl(duplicate.toString()));
+        assertTrue(e.getMessage().contains(":2: Token already in use"), e.getMessage());
+    }
+
+    @Test
+    void addAndRevoke_UpdateBothIndexes() {
+        UserRepositoryImpl repository = new UserRepositoryImpl();
+        repository.add(new User(10L, "Anna Verdi", "anna.verdi@example.com", UserRole.CLIENTE, "token-10"));
+
+        assertEquals(10L, repository.findByToken("token-10").orElseThrow().getId());
+        assertThrows(IllegalArgumentException.class, () -> repository.add(
+                new User(10L, "Other", "other@example.com", UserRole.CLIENTE, "token-11")));
+        assertThrows(IllegalArgumentException.class, () -> repository.add(
+                new User(11L, "Other", "other@example.com", UserRole.CLIENTE, "token-10")));
+
+        assertTrue(repository.revoke("token-10"));
+        assertFalse(repository.revoke("token-10"));
+        assertTrue(repository.findByToken("token-10").isEmpty());
+        assertTrue(repository.findById(10L).isEmpty());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void addAndRevoke_ConcurrentWithLookups_IndexesStayConsistent() throws Exception {
+        UserRepositoryImpl repository = new UserRepositoryImpl();
+        int users = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int first = 1000 + writer * users;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < first + users; i++) {
+                        repository.add(new User((long) i, "User " + i, i + "@example.com", UserRole.CLIENTE,
+                                "token-" + i));
+                        if (i % 2 == 0) {
+                            assertTrue(repository.revoke("token-" + i));
+                        }
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < 5; round++) {
+                        for (int i = 1000; i < 1000 + 2 * users; i++) {
+                            // A user found by token is found by ID too, unless revoked meanwhile
+                            repository.findByToken("token-" + i).ifPresent(user -> assertTrue(
+                                    repository.findById(user.getId()).isPresent() || !repository
+                                            .findByToken("token-" + user.getId()).isPresent()));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2 + users, repository.count());
+        assertTrue(repository.findByToken("token-1001").isPresent());
+        assertTrue(repository.findById(1000L).isEmpty());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.loanapi.repository;
+
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.LoanRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WalLoanRequestRepositoryImpl
+ * Each "restart" closes the repository and opens a new one on the same directory
+ */
+class WalLoanRequestRepositoryImplTest {
+
+    @TempDir
+    Path directory;
+
+    private WalLoanRequestRepositoryImpl repository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    @Test
+    void restart_ReplaysSavesAndDeletes() throws IOException {
+        repository = open();
+        LoanRequest first = repository.save(newLoan(1L, "Pendiente"));
+        repository.save(newLoan(1L, "Pendiente"));
+        LoanRequest third = repository.save(newLoan(2L, "Pendiente"));
+        first.setStatus("Aprobada");
+        repository.save(first);
+        repository.deleteById(third.getId());
+
+        restart();
+
+        assertEquals(2, repository.findAll().size());
+        assertEquals("Aprobada", repository.findById(first.getId()).get().getStatus());
+        assertFalse(repository.findById(third.getId()).isPresent());
+        assertEquals(new BigDecimal("1234.50"), repository.findById(first.getId()).get().getAmount());
+        assertEquals(1, repository.findByStatus("Pendiente").size());
+        assertEquals(2, repository.findById(first.getId()).get().getVersion());
+        // Replayed saves and deletes are not changes: nothing before the head is in the log
+        long head = repository.getChangeSequence();
+        assertTrue(repository.findChangesSince(head - 1, null, 10).isResync());
+    }
+
+    @Test
+    void restart_GeneratedIdsContinueAfterRecoveredOnes() throws IOException {
+        repository = open();
+        repository.save(newLoan(1L, "Pendiente"));
+        LoanRequest last = repository.save(newLoan(1L, "Pendiente"));
+
+        restart();
+
+        LoanRequest created = repository.save(newLoan(1L, "Pendiente"));
+        assertTrue(created.getId() > last.getId());
+    }
+
+    @Test
+    void compact_WritesSnapshotAndDropsCoveredSegments() throws IOException {
+        repository = open();
+        LoanRequest loan = repository.save(newLoan(1L, "Pendiente"));
+        for (int i = 0; i < 10; i++) {
+            repository.save(newLoan(2L, "Pendiente"));
+        }
+        repository.compact();
+        loan.setStatus("Rechazada");
+        repository.save(loan);
+
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(1, files("wal-").size());
+
+        restart();
+
+        assertEquals(11, repository.findAll().size());
+        assertEquals("Rechazada", repository.findById(loan.getId()).get().getStatus());
+    }
+
+    @Test
+    void compact_RepeatedKeepsOnlyLatestSnapshot() throws IOException {
+        repository = open();
+        LoanRequest loan = repository.save(newLoan(1L, "Pendiente"));
+        repository.compact();
+        repository.deleteById(loan.getId());
+        LoanRequest kept = repository.save(newLoan(3L, "Aprobada"));
+        repository.compact();
+
+        assertEquals(1, files("snapshot-").size());
+
+        restart();
+
+        assertFalse(repository.findById(loan.getId()).isPresent());
+        assertEquals(List.of(kept.getId()), repository.findByUserIdAndStatus(3L, "Aprobada").stream()
+                .map(LoanRequest::getId).collect(Collectors.toList()));
+        assertTrue(repository.save(newLoan(1L, "Pendiente")).getId() > kept.getId());
+    }
+
+    @Test
+    void restart_TornTailIsDiscarded() throws IOException {
+        repository = open();
+        repository.save(newLoan(1L, "Pendiente"));
+        repository.close();
+
+        Path segment = files("wal-").get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}));
+        }
+
+        repository = open();
+        assertEquals(1, repository.findAll().size());
+        LoanRequest created = repository.save(newLoan(1L, "Pendiente"));
+
+        restart();
+
+        assertTrue(repository.findById(created.getId()).isPresent());
+        assertEquals(2, repository.findAll().size());
+    }
+
+    private WalLoanRequestRepositoryImpl open() throws IOException {
+        return new WalLoanRequestRepositoryImpl(directory.toString(), 1, 64, 0, Long.MAX_VALUE);
+    }
+
+    private void restart() throws IOException {
+        repository.close();
+        repository = open();
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static LoanRequest newLoan(Long userId, String status) {
+        return TestHelper.createLoanRequest(null, userId, "Applicant", new BigDecimal("1234.50"),
+                "EUR", "ABC12345", status, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.loanapi.security;
+
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SignedTokens
+ */
+class SignedTokensTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserRepositoryImpl userRepository = new UserRepositoryImpl();
+    private final SignedTokens signedTokens = new SignedTokens(objectMapper, userRepository, SECRET, 3600, 100);
+
+    @Test
+    void verify_IssuedToken_ReturnsUserWithoutLookup() {
+        String token = signedTokens.issue(new User(7L, "Mario Rossi", "mario.rossi@example.com", UserRole.CLIENTE, "opaque"));
+
+        assertTrue(SignedTokens.isSigned(token));
+        assertFalse(SignedTokens.isSigned("e73646661fb64a809b81bd80853c27d8"));
+        User user = signedTokens.verify(token);
+        assertEquals(7L, user.getId());
+        assertEquals(UserRole.CLIENTE, user.getRole());
+        // Claims are kept: the same user is returned without verifying again
+        assertSame(user, signedTokens.verify(token));
+
+        // Another key, e.g. another deployment, does not accept it
+        SignedTokens other = new SignedTokens(objectMapper, userRepository, "fedcba9876543210fedcba9876543210", 3600, 100);
+        assertNull(other.verify(token));
+    }
+
+    @Test
+    void verify_TamperedMalformedOrExpired_ReturnsNull() {
+        String token = signedTokens.issue(new User(7L, null, null, UserRole.CLIENTE, null));
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
+        String elevated = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("CLIENTE", "GESTORE").getBytes());
+
+        assertNull(signedTokens.verify(parts[0] + "." + elevated + "." + parts[2]));
+        assertNull(signedTokens.verify(parts[0] + "." + parts[1] + ".!!"));
+        assertNull(signedTokens.verify(parts[0] + "." + parts[1]));
+        assertNull(signedTokens.verify("a.b.c"));
+
+        String expired = signedTokens.issue(7L, UserRole.CLIENTE, System.currentTimeMillis() / 1000 - 1);
+        assertNull(signedTokens.verify(expired));
+    }
+
+    @Test
+    void revoke_TokenRejectedFromThenOn() {
+        String token = signedTokens.issue(new User(7L, null, null, UserRole.GESTORE, null));
+        String other = signedTokens.issue(new User(7L, null, null, UserRole.GESTORE, null));
+        assertNotNull(signedTokens.verify(token));
+
+        assertTrue(signedTokens.revoke(token));
+        assertFalse(signedTokens.revoke(token));
+        assertNull(signedTokens.verify(token));
+        // Only that token: the user's other tokens still work
+        assertNotNull(signedTokens.verify(other));
+    }
+
+    @Test
+    void verify_UserRevoked_IssuedTokensRejected() {
+        User user = new User(8L, "Anna Bianchi", "anna.bianchi@example.com", UserRole.CLIENTE, "revoke-test-token");
+        userRepository.add(user);
+        String token = signedTokens.issue(user);
+        String other = signedTokens.issue(new User(9L, null, null, UserRole.CLIENTE, null));
+        assertNotNull(signedTokens.verify(token));
+
+        assertTrue(userRepository.revoke("revoke-test-token"));
+        // Rejected even though its claims are cached and the token itself was never revoked
+        assertNull(signedTokens.verify(token));
+        assertNotNull(signedTokens.verify(other));
+
+        // Added again right away: new tokens work, the old one stays rejected
+        userRepository.add(new User(8L, "Anna Bianchi", "anna.bianchi@example.com", UserRole.CLIENTE, "readded-token"));
+        assertNotNull(signedTokens.verify(signedTokens.issue(user)));
+        assertNull(signedTokens.verify(token));
+    }
+
+    @Test
+    void verify_CacheFullOfExpiredTokens_FreshTokenStillCached() {
+        AtomicLong clock = new AtomicLong(1_700_000_000L);
+        SignedTokens tokens = new SignedTokens(objectMapper, userRepository, SECRET, 60, 2, clock::get);
+        for (int i = 0; i < 2; i++) {
+            assertNotNull(tokens.verify(tokens.issue(new User((long) i, null, null, UserRole.CLIENTE, null))));
+        }
+
+        // The cached tokens expire without being presented again
+        clock.addAndGet(120);
+        String fresh = tokens.issue(new User(9L, null, null, UserRole.CLIENTE, null));
+        User user = tokens.verify(fresh);
+        assertNotNull(user);
+        assertSame(user, tokens.verify(fresh));
+    }
+
+    @Test
+    void constructor_ShortSecret_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SignedTokens(objectMapper, userRepository, "short", 3600, 100));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.loanapi.security;
+
+import com.example.loanapi.exception.UnauthorizedException;
+import com.example.loanapi.model.User;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserContext
+ */
+class UserContextTest {
+
+    private final User cliente = new User(1L, "Mario Rossi", "mario.rossi@example.com", UserRole.CLIENTE, "token-1");
+    private UserRepository userRepository;
+    private UserRepository previousUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Restored afterwards for the application contexts other tests share
+        previousUserRepository = (UserRepository) ReflectionTestUtils.getField(UserContext.class, "userRepository");
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByToken("token-1")).thenReturn(Optional.of(cliente));
+        new UserContext().setUserRepository(userRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        new UserContext().setUserRepository(previousUserRepository);
+    }
+
+    @Test
+    void getCurrentUser_LooksUpTheTokenOncePerRequest() {
+        long lookupsBefore = UserContext.getLookupCount();
+
+        startRequest("Bearer token-1");
+        assertSame(cliente, UserContext.getCurrentUser());
+        assertEquals(UserRole.CLIENTE, UserContext.getCurrentUserRole());
+        assertEquals(1L, UserContext.getCurrentUserId());
+        assertSame(cliente, UserContext.getCurrentUser());
+
+        verify(userRepository, times(1)).findByToken("token-1");
+        assertEquals(lookupsBefore + 1, UserContext.getLookupCount());
+
+        // A new request looks the user up again
+        startRequest("Bearer token-1");
+        UserContext.getCurrentUserId();
+        verify(userRepository, times(2)).findByToken("token-1");
+        assertEquals(lookupsBefore + 2, UserContext.getLookupCount());
+    }
+
+    @Test
+    void getCurrentUser_MissingOrUnknownToken_Unauthorized() {
+        startRequest(null);
+        assertThrows(UnauthorizedException.class, UserContext::getCurrentUser);
+
+        startRequest("Bearer unknown");
+        assertThrows(UnauthorizedException.class, UserContext::getCurrentUser);
+        assertThrows(UnauthorizedException.class, UserContext::getCurrentUser);
+    }
+
+    private static void startRequest(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
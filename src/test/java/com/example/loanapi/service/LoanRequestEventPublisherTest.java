@@ -0,0 +1,78 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestEventDTO;
+import com.example.loanapi.dto.LoanRequestResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoanRequestEventPublisher
+ */
+class LoanRequestEventPublisherTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private LoanRequestEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new LoanRequestEventPublisher(BUFFER_SIZE, 60_000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    void publish_SlowSubscriberIsDroppedOthersStay() throws Exception {
+        SseEmitter slow = publisher.subscribe(null);
+        publisher.subscribe(1L);
+
+        // The emitter's own lock stalls its sender mid-write, as a full socket would
+        synchronized (slow) {
+            publisher.publish(event(1L, 2L));
+            waitUntil(() -> Thread.getAllStackTraces().keySet().stream()
+                    .anyMatch(thread -> thread.getName().startsWith("loan-events-")
+                            && thread.getState() == Thread.State.BLOCKED));
+            for (long id = 2; id <= BUFFER_SIZE + 2; id++) {
+                publisher.publish(event(id, 2L));
+            }
+        }
+
+        waitUntil(() -> publisher.getSubscriberCount() == 1);
+        assertEquals(1, publisher.getSubscriberCount());
+    }
+
+    @Test
+    void publish_FilteredEventsDoNotFillOwnerBuffer() throws Exception {
+        publisher.subscribe(1L);
+
+        for (long id = 1; id <= BUFFER_SIZE * 10; id++) {
+            publisher.publish(event(id, 2L));
+        }
+
+        assertEquals(1, publisher.getSubscriberCount());
+    }
+
+    private static LoanRequestEventDTO event(long loanId, long userId) {
+        LoanRequestResponseDTO loan = new LoanRequestResponseDTO();
+        loan.setId(loanId);
+        loan.setUserId(userId);
+        loan.setStatus("Aprobada");
+        return LoanRequestEventDTO.of(LoanRequestEventDTO.STATUS_CHANGED, loan);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
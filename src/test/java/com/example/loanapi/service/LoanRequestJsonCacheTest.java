@@ -0,0 +1,123 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestJson;
+import com.example.loanapi.dto.LoanRequestResponseDTO;
+import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.mapper.LoanRequestMapper;
+import com.example.loanapi.model.LoanRequest;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LoanRequestJsonCache
+ */
+class LoanRequestJsonCacheTest {
+
+    // Configured as Spring Boot configures the application's mapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private LoanRequestRepository repository;
+    private LoanRequestJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LoanRequestRepositoryImpl();
+        cache = new LoanRequestJsonCache(repository, objectMapper, 100);
+    }
+
+    @Test
+    void toJson_PageIsByteIdenticalToSerializedDtos() throws Exception {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        repository.save(TestHelper.createLoanRequest(2L, 2L, "Aprobada"));
+        List<LoanRequest> rows = repository.findPage(null, null, 0, 10);
+
+        List<LoanRequestResponseDTO> dtos = rows.stream()
+                .map(LoanRequestMapper::toResponseDTO)
+                .collect(Collectors.toList());
+        List<LoanRequestJson> fragments = cache.toJson(rows, repository.getChangeSequence());
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(new PageResponse<>(dtos, 2L, 1, 0, 10, "abc")),
+                objectMapper.writeValueAsBytes(new PageResponse<>(fragments, 2L, 1, 0, 10, "abc")));
+        assertArrayEquals(objectMapper.writeValueAsBytes(dtos.get(0)),
+                objectMapper.writeValueAsBytes(fragments.get(0)));
+    }
+
+    @Test
+    void toJson_ReusedUntilTheLoanRequestChanges() {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        LoanRequestJson first = cache.toJson(repository.findById(1L).get(), repository.getChangeSequence());
+        assertSame(first, cache.toJson(repository.findById(1L).get(), repository.getChangeSequence()));
+
+        repository.update(1L, null, loan -> {
+            loan.setAmount(new BigDecimal("42.00"));
+            return loan;
+        });
+        LoanRequestJson updated = cache.toJson(repository.findById(1L).get(), repository.getChangeSequence());
+        assertNotSame(first, updated);
+        assertTrue(updated.toString().contains("42.00"), updated.toString());
+    }
+
+    @Test
+    void toJson_SavedAgainUnderSameIdAndVersion_NotServedFromCache() {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        LoanRequestJson first = cache.toJson(repository.findById(1L).get(), repository.getChangeSequence());
+
+        repository.deleteById(1L);
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Rechazada"));
+        LoanRequest again = repository.findById(1L).get();
+        assertEquals(first.getVersion(), again.getVersion());
+
+        LoanRequestJson json = cache.toJson(again, repository.getChangeSequence());
+        assertTrue(json.toString().contains("Rechazada"), json.toString());
+    }
+
+    @Test
+    void toJson_ReadBeforeALaterChange_NotKept() {
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        long readAt = repository.getChangeSequence();
+        LoanRequest stale = repository.findById(1L).get();
+        repository.save(TestHelper.createLoanRequest(2L, 2L, "Pendiente"));
+        cache.toJson(repository.findById(2L).get(), repository.getChangeSequence());
+
+        cache.toJson(stale, readAt);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void toJson_CatchUpReadsChangedIdsWithoutLoadingLoans() {
+        LoanRequestRepository spied = spy(new LoanRequestRepositoryImpl());
+        LoanRequestJsonCache spiedCache = new LoanRequestJsonCache(spied, objectMapper, 100);
+        spied.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        spiedCache.toJson(spied.findById(1L).get(), spied.getChangeSequence());
+        spied.update(1L, null, loan -> {
+            loan.setStatus("Aprobada");
+            return loan;
+        });
+        LoanRequest updated = spied.findById(1L).get();
+        long readAt = spied.getChangeSequence();
+        clearInvocations(spied);
+
+        assertTrue(spiedCache.toJson(updated, readAt).toString().contains("Aprobada"));
+        verify(spied).findChangedIdsSince(anyLong(), anyInt());
+        verify(spied, never()).findChangesSince(anyLong(), any(), anyInt());
+        verify(spied, never()).findById(any());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.mapper.LoanRequestMapper;
+import com.example.loanapi.model.LoanRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that LoanRequestJsonWriter matches the application ObjectMapper byte for byte
+ */
+@JsonTest
+class LoanRequestJsonWriterTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void write_SameBytesAsSerializedDto() throws Exception {
+        assertSameJson(TestHelper.createLoanRequest(1L, 7L, "Mario Rossi", new BigDecimal("5000.00"),
+                "EUR", "AB123456", "Pendiente", LocalDateTime.of(2024, 2, 4, 10, 30, 15, 123_000_000)));
+    }
+
+    @Test
+    void write_TrickyValues_SameBytesAsSerializedDto() throws Exception {
+        LoanRequest loanRequest = TestHelper.createLoanRequest(Long.MAX_VALUE, -1L,
+                "Zoë \"Z\" O'Brien\t\\ \u0001 € 😀", new BigDecimal("1E+3"),
+                "EUR", "A</script>", "Cancelada", LocalDateTime.of(2024, 1, 1, 0, 0));
+        loanRequest.setVersion(42);
+        assertSameJson(loanRequest);
+
+        loanRequest.setAmount(new BigDecimal("0.000001"));
+        loanRequest.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0, 0, 1));
+        assertSameJson(loanRequest);
+    }
+
+    @Test
+    void write_NullFields_SameBytesAsSerializedDto() throws Exception {
+        assertSameJson(new LoanRequest());
+    }
+
+    private void assertSameJson(LoanRequest loanRequest) throws Exception {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(written)) {
+            LoanRequestJsonWriter.write(generator, loanRequest);
+        }
+        byte[] expected = objectMapper.writeValueAsBytes(LoanRequestMapper.toResponseDTO(loanRequest));
+        assertArrayEquals(expected, written.toByteArray(),
+                () -> "expected " + new String(expected) + " but was " + written);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.loanapi.service;
+
+import com.example.loanapi.dto.LoanRequestJson;
+import com.example.loanapi.dto.PageCacheStatsDTO;
+import com.example.loanapi.dto.PageResponse;
+import com.example.loanapi.helper.TestHelper;
+import com.example.loanapi.model.UserRole;
+import com.example.loanapi.repository.LoanRequestRepository;
+import com.example.loanapi.repository.LoanRequestRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LoanRequestPageCache
+ */
+class LoanRequestPageCacheTest {
+
+    private LoanRequestRepository repository;
+    private int loads;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LoanRequestRepositoryImpl();
+        loads = 0;
+    }
+
+    @Test
+    void get_KeepsEntryAcrossUnrelatedChangesAndDropsItOnRelatedOnes() {
+        LoanRequestPageCache cache = new LoanRequestPageCache(repository, 10, 60_000);
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        repository.save(TestHelper.createLoanRequest(2L, 2L, "Aprobada"));
+        repository.save(TestHelper.createLoanRequest(3L, 3L, "Pendiente"));
+
+        assertEquals(List.of(1L), ids(get(cache, null, "Pendiente", 0, 1)));
+        assertEquals(List.of(1L), ids(get(cache, null, "Pendiente", 0, 1)));
+        assertEquals(1, loads);
+
+        // Another status: the Pendiente page is still current
+        repository.update(2L, null, loan -> {
+            loan.setAmount(new BigDecimal("99.00"));
+            return loan;
+        });
+        assertEquals(List.of(1L), ids(get(cache, null, "Pendiente", 0, 1)));
+        assertEquals(1, loads);
+
+        // Loan 3 is not on the page, but leaving Pendiente changes the totals
+        repository.update(3L, null, loan -> {
+            loan.setStatus("Rechazada");
+            return loan;
+        });
+        get(cache, null, "Pendiente", 0, 1);
+        assertEquals(2, loads);
+
+        // A new Pendiente loan request may belong on the page
+        repository.save(TestHelper.createLoanRequest(4L, 4L, "Pendiente"));
+        get(cache, null, "Pendiente", 0, 1);
+        assertEquals(3, loads);
+
+        repository.deleteById(1L);
+        assertEquals(List.of(4L), ids(get(cache, null, "Pendiente", 0, 1)));
+        assertEquals(4, loads);
+
+        PageCacheStatsDTO stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(3, stats.getInvalidations());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void get_ClienteEntryIgnoresOtherUsersChanges() {
+        LoanRequestPageCache cache = new LoanRequestPageCache(repository, 10, 60_000);
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+
+        get(cache, 1L, null, 0, 10);
+        repository.save(TestHelper.createLoanRequest(2L, 2L, "Pendiente"));
+        assertEquals(List.of(1L), ids(get(cache, 1L, null, 0, 10)));
+        assertEquals(1, loads);
+
+        repository.save(TestHelper.createLoanRequest(3L, 1L, "Aprobada"));
+        assertEquals(List.of(1L, 3L), ids(get(cache, 1L, null, 0, 10)));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    void get_EvictsLeastRecentlyUsedAndExpiredEntries() throws Exception {
+        LoanRequestPageCache cache = new LoanRequestPageCache(repository, 2, 60_000);
+        get(cache, null, null, 0, 10);
+        get(cache, null, null, 1, 10);
+        get(cache, null, null, 0, 10);
+        get(cache, null, null, 2, 10);
+
+        // Page 0 was used after page 1, so page 1 made room
+        assertEquals(1, cache.getStats().getEvictions());
+        get(cache, null, null, 0, 10);
+        assertEquals(3, loads);
+
+        LoanRequestPageCache shortLived = new LoanRequestPageCache(repository, 2, 1);
+        get(shortLived, null, null, 0, 10);
+        Thread.sleep(5);
+        get(shortLived, null, null, 0, 10);
+        assertEquals(1, shortLived.getStats().getExpirations());
+        assertEquals(5, loads);
+    }
+
+    @Test
+    void get_WriteBetweenLoadAndSequenceCheck_PageNotCached() {
+        LoanRequestPageCache cache = new LoanRequestPageCache(repository, 10, 60_000);
+        repository.save(TestHelper.createLoanRequest(1L, 1L, "Pendiente"));
+        LoanRequestPageCache.Key key = new LoanRequestPageCache.Key(UserRole.GESTORE, null, null, 0, 10, true);
+
+        PageResponse<LoanRequestJson> stale = cache.get(key, () -> {
+            PageResponse<LoanRequestJson> page = load(null, null, 0, 10);
+            repository.update(1L, null, loan -> {
+                loan.setStatus("Aprobada");
+                return loan;
+            });
+            return page;
+        });
+        assertEquals(1L, stale.getContent().get(0).getVersion());
+
+        assertEquals(2L, cache.get(key, () -> load(null, null, 0, 10)).getContent().get(0).getVersion());
+        assertEquals(0, cache.getStats().getHits());
+    }
+
+    private PageResponse<LoanRequestJson> get(LoanRequestPageCache cache, Long userId, String status,
+                                                     int page, int size) {
+        UserRole role = userId == null ? UserRole.GESTORE : UserRole.CLIENTE;
+        LoanRequestPageCache.Key key = new LoanRequestPageCache.Key(role, userId, status, page, size, true);
+        return cache.get(key, () -> {
+            loads++;
+            return load(userId, status, page, size);
+        });
+    }
+
+    private PageResponse<LoanRequestJson> load(Long userId, String status, int page, int size) {
+        long total = repository.count(userId, status);
+        List<LoanRequestJson> content = repository.findPage(userId, status, (long) page * size, size)
+                .stream().map(loan -> new LoanRequestJson(loan.getId(), loan.getVersion(), "{}"))
+                .collect(Collectors.toList());
+        return new PageResponse<>(content, total, (int) Math.ceil((double) total / size), page, size);
+    }
+
+    private static List<Long> ids(PageResponse<LoanRequestJson> page) {
+        return page.getContent().stream().map(LoanRequestJson::getId).collect(Collectors.toList());
+    }
+}